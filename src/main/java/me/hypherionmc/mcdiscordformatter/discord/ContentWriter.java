@@ -0,0 +1,155 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.discord;
+
+import me.hypherionmc.mcdiscordformatter.text.Text;
+
+import java.io.IOException;
+
+/**
+ * Writes segment content to Discord in a single pass, escaping markdown characters and stripping or translating legacy {@code §} formatting codes.
+ */
+final class ContentWriter {
+
+    private static final char SECTION = '\u00A7';
+
+    // the order segment markers are opened in by DiscordSerializer
+    private static final int[] STYLES = {Text.BOLD, Text.STRIKETHROUGH, Text.ITALIC, Text.UNDERLINE};
+    private static final String[] MARKERS = {"**", "~~", "_", "__"};
+
+    private static final int NOT_A_CODE = -2;
+    private static final int RESET = -1;
+
+    private ContentWriter() {
+    }
+
+    /**
+     * Appends the content to the output.
+     *
+     * @param content        the content to write
+     * @param escapeMarkdown if a backslash should be added before every {@code * ~ _ ` |} that isn't already escaped
+     * @param translate      if legacy formatting codes should be translated to markdown instead of being stripped
+     * @param segmentStyle   the {@link Text} style mask of the segment, formatting that is already applied isn't repeated for legacy codes
+     * @param output         the output to append to
+     * @throws IOException if the output throws
+     */
+    static void write(CharSequence content, boolean escapeMarkdown, boolean translate, int segmentStyle,
+                      Appendable output) throws IOException {
+        int length = content.length();
+        int runStart = 0;
+        boolean escaped = false;
+        int open = 0;
+        int pending = 0;
+        // indices into STYLES of the open markers, innermost last
+        int[] stack = translate ? new int[STYLES.length] : null;
+        int depth = 0;
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+            if (c == SECTION && i + 1 < length) {
+                int code = legacyCode(content.charAt(i + 1));
+                if (code != NOT_A_CODE) {
+                    output.append(content, runStart, i);
+                    if (code == RESET) {
+                        pending = 0;
+                    } else {
+                        pending |= code & ~segmentStyle;
+                    }
+                    i++;
+                    runStart = i + 1;
+                    continue;
+                }
+            }
+
+            if (translate && pending != open) {
+                output.append(content, runStart, i);
+                runStart = i;
+                // close the innermost markers until only ones that stay are open, then open the new ones
+                int keep = 0;
+                while (keep < depth && (pending & STYLES[stack[keep]]) != 0) {
+                    keep++;
+                }
+                while (depth > keep) {
+                    int style = stack[--depth];
+                    output.append(MARKERS[style]);
+                    open &= ~STYLES[style];
+                }
+                for (int style = 0; style < STYLES.length; style++) {
+                    if ((pending & STYLES[style]) != 0 && (open & STYLES[style]) == 0) {
+                        output.append(MARKERS[style]);
+                        stack[depth++] = style;
+                    }
+                }
+                open = pending;
+            }
+
+            if (!escapeMarkdown) {
+                continue;
+            }
+            switch (c) {
+                case '*':
+                case '~':
+                case '_':
+                case '`':
+                case '|':
+                    if (!escaped) {
+                        output.append(content, runStart, i).append('\\');
+                        runStart = i;
+                    }
+                    escaped = false;
+                    break;
+                case '\\':
+                    escaped = !escaped;
+                    break;
+                default:
+                    escaped = false;
+                    break;
+            }
+        }
+        output.append(content, runStart, length);
+        while (depth > 0) {
+            output.append(MARKERS[stack[--depth]]);
+        }
+    }
+
+    /**
+     * Maps the character after a {@code §} to the {@link Text} style it applies.
+     *
+     * @param c the character after the section sign
+     * @return the style, {@code 0} for codes without a markdown equivalent, {@link #RESET} for colours and {@code §r}, or {@link #NOT_A_CODE}
+     */
+    private static int legacyCode(char c) {
+        switch (Character.toLowerCase(c)) {
+            case 'l':
+                return Text.BOLD;
+            case 'm':
+                return Text.STRIKETHROUGH;
+            case 'n':
+                return Text.UNDERLINE;
+            case 'o':
+                return Text.ITALIC;
+            case 'k':
+                return 0;
+            case 'r':
+                return RESET;
+            default:
+                // colour codes also end the formatting in Minecraft
+                return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') ? RESET : NOT_A_CODE;
+        }
+    }
+}
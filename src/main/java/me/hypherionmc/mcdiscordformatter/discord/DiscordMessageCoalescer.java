@@ -0,0 +1,295 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.discord;
+
+import net.minecraft.network.chat.MutableComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects Minecraft chat messages over a time window and serializes them into as few Discord messages as possible,
+ * one message per line, to stay within Discord's rate limits during bursts of chat.
+ *
+ * <p>Messages are serialized straight into a shared buffer which is flushed to the sink when the next message wouldn't fit
+ * into {@link #MAX_MESSAGE_LENGTH} characters, when the window of the first buffered message has passed
+ * (checked on {@link #add(MutableComponent)} and {@link #poll()}), or on {@link #flush()}.
+ * Messages with an unclosed code block or spoiler are sent on their own, as they would change the formatting of the messages merged after them.
+ * Messages longer than {@link #MAX_MESSAGE_LENGTH} are split into parts, formatting open at a split is closed at the end of the part
+ * and opened again at the start of the next one.</p>
+ *
+ * <p>This class is thread safe, the sink is called while holding the coalescer's lock.</p>
+ */
+public class DiscordMessageCoalescer {
+
+    /**
+     * The maximum length of a Discord message.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+
+    private final DiscordSerializer serializer;
+    private final DiscordSerializerOptions serializerOptions;
+    private final long windowNanos;
+    private final Consumer<String> sink;
+
+    private final StringBuilder buffer = new StringBuilder(MAX_MESSAGE_LENGTH);
+    private long windowStart;
+    private long flushCount;
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param serializer        the serializer to serialize messages with
+     * @param serializerOptions the options to serialize messages with
+     * @param window            how long the first message of a Discord message may wait for more messages
+     * @param sink              receives the Discord messages, each at most {@link #MAX_MESSAGE_LENGTH} characters long
+     */
+    public DiscordMessageCoalescer(@NotNull DiscordSerializer serializer, @NotNull DiscordSerializerOptions serializerOptions,
+                                   @NotNull Duration window, @NotNull Consumer<String> sink) {
+        this.serializer = serializer;
+        this.serializerOptions = serializerOptions;
+        this.windowNanos = window.toNanos();
+        this.sink = sink;
+    }
+
+    /**
+     * Serializes a Minecraft message into the buffer, flushing the buffer first if the window has passed or the message doesn't fit.
+     *
+     * @param component the text component from a Minecraft chat message
+     */
+    public synchronized void add(@NotNull MutableComponent component) {
+        poll();
+
+        int mark = buffer.length();
+        if (mark != 0) {
+            buffer.append('\n');
+        }
+        int start = buffer.length();
+        try {
+            serializer.serialize(component, serializerOptions, buffer);
+        } catch (IOException e) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException(e);
+        }
+        if (buffer.length() == start) {
+            // nothing to send
+            buffer.setLength(mark);
+            return;
+        }
+
+        boolean balanced = isBalanced(buffer, start, buffer.length());
+        if (buffer.length() <= MAX_MESSAGE_LENGTH && balanced) {
+            if (mark == 0) {
+                windowStart = System.nanoTime();
+            }
+            return;
+        }
+
+        // send the buffered messages without this one
+        String message = buffer.substring(start);
+        buffer.setLength(mark);
+        flush();
+
+        // formatting open at a split is closed at the end of the part and opened again at the start of the next one
+        OpenMarkers markers = new OpenMarkers();
+        String reopen = "";
+        int offset = 0;
+        while (reopen.length() + message.length() - offset > MAX_MESSAGE_LENGTH) {
+            int end = splitPoint(message, offset, MAX_MESSAGE_LENGTH - reopen.length() - OpenMarkers.MAX_CLOSING_LENGTH);
+            markers.scan(message, offset, end);
+            emit(reopen + message.substring(offset, end) + markers.closing());
+            reopen = markers.opening();
+            offset = end;
+        }
+        buffer.append(reopen).append(message, offset, message.length());
+        windowStart = System.nanoTime();
+        if (!balanced) {
+            flush();
+        }
+    }
+
+    /**
+     * Flushes the buffer if the window of its first message has passed, should be called regularly (for example every tick).
+     */
+    public synchronized void poll() {
+        if (buffer.length() != 0 && System.nanoTime() - windowStart >= windowNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the buffered messages to the sink, if there are any.
+     */
+    public synchronized void flush() {
+        if (buffer.length() == 0) {
+            return;
+        }
+        String message = buffer.toString();
+        buffer.setLength(0);
+        emit(message);
+    }
+
+    private void emit(String message) {
+        flushCount++;
+        sink.accept(message);
+    }
+
+    /**
+     * Returns the length of the buffered, not yet sent Discord message.
+     *
+     * @return the length in characters
+     */
+    public synchronized int getBufferedLength() {
+        return buffer.length();
+    }
+
+    /**
+     * Returns the amount of Discord messages sent to the sink.
+     *
+     * @return the amount of messages
+     */
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Finds where to end the part of an oversized message starting at the offset, preferring line breaks over spaces.
+     */
+    private static int splitPoint(String message, int offset, int maxLength) {
+        int limit = offset + maxLength;
+        int newline = message.lastIndexOf('\n', limit - 1);
+        if (newline > offset) {
+            return newline + 1;
+        }
+        int space = message.lastIndexOf(' ', limit - 1);
+        if (space > offset) {
+            return space + 1;
+        }
+        // don't split surrogate pairs or escapes
+        char last = message.charAt(limit - 1);
+        return Character.isHighSurrogate(last) || last == '\\' ? limit - 1 : limit;
+    }
+
+    /**
+     * Checks if every code block ({@code ```}) and spoiler ({@code ||}) in the range is closed, skipping escaped characters.
+     */
+    private static boolean isBalanced(CharSequence text, int start, int end) {
+        boolean codeBlock = false;
+        boolean spoiler = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '`' && i + 2 < end && text.charAt(i + 1) == '`' && text.charAt(i + 2) == '`') {
+                codeBlock = !codeBlock;
+                i += 2;
+            } else if (c == '|' && !codeBlock && i + 1 < end && text.charAt(i + 1) == '|') {
+                spoiler = !spoiler;
+                i++;
+            }
+        }
+        return !codeBlock && !spoiler;
+    }
+
+    /**
+     * Tracks the markdown formatting left open by the parts of an oversized message, in the order it was opened.
+     */
+    private static final class OpenMarkers {
+
+        private static final String FENCE = "```";
+        // every marker open at once: a fence, || ** ~~ __ * and _
+        private static final int MAX_CLOSING_LENGTH = 13;
+        // longer languages aren't repeated when a code block is opened again
+        private static final int MAX_LANGUAGE_LENGTH = 16;
+
+        private final List<String> open = new ArrayList<>();
+        private String language = "";
+
+        /**
+         * Updates the open markers with the given part of the message, skipping escaped characters.
+         */
+        private void scan(String text, int start, int end) {
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                String code = open.isEmpty() ? null : open.get(open.size() - 1);
+                if (code != null && (code.equals(FENCE) || code.equals("`"))) {
+                    // only the end of the code counts inside code
+                    if (text.startsWith(code, i)) {
+                        open.remove(open.size() - 1);
+                        i += code.length() - 1;
+                    }
+                    continue;
+                }
+
+                if (c == '\\') {
+                    i++;
+                } else if (text.startsWith(FENCE, i)) {
+                    int languageEnd = i + FENCE.length();
+                    while (languageEnd < end && !Character.isWhitespace(text.charAt(languageEnd))) {
+                        languageEnd++;
+                    }
+                    int languageLength = languageEnd - i - FENCE.length();
+                    language = languageLength <= MAX_LANGUAGE_LENGTH ? text.substring(i + FENCE.length(), languageEnd) : "";
+                    open.add(FENCE);
+                    i = languageEnd - 1;
+                } else if (c == '`') {
+                    open.add("`");
+                } else if ((c == '|' || c == '*' || c == '~' || c == '_') && i + 1 < end && text.charAt(i + 1) == c) {
+                    toggle(text.substring(i, i + 2));
+                    i++;
+                } else if (c == '*' || c == '_') {
+                    toggle(c == '*' ? "*" : "_");
+                }
+            }
+        }
+
+        private void toggle(String marker) {
+            int index = open.lastIndexOf(marker);
+            if (index != -1) {
+                open.remove(index);
+            } else {
+                open.add(marker);
+            }
+        }
+
+        private String closing() {
+            StringBuilder closing = new StringBuilder();
+            for (int i = open.size() - 1; i >= 0; i--) {
+                closing.append(open.get(i));
+            }
+            return closing.toString();
+        }
+
+        private String opening() {
+            StringBuilder opening = new StringBuilder();
+            for (String marker : open) {
+                opening.append(marker);
+                if (marker.equals(FENCE)) {
+                    opening.append(language).append('\n');
+                }
+            }
+            return opening.toString();
+        }
+    }
+}
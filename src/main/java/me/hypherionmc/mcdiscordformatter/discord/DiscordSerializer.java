@@ -18,16 +18,25 @@
 
 package me.hypherionmc.mcdiscordformatter.discord;
 
+import me.hypherionmc.mcdiscordformatter.emoji.EmojiTranslator;
+import me.hypherionmc.mcdiscordformatter.jfr.RenderEvent;
+import me.hypherionmc.mcdiscordformatter.mention.MentionLinker;
 import me.hypherionmc.mcdiscordformatter.text.Text;
-import net.minecraft.ChatFormatting;
 import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
 import net.minecraft.network.chat.contents.*;
+import net.minecraft.resources.ResourceLocation;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 
 /**
@@ -145,6 +154,10 @@ public class DiscordSerializer {
      * @return Discord markdown formatted String
      */
     public String serialize(@NotNull final MutableComponent component) {
+        return serialize(component, getEffectiveDefaultOptions());
+    }
+
+    private DiscordSerializerOptions getEffectiveDefaultOptions() {
         DiscordSerializerOptions options = getDefaultOptions();
         if (keybindProvider != null) {
             options = options.withKeybindProvider(keybindProvider);
@@ -152,7 +165,7 @@ public class DiscordSerializer {
         if (translationProvider != null) {
             options = options.withTranslationProvider(translationProvider);
         }
-        return serialize(component, options);
+        return options;
     }
 
     /**
@@ -179,7 +192,110 @@ public class DiscordSerializer {
      */
     public String serialize(@NotNull final MutableComponent component, @NotNull final DiscordSerializerOptions serializerOptions) {
         StringBuilder stringBuilder = new StringBuilder();
-        List<Text> texts = getTexts(new LinkedList<>(), component, new Text(), serializerOptions);
+        try {
+            serialize(component, serializerOptions, stringBuilder);
+        } catch (IOException e) {
+            // StringBuilder doesn't throw
+            throw new UncheckedIOException(e);
+        }
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Serializes a {@link MutableComponent} to a webhook ready JSON string (including the quotes) with this serializer's
+     * {@link DiscordSerializer#getDefaultOptions() default options}, written as UTF-8 to the given stream.
+     * User and role mentions in the output are collected while writing.
+     *
+     * @param component The text component from a Minecraft chat message
+     * @param output    the stream to write the JSON string to
+     * @return the length of the written JSON string and the mentioned user and role ids
+     * @throws IOException if writing to the stream fails
+     * @see #serializeWebhook(MutableComponent, DiscordSerializerOptions, OutputStream)
+     */
+    public WebhookContent serializeWebhook(@NotNull final MutableComponent component, @NotNull final OutputStream output) throws IOException {
+        return serializeWebhook(component, getEffectiveDefaultOptions(), output);
+    }
+
+    /**
+     * Serializes a {@link MutableComponent} to a webhook ready JSON string (including the quotes), written as UTF-8 to the given stream.
+     * User and role mentions in the output are collected while writing, for building {@code allowed_mentions}.
+     *
+     * @param component         The text component from a Minecraft chat message
+     * @param serializerOptions The options to use for this serialization
+     * @param output            the stream to write the JSON string to
+     * @return the length of the written JSON string and the mentioned user and role ids
+     * @throws IOException if writing to the stream fails
+     */
+    public WebhookContent serializeWebhook(@NotNull final MutableComponent component, @NotNull final DiscordSerializerOptions serializerOptions,
+                                           @NotNull final OutputStream output) throws IOException {
+        JsonStringWriter writer = JsonStringWriter.of(output);
+        writer.begin();
+        serialize(component, serializerOptions, writer);
+        return writer.end();
+    }
+
+    /**
+     * Serializes a {@link MutableComponent} to a webhook ready JSON string (including the quotes) with this serializer's
+     * {@link DiscordSerializer#getDefaultOptions() default options}, written as UTF-8 to the given buffer.
+     * User and role mentions in the output are collected while writing.
+     *
+     * @param component The text component from a Minecraft chat message
+     * @param output    the buffer to write the JSON string to
+     * @return the length of the written JSON string and the mentioned user and role ids
+     * @throws java.nio.BufferOverflowException if the buffer doesn't have enough space remaining
+     * @see #serializeWebhook(MutableComponent, DiscordSerializerOptions, ByteBuffer)
+     */
+    public WebhookContent serializeWebhook(@NotNull final MutableComponent component, @NotNull final ByteBuffer output) {
+        return serializeWebhook(component, getEffectiveDefaultOptions(), output);
+    }
+
+    /**
+     * Serializes a {@link MutableComponent} to a webhook ready JSON string (including the quotes), written as UTF-8 to the given buffer.
+     * User and role mentions in the output are collected while writing, for building {@code allowed_mentions}.
+     *
+     * @param component         The text component from a Minecraft chat message
+     * @param serializerOptions The options to use for this serialization
+     * @param output            the buffer to write the JSON string to
+     * @return the length of the written JSON string and the mentioned user and role ids
+     * @throws java.nio.BufferOverflowException if the buffer doesn't have enough space remaining
+     */
+    public WebhookContent serializeWebhook(@NotNull final MutableComponent component, @NotNull final DiscordSerializerOptions serializerOptions,
+                                           @NotNull final ByteBuffer output) {
+        JsonStringWriter writer = JsonStringWriter.of(output);
+        try {
+            writer.begin();
+            serialize(component, serializerOptions, writer);
+            return writer.end();
+        } catch (IOException e) {
+            // ByteBuffer doesn't throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void serialize(final MutableComponent component, final DiscordSerializerOptions serializerOptions,
+                   final Appendable output) throws IOException {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        int start = output instanceof CharSequence ? ((CharSequence) output).length() : -1;
+        boolean simple = isSimple(component, serializerOptions);
+        if (simple) {
+            serializeSimple(component, serializerOptions, output);
+        } else {
+            serializeTexts(component, serializerOptions, output);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            // the length of what was written is only known for text buffers
+            int outputLength = start != -1 ? ((CharSequence) output).length() - start : -1;
+            event.commit(RenderEvent.DISCORD, component.getString().length(), outputLength, simple, false);
+        }
+    }
+
+    private void serializeTexts(final MutableComponent component, final DiscordSerializerOptions serializerOptions,
+                                final Appendable output) throws IOException {
+
+        boolean first = true;
+        List<Text> texts = getTexts(component, serializerOptions);
         for (Text text : texts) {
             String content = text.getContent();
             if (content.isEmpty()) {
@@ -187,52 +303,137 @@ public class DiscordSerializer {
                 continue;
             }
 
+            if (!first) {
+                output.append('\u200B'); // zero width space
+            }
+            first = false;
+
             if (text.isBold()) {
-                stringBuilder.append("**");
+                output.append("**");
             }
             if (text.isStrikethrough()) {
-                stringBuilder.append("~~");
+                output.append("~~");
             }
             if (text.isItalic()) {
-                stringBuilder.append("_");
+                output.append("_");
             }
             if (text.isUnderline()) {
-                stringBuilder.append("__");
+                output.append("__");
             }
 
-            if (serializerOptions.isEscapeMarkdown()) {
-                content = content.replace("(?<!\\\\)(?:\\\\\\\\)*\\*", "\\*")
-                        .replace("(?<!\\\\)(?:\\\\\\\\)*~", "\\~")
-                        .replace("(?<!\\\\)(?:\\\\\\\\)*_", "\\_")
-                        .replace("(?<!\\\\)(?:\\\\\\\\)*`", "\\`")
-                        .replace("(?<!\\\\)(?:\\\\\\\\)*\\|", "\\|");
+            String link = text.getLink();
+            if (link != null) {
+                output.append('[');
+                appendContent(content, text.getStyle(), true, serializerOptions, output);
+                output.append("](").append(link).append(')');
+            } else {
+                appendContent(content, text.getStyle(), false, serializerOptions, output);
             }
 
-            stringBuilder.append(ChatFormatting.stripFormatting(content));
-
             if (text.isUnderline()) {
-                stringBuilder.append("__");
+                output.append("__");
             }
             if (text.isItalic()) {
-                stringBuilder.append("_");
+                output.append("_");
             }
             if (text.isStrikethrough()) {
-                stringBuilder.append("~~");
+                output.append("~~");
             }
             if (text.isBold()) {
-                stringBuilder.append("**");
+                output.append("**");
             }
+        }
+    }
 
-            stringBuilder.append("\u200B"); // zero width space
+    private void appendContent(String content, int segmentStyle, boolean link, final DiscordSerializerOptions serializerOptions,
+                               final Appendable output) throws IOException {
+        // the text of links is kept as written
+        EmojiTranslator emojiTranslator = link ? null : serializerOptions.getEmojiTranslator();
+        if (emojiTranslator != null) {
+            content = emojiTranslator.toUnicode(content);
+        }
+        MentionLinker mentionLinker = link ? null : serializerOptions.getMentionLinker();
+        if (mentionLinker != null) {
+            content = mentionLinker.link(content);
         }
-        int length = stringBuilder.length();
-        return length < 1 ? "" : stringBuilder.substring(0, length - 1);
+
+        ContentWriter.write(content, serializerOptions.isEscapeMarkdown(),
+                serializerOptions.getLegacyFormatting() == LegacyFormatting.TRANSLATE, segmentStyle, output);
+    }
+
+    /**
+     * Checks if the component is plain text with at most one level of siblings, all sharing the same markdown styling,
+     * in which case the output is a single segment and {@link #getTexts(MutableComponent, DiscordSerializerOptions)} can be skipped.
+     * An empty root (like {@link Component#empty()}) may have any style, as it doesn't produce a segment.
+     */
+    private static boolean isSimple(final MutableComponent component, final DiscordSerializerOptions serializerOptions) {
+        if (!isSimpleNode(component, serializerOptions)) {
+            return false;
+        }
+
+        List<Component> siblings = component.getSiblings();
+        Style style = ((PlainTextContents) component.getContents()).text().isEmpty() && !siblings.isEmpty()
+                ? siblings.get(0).getStyle()
+                : component.getStyle();
+        for (Component sibling : siblings) {
+            if (!isSimpleNode(sibling, serializerOptions)
+                    || !sibling.getSiblings().isEmpty()
+                    || !markdownMatches(style, sibling.getStyle())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSimpleNode(final Component component, final DiscordSerializerOptions serializerOptions) {
+        if (!(component.getContents() instanceof PlainTextContents)) {
+            return false;
+        }
+        ClickEvent clickEvent = component.getStyle().getClickEvent();
+        return !serializerOptions.isEmbedLinks() || clickEvent == null || clickEvent.getAction() != ClickEvent.Action.OPEN_URL;
     }
 
-    private LinkedList<Text> getTexts(@NotNull final List<Text> input, @NotNull final MutableComponent component,
-                                      @NotNull final Text text, @NotNull final DiscordSerializerOptions serializerOptions) {
-        LinkedList<Text> output = new LinkedList<>(input);
+    private static boolean markdownMatches(Style style, Style other) {
+        return ((Text.styleMask(style) ^ Text.styleMask(other)) & Text.MARKDOWN) == 0;
+    }
 
+    private void serializeSimple(final MutableComponent component, final DiscordSerializerOptions serializerOptions,
+                                 final Appendable output) throws IOException {
+        List<Component> siblings = component.getSiblings();
+        String content = ((PlainTextContents) component.getContents()).text();
+        Style style = component.getStyle();
+        if (!siblings.isEmpty()) {
+            StringBuilder builder = new StringBuilder(content);
+            for (Component sibling : siblings) {
+                builder.append(((PlainTextContents) sibling.getContents()).text());
+            }
+            if (content.isEmpty()) {
+                style = siblings.get(0).getStyle();
+            }
+            content = builder.toString();
+        }
+        if (content.isEmpty()) {
+            return;
+        }
+
+        String open = (style.isBold() ? "**" : "") + (style.isStrikethrough() ? "~~" : "")
+                + (style.isItalic() ? "_" : "") + (style.isUnderlined() ? "__" : "");
+        output.append(open);
+        appendContent(content, Text.styleMask(style), false, serializerOptions, output);
+        for (int i = open.length() - 1; i >= 0; i--) {
+            // markers are symmetric, so the closing markers are the opening ones reversed
+            output.append(open.charAt(i));
+        }
+    }
+
+    private List<Text> getTexts(@NotNull final MutableComponent component, @NotNull final DiscordSerializerOptions serializerOptions) {
+        TextRuns runs = new TextRuns();
+        getTexts(runs, component, serializerOptions);
+        return runs.finish();
+    }
+
+    private void getTexts(@NotNull final TextRuns output, @NotNull final MutableComponent component,
+                          @NotNull final DiscordSerializerOptions serializerOptions) {
         String content;
 
         // TODO maybe fix?
@@ -245,8 +446,9 @@ public class DiscordSerializer {
         } else if (component.getContents() instanceof SelectorContents) {
             SelectorContents selectorText = (SelectorContents) component.getContents();
             content = selectorText.getPattern();
-        } else if (component.getContents() instanceof PlainTextContents.LiteralContents) {
-            content = component.getString();
+        } else if (component.getContents() instanceof PlainTextContents) {
+            // getString() would include the siblings, which are added below
+            content = ((PlainTextContents) component.getContents()).text();
         } else if (component.getContents() instanceof TranslatableContents) {
             content = translationProvider.apply(component);
         } else {
@@ -254,38 +456,17 @@ public class DiscordSerializer {
         }
 
 
+        Text text = Text.of(content, component.getStyle());
         ClickEvent clickEvent = component.getStyle().getClickEvent();
         if (serializerOptions.isEmbedLinks() && clickEvent != null && clickEvent.getAction() == ClickEvent.Action.OPEN_URL) {
-            text.setContent("[" + content + "](" + clickEvent.getValue() + ")");
-        } else {
-            text.setContent(content);
-        }
-
-        if (component.getStyle().isBold()) {
-            text.setBold(true);
-        }
-        text.setBold(component.getStyle().isBold());
-        text.setItalic(component.getStyle().isItalic());
-        text.setUnderline(component.getStyle().isUnderlined());
-        text.setStrikethrough(component.getStyle().isStrikethrough());
-
-        if (!output.isEmpty()) {
-            Text previous = output.getLast();
-            // if the formatting matches (color was different), merge the text objects to reduce length
-            if (text.formattingMatches(previous)) {
-                output.removeLast();
-                text.setContent(previous.getContent() + text.getContent());
-            }
+            // the URL is written as is when serializing, only the text of the link is escaped
+            text = text.withLink(clickEvent.getValue());
         }
         output.add(text);
 
         for (Component child : component.getSiblings()) {
-            Text next = text.clone();
-            next.setContent("");
-            output = getTexts(output, (MutableComponent) child, next, serializerOptions);
+            getTexts(output, (MutableComponent) child, serializerOptions);
         }
-
-        return output;
     }
 
     public DiscordSerializerOptions getDefaultOptions() {
@@ -295,4 +476,58 @@ public class DiscordSerializer {
     public void setDefaultOptions(DiscordSerializerOptions defaultOptions) {
         this.defaultOptions = defaultOptions;
     }
+
+    /**
+     * Collects the segments of a component, merging adjacent segments with the same markdown formatting and link to reduce length.
+     * The content of a run of segments is joined once when the run ends, so merging stays linear.
+     * The colour, font and obfuscation of a merged segment are only kept if every merged segment has them.
+     */
+    private static final class TextRuns {
+
+        private final List<Text> texts = new ArrayList<>();
+        private final StringBuilder content = new StringBuilder();
+        // the first segment of the current run, and the formatting all segments of the run share
+        private Text first;
+        private int merged;
+        private int style;
+        private int color;
+        private ResourceLocation font;
+
+        private void add(Text text) {
+            if (first != null && text.formattingMatches(first) && Objects.equals(text.getLink(), first.getLink())) {
+                content.append(text.getContent());
+                merged++;
+                style &= text.getStyle();
+                if (text.getColor() != color) {
+                    color = Text.NO_COLOR;
+                }
+                if (!Objects.equals(text.getFont(), font)) {
+                    font = null;
+                }
+                return;
+            }
+
+            flush();
+            first = text;
+            merged = 1;
+            style = text.getStyle();
+            color = text.getColor();
+            font = text.getFont();
+            content.append(text.getContent());
+        }
+
+        private List<Text> finish() {
+            flush();
+            return texts;
+        }
+
+        private void flush() {
+            if (first == null) {
+                return;
+            }
+            texts.add(merged == 1 ? first : new Text(content.toString(), style, color, font).withLink(first.getLink()));
+            content.setLength(0);
+            first = null;
+        }
+    }
 }
@@ -18,9 +18,12 @@
 
 package me.hypherionmc.mcdiscordformatter.discord;
 
+import me.hypherionmc.mcdiscordformatter.emoji.EmojiTranslator;
+import me.hypherionmc.mcdiscordformatter.mention.MentionLinker;
 import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.chat.contents.KeybindContents;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.function.Function;
 
@@ -30,10 +33,18 @@ import java.util.function.Function;
 public final class DiscordSerializerOptions {
 
     public DiscordSerializerOptions(boolean embedLinks, boolean escapeMarkdown, @NotNull Function<KeybindContents, String> keybindProvider, @NotNull Function<MutableComponent, String> translationProvider) {
+        this(embedLinks, escapeMarkdown, keybindProvider, translationProvider, null, null, LegacyFormatting.STRIP);
+    }
+
+    private DiscordSerializerOptions(boolean embedLinks, boolean escapeMarkdown, @NotNull Function<KeybindContents, String> keybindProvider, @NotNull Function<MutableComponent, String> translationProvider,
+                                     @Nullable EmojiTranslator emojiTranslator, @Nullable MentionLinker mentionLinker, @NotNull LegacyFormatting legacyFormatting) {
         this.embedLinks = embedLinks;
         this.escapeMarkdown = escapeMarkdown;
         this.keybindProvider = keybindProvider;
         this.translationProvider = translationProvider;
+        this.emojiTranslator = emojiTranslator;
+        this.mentionLinker = mentionLinker;
+        this.legacyFormatting = legacyFormatting;
     }
 
     /**
@@ -67,6 +78,26 @@ public final class DiscordSerializerOptions {
     @NotNull
     private final Function<MutableComponent, String> translationProvider;
 
+    /**
+     * The {@link EmojiTranslator} to replace shortcodes in the Minecraft message content with unicode emoji,
+     * {@code null} to leave shortcodes untouched.
+     */
+    @Nullable
+    private final EmojiTranslator emojiTranslator;
+
+    /**
+     * The {@link MentionLinker} to replace Discord member names in the Minecraft message content with mentions,
+     * {@code null} to not link names.
+     */
+    @Nullable
+    private final MentionLinker mentionLinker;
+
+    /**
+     * How legacy {@code §} formatting codes in the Minecraft message content are handled.
+     */
+    @NotNull
+    private final LegacyFormatting legacyFormatting;
+
     public boolean isEmbedLinks() {
         return this.embedLinks;
     }
@@ -83,23 +114,47 @@ public final class DiscordSerializerOptions {
         return this.translationProvider;
     }
 
+    public @Nullable EmojiTranslator getEmojiTranslator() {
+        return this.emojiTranslator;
+    }
+
+    public @Nullable MentionLinker getMentionLinker() {
+        return this.mentionLinker;
+    }
+
+    public @NotNull LegacyFormatting getLegacyFormatting() {
+        return this.legacyFormatting;
+    }
+
     public DiscordSerializerOptions withEmbedLinks(boolean embedLinks) {
-        return this.embedLinks == embedLinks ? this : new DiscordSerializerOptions(embedLinks, this.escapeMarkdown, this.keybindProvider, this.translationProvider);
+        return this.embedLinks == embedLinks ? this : new DiscordSerializerOptions(embedLinks, this.escapeMarkdown, this.keybindProvider, this.translationProvider, this.emojiTranslator, this.mentionLinker, this.legacyFormatting);
     }
 
     public DiscordSerializerOptions withEscapeMarkdown(boolean escapeMarkdown) {
-        return this.escapeMarkdown == escapeMarkdown ? this : new DiscordSerializerOptions(this.embedLinks, escapeMarkdown, this.keybindProvider, this.translationProvider);
+        return this.escapeMarkdown == escapeMarkdown ? this : new DiscordSerializerOptions(this.embedLinks, escapeMarkdown, this.keybindProvider, this.translationProvider, this.emojiTranslator, this.mentionLinker, this.legacyFormatting);
     }
 
     public DiscordSerializerOptions withKeybindProvider(@NotNull Function<KeybindContents, String> keybindProvider) {
-        return this.keybindProvider == keybindProvider ? this : new DiscordSerializerOptions(this.embedLinks, this.escapeMarkdown, keybindProvider, this.translationProvider);
+        return this.keybindProvider == keybindProvider ? this : new DiscordSerializerOptions(this.embedLinks, this.escapeMarkdown, keybindProvider, this.translationProvider, this.emojiTranslator, this.mentionLinker, this.legacyFormatting);
     }
 
     public DiscordSerializerOptions withTranslationProvider(@NotNull Function<MutableComponent, String> translationProvider) {
-        return this.translationProvider == translationProvider ? this : new DiscordSerializerOptions(this.embedLinks, this.escapeMarkdown, this.keybindProvider, translationProvider);
+        return this.translationProvider == translationProvider ? this : new DiscordSerializerOptions(this.embedLinks, this.escapeMarkdown, this.keybindProvider, translationProvider, this.emojiTranslator, this.mentionLinker, this.legacyFormatting);
+    }
+
+    public DiscordSerializerOptions withEmojiTranslator(@Nullable EmojiTranslator emojiTranslator) {
+        return this.emojiTranslator == emojiTranslator ? this : new DiscordSerializerOptions(this.embedLinks, this.escapeMarkdown, this.keybindProvider, this.translationProvider, emojiTranslator, this.mentionLinker, this.legacyFormatting);
+    }
+
+    public DiscordSerializerOptions withMentionLinker(@Nullable MentionLinker mentionLinker) {
+        return this.mentionLinker == mentionLinker ? this : new DiscordSerializerOptions(this.embedLinks, this.escapeMarkdown, this.keybindProvider, this.translationProvider, this.emojiTranslator, mentionLinker, this.legacyFormatting);
+    }
+
+    public DiscordSerializerOptions withLegacyFormatting(@NotNull LegacyFormatting legacyFormatting) {
+        return this.legacyFormatting == legacyFormatting ? this : new DiscordSerializerOptions(this.embedLinks, this.escapeMarkdown, this.keybindProvider, this.translationProvider, this.emojiTranslator, this.mentionLinker, legacyFormatting);
     }
 
     public String toString() {
-        return "DiscordSerializerOptions(embedLinks=" + this.isEmbedLinks() + ", escapeMarkdown=" + this.isEscapeMarkdown() + ", keybindProvider=" + this.getKeybindProvider() + ", translationProvider=" + this.getTranslationProvider() + ")";
+        return "DiscordSerializerOptions(embedLinks=" + this.isEmbedLinks() + ", escapeMarkdown=" + this.isEscapeMarkdown() + ", keybindProvider=" + this.getKeybindProvider() + ", translationProvider=" + this.getTranslationProvider() + ", emojiTranslator=" + this.getEmojiTranslator() + ", mentionLinker=" + this.getMentionLinker() + ", legacyFormatting=" + this.getLegacyFormatting() + ")";
     }
 }
@@ -0,0 +1,262 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.discord;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An {@link Appendable} that writes its input as a UTF-8 encoded JSON string,
+ * while scanning for Discord user and role mentions.
+ * The bytes are collected in a small buffer which is written to the output when full and by {@link #end()}.
+ */
+abstract class JsonStringWriter implements Appendable {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    // mention scanner states
+    private static final int IDLE = 0;
+    private static final int OPEN = 1; // <
+    private static final int AT = 2; // <@
+    private static final int USER = 3; // <@ or <@! followed by digits
+    private static final int ROLE = 4; // <@& followed by digits
+
+    private final byte[] buffer = new byte[512];
+    private int position;
+    private int length;
+    private char highSurrogate;
+
+    private int state = IDLE;
+    private long id;
+    private int digits;
+    private long[] userIds = new long[0];
+    private int userCount;
+    private long[] roleIds = new long[0];
+    private int roleCount;
+
+    static JsonStringWriter of(OutputStream output) {
+        return new JsonStringWriter() {
+            @Override
+            protected void write(byte[] bytes, int length) throws IOException {
+                output.write(bytes, 0, length);
+            }
+        };
+    }
+
+    static JsonStringWriter of(ByteBuffer output) {
+        return new JsonStringWriter() {
+            @Override
+            protected void write(byte[] bytes, int length) {
+                output.put(bytes, 0, length);
+            }
+        };
+    }
+
+    protected abstract void write(byte[] bytes, int length) throws IOException;
+
+    private void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = (byte) b;
+        length++;
+    }
+
+    private void flush() throws IOException {
+        if (position > 0) {
+            write(buffer, position);
+            position = 0;
+        }
+    }
+
+    void begin() throws IOException {
+        writeByte('"');
+    }
+
+    WebhookContent end() throws IOException {
+        if (highSurrogate != 0) {
+            writeCodePoint(0xFFFD);
+            highSurrogate = 0;
+        }
+        writeByte('"');
+        flush();
+        return new WebhookContent(length, Arrays.copyOf(userIds, userCount), Arrays.copyOf(roleIds, roleCount));
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            append(csq.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        scan(c);
+
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                writeCodePoint(Character.toCodePoint(high, c));
+                return this;
+            }
+            writeCodePoint(0xFFFD);
+        }
+        if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+            return this;
+        }
+
+        switch (c) {
+            case '"':
+            case '\\':
+                writeByte('\\');
+                writeByte(c);
+                break;
+            case '\n':
+                writeByte('\\');
+                writeByte('n');
+                break;
+            case '\r':
+                writeByte('\\');
+                writeByte('r');
+                break;
+            case '\t':
+                writeByte('\\');
+                writeByte('t');
+                break;
+            default:
+                if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                    writeByte('\\');
+                    writeByte('u');
+                    writeByte(HEX[c >> 12 & 0xF]);
+                    writeByte(HEX[c >> 8 & 0xF]);
+                    writeByte(HEX[c >> 4 & 0xF]);
+                    writeByte(HEX[c & 0xF]);
+                } else {
+                    writeCodePoint(Character.isLowSurrogate(c) ? 0xFFFD : c);
+                }
+        }
+        return this;
+    }
+
+    private void writeCodePoint(int codePoint) throws IOException {
+        if (codePoint < 0x80) {
+            writeByte(codePoint);
+        } else if (codePoint < 0x800) {
+            writeByte(0xC0 | codePoint >> 6);
+            writeByte(0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            writeByte(0xE0 | codePoint >> 12);
+            writeByte(0x80 | codePoint >> 6 & 0x3F);
+            writeByte(0x80 | codePoint & 0x3F);
+        } else {
+            writeByte(0xF0 | codePoint >> 18);
+            writeByte(0x80 | codePoint >> 12 & 0x3F);
+            writeByte(0x80 | codePoint >> 6 & 0x3F);
+            writeByte(0x80 | codePoint & 0x3F);
+        }
+    }
+
+    private void scan(char c) {
+        switch (state) {
+            case OPEN:
+                state = c == '@' ? AT : IDLE;
+                break;
+            case AT:
+                if (c == '!') {
+                    startId(USER);
+                    return;
+                } else if (c == '&') {
+                    startId(ROLE);
+                    return;
+                } else if (c >= '0' && c <= '9') {
+                    startId(USER);
+                    appendDigit(c);
+                    return;
+                }
+                state = IDLE;
+                break;
+            case USER:
+            case ROLE:
+                if (c >= '0' && c <= '9') {
+                    appendDigit(c);
+                    return;
+                }
+                if (c == '>' && digits > 0) {
+                    if (state == USER) {
+                        if (!contains(userIds, userCount, id)) {
+                            userIds = grow(userIds, userCount);
+                            userIds[userCount++] = id;
+                        }
+                    } else if (!contains(roleIds, roleCount, id)) {
+                        roleIds = grow(roleIds, roleCount);
+                        roleIds[roleCount++] = id;
+                    }
+                }
+                state = IDLE;
+                break;
+            default:
+                break;
+        }
+        if (c == '<') {
+            state = OPEN;
+        }
+    }
+
+    private void startId(int kind) {
+        state = kind;
+        id = 0;
+        digits = 0;
+    }
+
+    private void appendDigit(char c) {
+        int digit = c - '0';
+        // snowflakes fit in an unsigned long, anything larger isn't a mention
+        if (Long.compareUnsigned(id, Long.divideUnsigned(-1L - digit, 10)) > 0) {
+            state = IDLE;
+            return;
+        }
+        id = id * 10 + digit;
+        digits++;
+    }
+
+    private static boolean contains(long[] ids, int count, long id) {
+        for (int i = 0; i < count; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] grow(long[] ids, int count) {
+        return count < ids.length ? ids : Arrays.copyOf(ids, Math.max(4, count * 2));
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.discord;
+
+/**
+ * How {@link DiscordSerializer}s handle legacy {@code §} formatting codes in the Minecraft message content.
+ *
+ * @see DiscordSerializerOptions#withLegacyFormatting(LegacyFormatting)
+ */
+public enum LegacyFormatting {
+
+    /**
+     * Removes all formatting codes.
+     */
+    STRIP,
+
+    /**
+     * Translates {@code §l}, {@code §m}, {@code §o} and {@code §n} into bold, strikethrough, italics and underline markdown,
+     * colour codes and {@code §r} end the formatting and all other codes are removed.
+     */
+    TRANSLATE
+}
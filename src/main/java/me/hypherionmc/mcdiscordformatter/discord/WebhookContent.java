@@ -0,0 +1,94 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.discord;
+
+import java.util.Arrays;
+
+/**
+ * The result of serializing a Minecraft message for a webhook,
+ * with the mentions found in the output collected for {@code allowed_mentions}.
+ *
+ * @see DiscordSerializer#serializeWebhook(net.minecraft.network.chat.MutableComponent, DiscordSerializerOptions, java.io.OutputStream)
+ */
+public final class WebhookContent {
+
+    private final int length;
+    private final long[] userIds;
+    private final long[] roleIds;
+
+    WebhookContent(int length, long[] userIds, long[] roleIds) {
+        this.length = length;
+        this.userIds = userIds;
+        this.roleIds = roleIds;
+    }
+
+    /**
+     * Returns the amount of bytes written, including the quotes of the JSON string.
+     *
+     * @return the length of the written JSON string in bytes
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Returns the distinct ids of the users mentioned in the content, in order of appearance.
+     *
+     * @return the mentioned user ids
+     */
+    public long[] getUserIds() {
+        return this.userIds.clone();
+    }
+
+    /**
+     * Returns the distinct ids of the roles mentioned in the content, in order of appearance.
+     *
+     * @return the mentioned role ids
+     */
+    public long[] getRoleIds() {
+        return this.roleIds.clone();
+    }
+
+    /**
+     * Creates an {@code allowed_mentions} JSON object which only allows the mentions found in the content.
+     *
+     * @return the {@code allowed_mentions} JSON object
+     */
+    public String toAllowedMentionsJson() {
+        StringBuilder builder = new StringBuilder(32 + (userIds.length + roleIds.length) * 22);
+        builder.append("{\"parse\":[],\"users\":[");
+        appendIds(builder, userIds);
+        builder.append("],\"roles\":[");
+        appendIds(builder, roleIds);
+        return builder.append("]}").toString();
+    }
+
+    private static void appendIds(StringBuilder builder, long[] ids) {
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append('"').append(Long.toUnsignedString(ids[i])).append('"');
+        }
+    }
+
+    public String toString() {
+        return "WebhookContent(length=" + this.length + ", userIds=" + Arrays.toString(this.userIds) + ", roleIds=" + Arrays.toString(this.roleIds) + ")";
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.emoji;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An immutable trie over chars, compiled into flat arrays, for finding the longest key at a position of a text.
+ */
+final class CharTrie {
+
+    // node i has the edges [edgeStart[i], edgeStart[i + 1]), sorted by char
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final String[] values;
+    private final int[] depths;
+    private final int maxKeyLength;
+
+    private CharTrie(int[] edgeStart, char[] edgeChars, int[] edgeTargets, String[] values, int[] depths, int maxKeyLength) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.values = values;
+        this.depths = depths;
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    /**
+     * Compiles a trie from the given keys and values, empty keys are ignored.
+     */
+    static CharTrie compile(Map<String, String> entries) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<String> nodeValues = new ArrayList<>();
+        children.add(new TreeMap<>());
+        nodeValues.add(null);
+
+        int maxKeyLength = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            String key = entry.getKey();
+            if (key.isEmpty()) {
+                continue;
+            }
+            maxKeyLength = Math.max(maxKeyLength, key.length());
+
+            int node = 0;
+            for (int i = 0; i < key.length(); i++) {
+                Integer next = children.get(node).get(key.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    nodeValues.add(null);
+                    children.get(node).put(key.charAt(i), next);
+                }
+                node = next;
+            }
+            nodeValues.set(node, entry.getValue());
+        }
+
+        int nodeCount = children.size();
+        int[] edgeStart = new int[nodeCount + 1];
+        char[] edgeChars = new char[nodeCount - 1];
+        int[] edgeTargets = new int[nodeCount - 1];
+        int[] depths = new int[nodeCount];
+        int edge = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            edgeStart[node] = edge;
+            for (Map.Entry<Character, Integer> child : children.get(node).entrySet()) {
+                edgeChars[edge] = child.getKey();
+                edgeTargets[edge] = child.getValue();
+                // children are always created after their parent
+                depths[child.getValue()] = depths[node] + 1;
+                edge++;
+            }
+        }
+        edgeStart[nodeCount] = edge;
+
+        return new CharTrie(edgeStart, edgeChars, edgeTargets, nodeValues.toArray(new String[0]), depths, maxKeyLength);
+    }
+
+    private int child(int node, char c) {
+        int index = Arrays.binarySearch(edgeChars, edgeStart[node], edgeStart[node + 1], c);
+        return index < 0 ? -1 : edgeTargets[index];
+    }
+
+    /**
+     * Checks if any key starts with the given char.
+     */
+    boolean isKeyStart(char c) {
+        return child(0, c) != -1;
+    }
+
+    /**
+     * Finds the longest key starting at the given index of the text.
+     *
+     * @return the node of the longest key, or -1 if no key starts at the index
+     */
+    int longestMatch(CharSequence text, int start, int end) {
+        int match = -1;
+        int node = 0;
+        int limit = Math.min(end, start + maxKeyLength);
+        for (int i = start; i < limit; i++) {
+            node = child(node, text.charAt(i));
+            if (node == -1) {
+                break;
+            }
+            if (values[node] != null) {
+                match = node;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Returns the length of the key of a node returned by {@link #longestMatch(CharSequence, int, int)}.
+     */
+    int depth(int node) {
+        return depths[node];
+    }
+
+    /**
+     * Returns the value of a node returned by {@link #longestMatch(CharSequence, int, int)}.
+     */
+    String value(int node) {
+        return values[node];
+    }
+}
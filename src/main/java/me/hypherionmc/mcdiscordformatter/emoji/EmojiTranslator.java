@@ -0,0 +1,179 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.emoji;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Translates between unicode emoji and Discord's {@code :shortcode:}s.
+ *
+ * <p>Both directions use a precompiled {@link CharTrie} over the whole table and take the longest match at each position,
+ * so a text is translated in a single pass regardless of the size of the table.</p>
+ *
+ * @see #defaults()
+ */
+public final class EmojiTranslator {
+
+    private static final char VARIATION_SELECTOR = '\uFE0F';
+
+    private final CharTrie shortcodes;
+    private final CharTrie emoji;
+
+    private EmojiTranslator(CharTrie shortcodes, CharTrie emoji) {
+        this.shortcodes = shortcodes;
+        this.emoji = emoji;
+    }
+
+    /**
+     * Returns the {@link EmojiTranslator} for the built-in table of common emoji.
+     * The table has around 180 of the most used emoji, not all of Discord's; emoji that aren't in it are left as they are.
+     * A complete table can be used with {@link #load(Reader)} or {@link #of(Map)}.
+     *
+     * @return the default {@link EmojiTranslator}
+     */
+    public static EmojiTranslator defaults() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Creates a {@link EmojiTranslator} for the given table.
+     * When multiple shortcodes map to the same emoji, the first one in iteration order is used for translating to shortcodes.
+     *
+     * @param shortcodeToEmoji the emoji by shortcode, the shortcodes including the surrounding colons (for example {@code :smile:})
+     * @return the new {@link EmojiTranslator}
+     */
+    public static EmojiTranslator of(@NotNull Map<String, String> shortcodeToEmoji) {
+        Map<String, String> emojiToShortcode = new HashMap<>();
+        for (Map.Entry<String, String> entry : shortcodeToEmoji.entrySet()) {
+            String shortcode = entry.getKey();
+            if (shortcode.length() < 3 || shortcode.charAt(0) != ':' || shortcode.charAt(shortcode.length() - 1) != ':') {
+                throw new IllegalArgumentException("Shortcode must be surrounded by colons: " + shortcode);
+            }
+
+            String emoji = entry.getValue();
+            emojiToShortcode.putIfAbsent(emoji, shortcode);
+            // also match the emoji when it's sent without the variation selector
+            String withoutSelector = emoji.replace(String.valueOf(VARIATION_SELECTOR), "");
+            if (!withoutSelector.isEmpty()) {
+                emojiToShortcode.putIfAbsent(withoutSelector, shortcode);
+            }
+        }
+        return new EmojiTranslator(CharTrie.compile(shortcodeToEmoji), CharTrie.compile(emojiToShortcode));
+    }
+
+    /**
+     * Reads a table with one {@code :shortcode: emoji} pair per line, blank lines and lines starting with {@code #} are ignored.
+     *
+     * @param reader the reader to read the table from
+     * @return the new {@link EmojiTranslator}
+     * @throws IOException if reading fails
+     */
+    public static EmojiTranslator load(@NotNull Reader reader) throws IOException {
+        Map<String, String> table = new LinkedHashMap<>();
+        BufferedReader bufferedReader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+
+            int separator = line.indexOf(' ');
+            if (separator == -1) {
+                throw new IOException("Invalid emoji table line: " + line);
+            }
+            table.putIfAbsent(line.substring(0, separator), line.substring(separator + 1).trim());
+        }
+        return of(table);
+    }
+
+    /**
+     * Replaces the unicode emoji in the given text with their shortcodes, for showing them in Minecraft.
+     *
+     * @param text the text
+     * @return the translated text, the same instance if it doesn't contain any emoji from the table
+     */
+    public @NotNull String toShortcodes(@NotNull String text) {
+        return translate(text, emoji);
+    }
+
+    /**
+     * Replaces the shortcodes in the given text with their unicode emoji, for sending them to Discord.
+     *
+     * @param text the text
+     * @return the translated text, the same instance if it doesn't contain any shortcodes from the table
+     */
+    public @NotNull String toUnicode(@NotNull String text) {
+        return translate(text, shortcodes);
+    }
+
+    private static String translate(String text, CharTrie trie) {
+        StringBuilder builder = null;
+        int length = text.length();
+        int copied = 0;
+        for (int i = 0; i < length; i++) {
+            if (!trie.isKeyStart(text.charAt(i))) {
+                continue;
+            }
+
+            int match = trie.longestMatch(text, i, length);
+            if (match == -1) {
+                continue;
+            }
+            if (builder == null) {
+                builder = new StringBuilder(length + 16);
+            }
+            builder.append(text, copied, i).append(trie.value(match));
+            i += trie.depth(match) - 1;
+            copied = i + 1;
+        }
+
+        if (builder == null) {
+            return text;
+        }
+        return builder.append(text, copied, length).toString();
+    }
+
+    private static final class DefaultHolder {
+        private static final EmojiTranslator INSTANCE;
+
+        static {
+            InputStream stream = EmojiTranslator.class.getResourceAsStream("/mcdiscordformatter/emoji.txt");
+            if (stream == null) {
+                throw new IllegalStateException("Built-in emoji table is missing");
+            }
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                INSTANCE = load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Highlights the code of Discord code blocks for common languages ({@code json}, {@code yaml}, {@code java}, {@code sh} and {@code log}),
+ * colouring tokens in a single pass with hand-written tokenizers that are created once and shared.
+ *
+ * <p>Only the first lines and characters of a code block within the budget are highlighted,
+ * the rest is kept in the code block's style so large pastes stay cheap to render.</p>
+ *
+ * @see #defaults()
+ */
+public final class CodeHighlighter {
+
+    public static final int DEFAULT_MAX_LINES = 50;
+    public static final int DEFAULT_MAX_CHARACTERS = 4000;
+
+    private static final Map<String, Tokenizer> TOKENIZERS = new HashMap<>();
+    private static final ChatFormatting[] DEFAULT_COLORS = new ChatFormatting[TokenType.values().length];
+
+    static {
+        TOKENIZERS.put("json", JsonTokenizer.INSTANCE);
+        TOKENIZERS.put("yaml", YamlTokenizer.INSTANCE);
+        TOKENIZERS.put("yml", YamlTokenizer.INSTANCE);
+        TOKENIZERS.put("java", JavaTokenizer.INSTANCE);
+        TOKENIZERS.put("sh", ShellTokenizer.INSTANCE);
+        TOKENIZERS.put("bash", ShellTokenizer.INSTANCE);
+        TOKENIZERS.put("shell", ShellTokenizer.INSTANCE);
+        TOKENIZERS.put("zsh", ShellTokenizer.INSTANCE);
+        TOKENIZERS.put("log", LogTokenizer.INSTANCE);
+
+        DEFAULT_COLORS[TokenType.KEYWORD.ordinal()] = ChatFormatting.GOLD;
+        DEFAULT_COLORS[TokenType.STRING.ordinal()] = ChatFormatting.GREEN;
+        DEFAULT_COLORS[TokenType.NUMBER.ordinal()] = ChatFormatting.LIGHT_PURPLE;
+        DEFAULT_COLORS[TokenType.COMMENT.ordinal()] = ChatFormatting.DARK_GREEN;
+        DEFAULT_COLORS[TokenType.KEY.ordinal()] = ChatFormatting.AQUA;
+        DEFAULT_COLORS[TokenType.VARIABLE.ordinal()] = ChatFormatting.YELLOW;
+        DEFAULT_COLORS[TokenType.TIMESTAMP.ordinal()] = ChatFormatting.DARK_AQUA;
+        DEFAULT_COLORS[TokenType.LEVEL_ERROR.ordinal()] = ChatFormatting.RED;
+        DEFAULT_COLORS[TokenType.LEVEL_WARNING.ordinal()] = ChatFormatting.YELLOW;
+        DEFAULT_COLORS[TokenType.LEVEL_INFO.ordinal()] = ChatFormatting.GREEN;
+        DEFAULT_COLORS[TokenType.LEVEL_DEBUG.ordinal()] = ChatFormatting.GRAY;
+    }
+
+    private static final CodeHighlighter DEFAULTS = new CodeHighlighter(DEFAULT_COLORS, DEFAULT_MAX_LINES, DEFAULT_MAX_CHARACTERS);
+
+    private final ChatFormatting[] colors;
+    private final int maxLines;
+    private final int maxCharacters;
+
+    private CodeHighlighter(ChatFormatting[] colors, int maxLines, int maxCharacters) {
+        this.colors = colors;
+        this.maxLines = maxLines;
+        this.maxCharacters = maxCharacters;
+    }
+
+    /**
+     * Returns the {@link CodeHighlighter} with the default colours,
+     * highlighting up to {@value #DEFAULT_MAX_LINES} lines and {@value #DEFAULT_MAX_CHARACTERS} characters per code block.
+     *
+     * @return the default {@link CodeHighlighter}
+     */
+    public static CodeHighlighter defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Checks if code blocks in the given language are highlighted.
+     *
+     * @param language the language of the code block, as written after the opening backticks
+     * @return true if the language is supported
+     */
+    public static boolean supports(@Nullable String language) {
+        return language != null && TOKENIZERS.containsKey(language.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Highlights the given code.
+     *
+     * @param language the language of the code block, as written after the opening backticks
+     * @param code     the code
+     * @return the highlighted code, or {@code null} if the language isn't supported
+     */
+    public @Nullable MutableComponent highlight(@Nullable String language, @NotNull String code) {
+        return highlight(language, code, null);
+    }
+
+    /**
+     * Highlights the given code, with a prefix after every line break, like the prefix of the lines of a quote.
+     *
+     * @param language   the language of the code block, as written after the opening backticks
+     * @param code       the code
+     * @param linePrefix the component appended after every line break, or {@code null} for none
+     * @return the highlighted code, or {@code null} if the language isn't supported
+     */
+    public @Nullable MutableComponent highlight(@Nullable String language, @NotNull String code, @Nullable Component linePrefix) {
+        Tokenizer tokenizer = language != null ? TOKENIZERS.get(language.toLowerCase(Locale.ROOT)) : null;
+        if (tokenizer == null) {
+            return null;
+        }
+
+        int end = maxLines == 0 ? 0 : Math.min(code.length(), maxCharacters);
+        int lines = 0;
+        for (int newline = code.indexOf('\n'); newline != -1 && newline < end; newline = code.indexOf('\n', newline + 1)) {
+            if (++lines == maxLines) {
+                end = newline;
+                break;
+            }
+        }
+
+        Emitter emitter = new Emitter(code, linePrefix);
+        tokenizer.tokenize(code, end, emitter);
+        emitter.flush();
+        emitter.appendPlain(code.length());
+        return emitter.output;
+    }
+
+    public int getMaxLines() {
+        return this.maxLines;
+    }
+
+    public int getMaxCharacters() {
+        return this.maxCharacters;
+    }
+
+    public @Nullable ChatFormatting getColor(@NotNull TokenType type) {
+        return this.colors[type.ordinal()];
+    }
+
+    /**
+     * Sets the maximum amount of lines of a code block to highlight, the following lines are not highlighted.
+     *
+     * @param maxLines the maximum amount of lines, 0 to highlight nothing
+     * @return the new instance of {@link CodeHighlighter}
+     */
+    public CodeHighlighter withMaxLines(int maxLines) {
+        if (maxLines < 0) {
+            throw new IllegalArgumentException("maxLines cannot be negative");
+        }
+        return this.maxLines == maxLines ? this : new CodeHighlighter(this.colors, maxLines, this.maxCharacters);
+    }
+
+    /**
+     * Sets the maximum amount of characters of a code block to highlight, the following characters are not highlighted.
+     *
+     * @param maxCharacters the maximum amount of characters
+     * @return the new instance of {@link CodeHighlighter}
+     */
+    public CodeHighlighter withMaxCharacters(int maxCharacters) {
+        if (maxCharacters < 0) {
+            throw new IllegalArgumentException("maxCharacters cannot be negative");
+        }
+        return this.maxCharacters == maxCharacters ? this : new CodeHighlighter(this.colors, this.maxLines, maxCharacters);
+    }
+
+    /**
+     * Sets the colour of a type of token.
+     *
+     * @param type  the type of token
+     * @param color the colour, {@code null} to keep the tokens in the code block's style
+     * @return the new instance of {@link CodeHighlighter}
+     */
+    public CodeHighlighter withColor(@NotNull TokenType type, @Nullable ChatFormatting color) {
+        if (color != null && !color.isColor()) {
+            throw new IllegalArgumentException(color + " is not a color");
+        }
+        ChatFormatting[] colors = this.colors.clone();
+        colors[type.ordinal()] = color;
+        return new CodeHighlighter(colors, this.maxLines, this.maxCharacters);
+    }
+
+    public String toString() {
+        return "CodeHighlighter(maxLines=" + this.maxLines + ", maxCharacters=" + this.maxCharacters + ")";
+    }
+
+    /**
+     * Appends the tokens to a component, merging adjacent tokens of the same colour.
+     */
+    private final class Emitter implements Tokenizer.TokenConsumer {
+
+        private final String code;
+        private final Component linePrefix;
+        private final MutableComponent output = Component.empty();
+        // the end of the code appended to the output so far
+        private int position;
+        private ChatFormatting pendingColor;
+        private int pendingStart;
+        private int pendingEnd;
+
+        private Emitter(String code, Component linePrefix) {
+            this.code = code;
+            this.linePrefix = linePrefix;
+        }
+
+        @Override
+        public void token(TokenType type, int start, int end) {
+            ChatFormatting color = colors[type.ordinal()];
+            if (color == null || start >= end) {
+                return;
+            }
+            if (color == pendingColor && start == pendingEnd) {
+                pendingEnd = end;
+                return;
+            }
+
+            flush();
+            appendPlain(start);
+            pendingColor = color;
+            pendingStart = start;
+            pendingEnd = end;
+        }
+
+        private void flush() {
+            if (pendingColor == null) {
+                return;
+            }
+            append(pendingStart, pendingEnd, pendingColor);
+            position = pendingEnd;
+            pendingColor = null;
+        }
+
+        private void appendPlain(int end) {
+            if (end > position) {
+                append(position, end, null);
+                position = end;
+            }
+        }
+
+        private void append(int start, int end, ChatFormatting color) {
+            int newline = linePrefix != null ? code.indexOf('\n', start) : -1;
+            while (newline != -1 && newline < end - 1) {
+                appendLiteral(start, newline + 1, color);
+                output.append(linePrefix);
+                start = newline + 1;
+                newline = code.indexOf('\n', start);
+            }
+            appendLiteral(start, end, color);
+            if (newline == end - 1 && end < code.length()) {
+                // the line break ends the token, the next line starts with the prefix
+                output.append(linePrefix);
+            }
+        }
+
+        private void appendLiteral(int start, int end, ChatFormatting color) {
+            MutableComponent literal = Component.literal(code.substring(start, end));
+            output.append(color != null ? literal.withStyle(color) : literal);
+        }
+    }
+}
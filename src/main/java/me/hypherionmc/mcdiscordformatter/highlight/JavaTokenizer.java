@@ -0,0 +1,78 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+final class JavaTokenizer extends Tokenizer {
+
+    static final JavaTokenizer INSTANCE = new JavaTokenizer();
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+            "default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+            "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+            "protected", "public", "record", "return", "short", "static", "strictfp", "super", "switch", "synchronized",
+            "this", "throw", "throws", "transient", "try", "var", "void", "volatile", "while", "yield",
+            "true", "false", "null"
+    ));
+
+    private JavaTokenizer() {
+    }
+
+    @Override
+    void tokenize(String code, int end, TokenConsumer consumer) {
+        int index = 0;
+        while (index < end) {
+            char c = code.charAt(index);
+            if (c == '/' && index + 1 < end && code.charAt(index + 1) == '/') {
+                int lineEnd = lineEnd(code, index, end);
+                consumer.token(TokenType.COMMENT, index, lineEnd);
+                index = lineEnd;
+            } else if (c == '/' && index + 1 < end && code.charAt(index + 1) == '*') {
+                int commentEnd = code.indexOf("*/", index + 2);
+                commentEnd = commentEnd == -1 || commentEnd + 2 > end ? end : commentEnd + 2;
+                consumer.token(TokenType.COMMENT, index, commentEnd);
+                index = commentEnd;
+            } else if (c == '"' || c == '\'') {
+                int stringEnd = scanString(code, index, end, true);
+                consumer.token(TokenType.STRING, index, stringEnd);
+                index = stringEnd;
+            } else if (Character.isDigit(c)) {
+                int numberEnd = scanNumber(code, index, end);
+                consumer.token(TokenType.NUMBER, index, numberEnd);
+                index = numberEnd;
+            } else if (c == '@' && index + 1 < end && isWordStart(code.charAt(index + 1))) {
+                int wordEnd = scanWord(code, index + 1, end);
+                consumer.token(TokenType.KEY, index, wordEnd);
+                index = wordEnd;
+            } else if (isWordStart(c)) {
+                int wordEnd = scanWord(code, index, end);
+                if (wordEnd - index <= 12 && KEYWORDS.contains(code.substring(index, wordEnd))) {
+                    consumer.token(TokenType.KEYWORD, index, wordEnd);
+                }
+                index = wordEnd;
+            } else {
+                index++;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+final class JsonTokenizer extends Tokenizer {
+
+    static final JsonTokenizer INSTANCE = new JsonTokenizer();
+
+    private JsonTokenizer() {
+    }
+
+    @Override
+    void tokenize(String code, int end, TokenConsumer consumer) {
+        int index = 0;
+        while (index < end) {
+            char c = code.charAt(index);
+            if (c == '"') {
+                int stringEnd = scanString(code, index, end, true);
+                // a string followed by a colon is a key
+                int next = stringEnd;
+                while (next < end && Character.isWhitespace(code.charAt(next))) {
+                    next++;
+                }
+                consumer.token(next < end && code.charAt(next) == ':' ? TokenType.KEY : TokenType.STRING, index, stringEnd);
+                index = stringEnd;
+            } else if (Character.isDigit(c) || (c == '-' && index + 1 < end && Character.isDigit(code.charAt(index + 1)))) {
+                int numberEnd = scanNumber(code, c == '-' ? index + 1 : index, end);
+                consumer.token(TokenType.NUMBER, index, numberEnd);
+                index = numberEnd;
+            } else if (isWordStart(c)) {
+                int wordEnd = scanWord(code, index, end);
+                if (regionMatches(code, index, wordEnd, "true") || regionMatches(code, index, wordEnd, "false")
+                        || regionMatches(code, index, wordEnd, "null")) {
+                    consumer.token(TokenType.KEYWORD, index, wordEnd);
+                }
+                index = wordEnd;
+            } else {
+                index++;
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+final class LogTokenizer extends Tokenizer {
+
+    static final LogTokenizer INSTANCE = new LogTokenizer();
+
+    private LogTokenizer() {
+    }
+
+    @Override
+    void tokenize(String code, int end, TokenConsumer consumer) {
+        int index = 0;
+        while (index < end) {
+            int lineEnd = lineEnd(code, index, end);
+            tokenizeLine(code, index, lineEnd, consumer);
+            index = lineEnd + 1;
+        }
+    }
+
+    private void tokenizeLine(String code, int index, int end, TokenConsumer consumer) {
+        int lineStart = index;
+        // a leading timestamp, optionally in brackets: [12:34:56], 2024-01-01 12:34:56,789, 2024-01-01T12:34:56Z
+        int timestampStart = index < end && code.charAt(index) == '[' ? index + 1 : index;
+        int timestampEnd = timestampStart;
+        while (timestampEnd < end) {
+            char c = code.charAt(timestampEnd);
+            if (Character.isDigit(c) || c == ':' || c == '-' || c == '.' || c == ',' || c == '/'
+                    || ((c == 'T' || c == 'Z' || c == ' ') && timestampEnd > timestampStart && Character.isDigit(code.charAt(timestampEnd - 1)))) {
+                timestampEnd++;
+            } else {
+                break;
+            }
+        }
+        while (timestampEnd > timestampStart && code.charAt(timestampEnd - 1) == ' ') {
+            timestampEnd--;
+        }
+        if (timestampEnd - timestampStart >= 5 && indexOf(code, ':', timestampStart, timestampEnd) != -1) {
+            consumer.token(TokenType.TIMESTAMP, timestampStart, timestampEnd);
+            index = timestampEnd;
+        }
+
+        // stack trace lines
+        int first = index;
+        while (first < end && (code.charAt(first) == ' ' || code.charAt(first) == '\t')) {
+            first++;
+        }
+        if (first > lineStart && code.startsWith("at ", first)) {
+            consumer.token(TokenType.COMMENT, first, end);
+            return;
+        }
+
+        // the first level word on the line
+        while (index < end) {
+            char c = code.charAt(index);
+            if (!Character.isUpperCase(c)) {
+                index++;
+                continue;
+            }
+            int wordEnd = index;
+            while (wordEnd < end && Character.isUpperCase(code.charAt(wordEnd))) {
+                wordEnd++;
+            }
+            TokenType level = index > lineStart && Character.isLetterOrDigit(code.charAt(index - 1))
+                    || wordEnd < end && Character.isLetterOrDigit(code.charAt(wordEnd)) ? null : level(code, index, wordEnd);
+            if (level != null) {
+                consumer.token(level, index, wordEnd);
+                return;
+            }
+            index = wordEnd;
+        }
+    }
+
+    private static TokenType level(String code, int start, int end) {
+        switch (end - start) {
+            case 4:
+                if (code.startsWith("WARN", start)) return TokenType.LEVEL_WARNING;
+                if (code.startsWith("INFO", start)) return TokenType.LEVEL_INFO;
+                return null;
+            case 5:
+                if (code.startsWith("ERROR", start) || code.startsWith("FATAL", start)) return TokenType.LEVEL_ERROR;
+                if (code.startsWith("DEBUG", start) || code.startsWith("TRACE", start)) return TokenType.LEVEL_DEBUG;
+                return null;
+            case 6:
+                return code.startsWith("SEVERE", start) ? TokenType.LEVEL_ERROR : null;
+            case 7:
+                return code.startsWith("WARNING", start) ? TokenType.LEVEL_WARNING : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+final class ShellTokenizer extends Tokenizer {
+
+    static final ShellTokenizer INSTANCE = new ShellTokenizer();
+
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "if", "then", "else", "elif", "fi", "for", "while", "until", "do", "done", "case", "esac", "in",
+            "function", "return", "export", "local", "readonly", "exit", "select", "time"
+    ));
+
+    private ShellTokenizer() {
+    }
+
+    @Override
+    void tokenize(String code, int end, TokenConsumer consumer) {
+        int index = 0;
+        while (index < end) {
+            char c = code.charAt(index);
+            if (c == '#' && (index == 0 || Character.isWhitespace(code.charAt(index - 1)))) {
+                int lineEnd = lineEnd(code, index, end);
+                consumer.token(TokenType.COMMENT, index, lineEnd);
+                index = lineEnd;
+            } else if (c == '"' || c == '\'') {
+                // variables in double quoted strings aren't coloured separately
+                int stringEnd = scanString(code, index, end, c == '"');
+                consumer.token(TokenType.STRING, index, stringEnd);
+                index = stringEnd;
+            } else if (c == '$' && index + 1 < end) {
+                int variableEnd = scanVariable(code, index + 1, end);
+                if (variableEnd > index + 1) {
+                    consumer.token(TokenType.VARIABLE, index, variableEnd);
+                }
+                index = Math.max(variableEnd, index + 1);
+            } else if (isWordStart(c)) {
+                int wordEnd = scanShellWord(code, index, end);
+                if (wordEnd - index <= 8 && KEYWORDS.contains(code.substring(index, wordEnd))) {
+                    consumer.token(TokenType.KEYWORD, index, wordEnd);
+                }
+                index = wordEnd;
+            } else if (Character.isDigit(c) && (index == 0 || !isWordPart(code.charAt(index - 1)))) {
+                int numberEnd = scanShellWord(code, index, end);
+                consumer.token(TokenType.NUMBER, index, numberEnd);
+                index = numberEnd;
+            } else {
+                index++;
+            }
+        }
+    }
+
+    private static int scanVariable(String code, int index, int end) {
+        char c = code.charAt(index);
+        if (c == '{') {
+            int close = code.indexOf('}', index);
+            return close == -1 || close >= end ? index : close + 1;
+        }
+        if (Character.isDigit(c) || c == '?' || c == '@' || c == '#' || c == '*' || c == '!' || c == '$') {
+            return index + 1;
+        }
+        int wordEnd = index;
+        while (wordEnd < end && (Character.isLetterOrDigit(code.charAt(wordEnd)) || code.charAt(wordEnd) == '_')) {
+            wordEnd++;
+        }
+        return wordEnd;
+    }
+
+    // unlike other languages words include dashes and dots, like command names and arguments
+    private static int scanShellWord(String code, int index, int end) {
+        while (index < end) {
+            char c = code.charAt(index);
+            if (!isWordPart(c) && c != '-' && c != '.') {
+                break;
+            }
+            index++;
+        }
+        return index;
+    }
+}
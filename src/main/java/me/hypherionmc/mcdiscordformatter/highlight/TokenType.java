@@ -0,0 +1,42 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+/**
+ * The kinds of tokens {@link CodeHighlighter} colours, text that isn't part of a token keeps the code block's style.
+ */
+public enum TokenType {
+    KEYWORD,
+    STRING,
+    NUMBER,
+    COMMENT,
+    /**
+     * Keys of objects and mappings, and annotations.
+     */
+    KEY,
+    /**
+     * Shell variables.
+     */
+    VARIABLE,
+    TIMESTAMP,
+    LEVEL_ERROR,
+    LEVEL_WARNING,
+    LEVEL_INFO,
+    LEVEL_DEBUG
+}
@@ -0,0 +1,117 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+/**
+ * A hand-written single pass tokenizer for one language. Tokenizers are stateless and shared between threads.
+ */
+abstract class Tokenizer {
+
+    /**
+     * Receives the tokens of a tokenizer, in order and without overlap.
+     */
+    interface TokenConsumer {
+        void token(TokenType type, int start, int end);
+    }
+
+    /**
+     * Tokenizes the code up to the given end, only reporting tokens that should be coloured.
+     *
+     * @param code     the code
+     * @param end      the index to stop at, tokens never extend past it
+     * @param consumer the consumer of the tokens
+     */
+    abstract void tokenize(String code, int end, TokenConsumer consumer);
+
+    static boolean isWordStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '$';
+    }
+
+    static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    static int scanWord(String code, int index, int end) {
+        while (index < end && isWordPart(code.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Scans a quoted string starting at the quote, with backslash escapes if enabled.
+     *
+     * @return the index after the closing quote, or the end of the line if the string isn't closed
+     */
+    static int scanString(String code, int index, int end, boolean escapes) {
+        char quote = code.charAt(index++);
+        while (index < end) {
+            char c = code.charAt(index);
+            if (c == quote) {
+                return index + 1;
+            }
+            if (c == '\n') {
+                return index;
+            }
+            index += escapes && c == '\\' ? 2 : 1;
+        }
+        return end;
+    }
+
+    /**
+     * Scans a number (decimal, hexadecimal, with fractions, exponents and suffixes) starting at its first digit.
+     */
+    static int scanNumber(String code, int index, int end) {
+        index++;
+        while (index < end) {
+            char c = code.charAt(index);
+            if (Character.isLetterOrDigit(c) || c == '.' || c == '_') {
+                index++;
+            } else if ((c == '-' || c == '+') && (code.charAt(index - 1) == 'e' || code.charAt(index - 1) == 'E')) {
+                index++;
+            } else {
+                break;
+            }
+        }
+        return index;
+    }
+
+    static int lineEnd(String code, int index, int end) {
+        int newline = code.indexOf('\n', index);
+        return newline == -1 || newline > end ? end : newline;
+    }
+
+    /**
+     * Finds a character between the index and the end, without looking past the end.
+     *
+     * @return the index of the character, or -1 if it isn't found
+     */
+    static int indexOf(String code, char c, int index, int end) {
+        for (int i = index; i < end; i++) {
+            if (code.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean regionMatches(String code, int index, int end, String word) {
+        return end - index == word.length() && code.startsWith(word, index);
+    }
+}
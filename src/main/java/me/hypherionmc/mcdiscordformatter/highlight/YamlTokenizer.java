@@ -0,0 +1,114 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+final class YamlTokenizer extends Tokenizer {
+
+    static final YamlTokenizer INSTANCE = new YamlTokenizer();
+
+    private static final String[] KEYWORDS = {"true", "false", "yes", "no", "on", "off", "null", "~"};
+
+    private YamlTokenizer() {
+    }
+
+    @Override
+    void tokenize(String code, int end, TokenConsumer consumer) {
+        int index = 0;
+        while (index < end) {
+            int lineEnd = lineEnd(code, index, end);
+            tokenizeLine(code, index, lineEnd, consumer);
+            index = lineEnd + 1;
+        }
+    }
+
+    private void tokenizeLine(String code, int index, int end, TokenConsumer consumer) {
+        // indentation and list markers
+        while (index < end && (code.charAt(index) == ' ' || code.charAt(index) == '\t'
+                || (code.charAt(index) == '-' && (index + 1 == end || code.charAt(index + 1) == ' ')))) {
+            index++;
+        }
+        if (index == end) {
+            return;
+        }
+        if (code.charAt(index) == '#') {
+            consumer.token(TokenType.COMMENT, index, end);
+            return;
+        }
+
+        // a key is everything up to the first ": " (or a colon at the end of the line) outside of quotes
+        int valueStart = index;
+        if (code.charAt(index) != '"' && code.charAt(index) != '\'') {
+            for (int i = index; i < end; i++) {
+                char c = code.charAt(i);
+                if (c == '#' && i > index && code.charAt(i - 1) == ' ') {
+                    break;
+                }
+                if (c == ':' && (i + 1 == end || code.charAt(i + 1) == ' ')) {
+                    consumer.token(TokenType.KEY, index, i);
+                    valueStart = i + 1;
+                    break;
+                }
+            }
+        }
+
+        tokenizeValue(code, valueStart, end, consumer);
+    }
+
+    private void tokenizeValue(String code, int index, int end, TokenConsumer consumer) {
+        while (index < end && code.charAt(index) == ' ') {
+            index++;
+        }
+        if (index == end) {
+            return;
+        }
+
+        char c = code.charAt(index);
+        int valueEnd = end;
+        int comment = code.indexOf(" #", index);
+        if (comment != -1 && comment < end) {
+            valueEnd = comment;
+        }
+
+        if (c == '"' || c == '\'') {
+            int stringEnd = scanString(code, index, valueEnd, c == '"');
+            consumer.token(TokenType.STRING, index, stringEnd);
+        } else {
+            int trimmedEnd = valueEnd;
+            while (trimmedEnd > index && code.charAt(trimmedEnd - 1) == ' ') {
+                trimmedEnd--;
+            }
+            if (Character.isDigit(c) || (c == '-' && index + 1 < trimmedEnd && Character.isDigit(code.charAt(index + 1)))) {
+                if (scanNumber(code, c == '-' ? index + 1 : index, trimmedEnd) == trimmedEnd) {
+                    consumer.token(TokenType.NUMBER, index, trimmedEnd);
+                }
+            } else {
+                for (String keyword : KEYWORDS) {
+                    if (trimmedEnd - index == keyword.length() && code.regionMatches(true, index, keyword, 0, keyword.length())) {
+                        consumer.token(TokenType.KEYWORD, index, trimmedEnd);
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (valueEnd != end) {
+            consumer.token(TokenType.COMMENT, valueEnd + 1, end);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for escaping the markdown of a Discord message, disabled by default.
+ * Enable {@value #NAME} in the recording's settings to record it.
+ */
+@Name(EscapeEvent.NAME)
+@Label("Escape Discord Markdown")
+@Description("Escaping the markdown of a Discord message, including parsing it")
+@Category({"MCDiscordFormatter"})
+@Enabled(false)
+@StackTrace(false)
+public final class EscapeEvent extends Event {
+
+    public static final String NAME = "me.hypherionmc.mcdiscordformatter.Escape";
+
+    @Label("Input Length")
+    @Description("The length of the message in characters")
+    int inputLength;
+
+    @Label("Output Length")
+    @Description("The length of the escaped message in characters")
+    int outputLength;
+
+    @Label("Fast Path")
+    @Description("If the message had no markdown and skipped parsing")
+    boolean fastPath;
+
+    /**
+     * Sets the fields and commits the event, only call this if {@link #shouldCommit()} returns true.
+     *
+     * @param inputLength  the length of the message
+     * @param outputLength the length of the escaped message
+     * @param fastPath     if the message had no markdown and skipped parsing
+     */
+    public void commit(int inputLength, int outputLength, boolean fastPath) {
+        this.inputLength = inputLength;
+        this.outputLength = outputLength;
+        this.fastPath = fastPath;
+        commit();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for parsing a Discord message, disabled by default.
+ * Enable {@value #NAME} in the recording's settings to record it.
+ */
+@Name(ParseEvent.NAME)
+@Label("Parse Discord Message")
+@Description("Parsing a Discord message into nodes")
+@Category({"MCDiscordFormatter"})
+@Enabled(false)
+@StackTrace(false)
+public final class ParseEvent extends Event {
+
+    public static final String NAME = "me.hypherionmc.mcdiscordformatter.Parse";
+
+    @Label("Input Length")
+    @Description("The length of the message in characters")
+    int inputLength;
+
+    @Label("Node Count")
+    @Description("The amount of top level nodes parsed")
+    int nodeCount;
+
+    /**
+     * Sets the fields and commits the event, only call this if {@link #shouldCommit()} returns true.
+     *
+     * @param inputLength the length of the message
+     * @param nodeCount   the amount of top level nodes parsed
+     */
+    public void commit(int inputLength, int nodeCount) {
+        this.inputLength = inputLength;
+        this.nodeCount = nodeCount;
+        commit();
+    }
+}
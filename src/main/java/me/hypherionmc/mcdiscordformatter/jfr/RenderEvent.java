@@ -0,0 +1,101 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Java Flight Recorder event for serializing a message between Discord and Minecraft, disabled by default.
+ * Enable {@value #NAME} in the recording's settings to record it.
+ */
+@Name(RenderEvent.NAME)
+@Label("Render Message")
+@Description("Serializing a message, including parsing it")
+@Category({"MCDiscordFormatter"})
+@Enabled(false)
+@StackTrace(false)
+public final class RenderEvent extends Event {
+
+    public static final String NAME = "me.hypherionmc.mcdiscordformatter.Render";
+
+    /**
+     * A Discord message rendered into a Minecraft component.
+     */
+    public static final String COMPONENT = "component";
+    /**
+     * A Discord message rendered into text by appending renderers.
+     */
+    public static final String TEXT = "text";
+    /**
+     * A Discord message rendered into several targets at once.
+     */
+    public static final String FAN_OUT = "fan-out";
+    /**
+     * A broadcast message rendered for a recipient.
+     */
+    public static final String BROADCAST = "broadcast";
+    /**
+     * A Minecraft component serialized into Discord markdown.
+     */
+    public static final String DISCORD = "discord";
+
+    @Label("Target")
+    @Description("What the message was rendered into")
+    String target;
+
+    @Label("Input Length")
+    @Description("The length of the message in characters")
+    int inputLength;
+
+    @Label("Output Length")
+    @Description("The length of the rendered message in characters, -1 if unknown")
+    int outputLength;
+
+    @Label("Fast Path")
+    @Description("If the message skipped parsing or the component tree walk")
+    boolean fastPath;
+
+    @Label("Cache Hit")
+    @Description("If the result was reused from an earlier render")
+    boolean cacheHit;
+
+    /**
+     * Sets the fields and commits the event, only call this if {@link #shouldCommit()} returns true.
+     *
+     * @param target       what the message was rendered into, one of the constants of this class
+     * @param inputLength  the length of the message
+     * @param outputLength the length of the rendered message, -1 if unknown
+     * @param fastPath     if the message skipped parsing or the component tree walk
+     * @param cacheHit     if the result was reused from an earlier render
+     */
+    public void commit(String target, int inputLength, int outputLength, boolean fastPath, boolean cacheHit) {
+        this.target = target;
+        this.inputLength = inputLength;
+        this.outputLength = outputLength;
+        this.fastPath = fastPath;
+        this.cacheHit = cacheHit;
+        commit();
+    }
+}
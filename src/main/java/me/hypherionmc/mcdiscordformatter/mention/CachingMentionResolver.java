@@ -0,0 +1,96 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.mention;
+
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+/**
+ * A {@link MentionResolver} which caches the names resolved by another resolver.
+ * Mentions missing from the cache are resolved with a single call to the delegate resolver per message.
+ * Unresolvable mentions are cached as well.
+ */
+public class CachingMentionResolver implements MentionResolver {
+
+    private static final Object UNKNOWN = new Object();
+    private static final MentionNode.Kind[] KINDS = MentionNode.Kind.values();
+
+    private final MentionResolver delegate;
+    private final MentionCache[] caches = new MentionCache[KINDS.length];
+
+    /**
+     * Creates a {@link CachingMentionResolver}.
+     *
+     * @param delegate          the resolver to resolve uncached mentions with
+     * @param maximumSize       the maximum amount of cached names per kind of mention
+     * @param expireAfterWrite  how long resolved names are cached for
+     */
+    public CachingMentionResolver(@NotNull MentionResolver delegate, int maximumSize, @NotNull Duration expireAfterWrite) {
+        this.delegate = delegate;
+        for (int i = 0; i < caches.length; i++) {
+            caches[i] = new MentionCache(maximumSize, expireAfterWrite.toNanos());
+        }
+    }
+
+    @Override
+    public void resolve(@NotNull ResolvedMentions mentions) {
+        long now = System.nanoTime();
+        ResolvedMentions missing = null;
+        for (MentionNode.Kind kind : KINDS) {
+            MentionCache cache = caches[kind.ordinal()];
+            for (int i = 0; i < mentions.size(kind); i++) {
+                long id = mentions.getId(kind, i);
+                Object cached = cache.get(id, now);
+                if (cached == null) {
+                    if (missing == null) {
+                        missing = new ResolvedMentions();
+                    }
+                    missing.add(kind, id);
+                } else if (cached != UNKNOWN) {
+                    mentions.setName(kind, i, (String) cached);
+                }
+            }
+        }
+        if (missing == null) {
+            return;
+        }
+
+        delegate.resolve(missing);
+        for (MentionNode.Kind kind : KINDS) {
+            MentionCache cache = caches[kind.ordinal()];
+            for (int i = 0; i < missing.size(kind); i++) {
+                long id = missing.getId(kind, i);
+                String name = missing.getName(kind, i);
+                cache.put(id, name != null ? name : UNKNOWN, now);
+                mentions.setName(kind, mentions.add(kind, id), name);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached names, for example after reconnecting to Discord.
+     */
+    public void invalidateAll() {
+        for (MentionCache cache : caches) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.mention;
+
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link MentionResolver} resolving names from maps held in memory,
+ * as a local stand-in for a Discord backed resolver (for example in tests).
+ */
+public class InMemoryMentionResolver implements MentionResolver {
+
+    private final Map<Long, String> users = new ConcurrentHashMap<>();
+    private final Map<Long, String> roles = new ConcurrentHashMap<>();
+    private final Map<Long, String> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    /**
+     * Creates an empty {@link InMemoryMentionResolver}.
+     */
+    public InMemoryMentionResolver() {
+    }
+
+    private Map<Long, String> names(MentionNode.Kind kind) {
+        switch (kind) {
+            case USER: return users;
+            case ROLE: return roles;
+            case CHANNEL: return channels;
+            default: throw new IllegalArgumentException("Unknown mention kind " + kind);
+        }
+    }
+
+    /**
+     * Sets the name of a user, role or channel.
+     *
+     * @param kind the kind of mention
+     * @param id   the snowflake id of the user, role or channel
+     * @param name the name, or {@code null} to remove it
+     * @return this resolver
+     */
+    public InMemoryMentionResolver put(@NotNull MentionNode.Kind kind, long id, @Nullable String name) {
+        if (name == null) {
+            names(kind).remove(id);
+        } else {
+            names(kind).put(id, name);
+        }
+        return this;
+    }
+
+    public InMemoryMentionResolver putUser(long id, @Nullable String name) {
+        return put(MentionNode.Kind.USER, id, name);
+    }
+
+    public InMemoryMentionResolver putRole(long id, @Nullable String name) {
+        return put(MentionNode.Kind.ROLE, id, name);
+    }
+
+    public InMemoryMentionResolver putChannel(long id, @Nullable String name) {
+        return put(MentionNode.Kind.CHANNEL, id, name);
+    }
+
+    /**
+     * Returns the amount of times this resolver was asked to resolve mentions.
+     *
+     * @return the amount of lookups
+     */
+    public int getLookupCount() {
+        return lookups.get();
+    }
+
+    @Override
+    public void resolve(@NotNull ResolvedMentions mentions) {
+        lookups.incrementAndGet();
+        for (MentionNode.Kind kind : MentionNode.Kind.values()) {
+            Map<Long, String> names = names(kind);
+            for (int i = 0; i < mentions.size(kind); i++) {
+                String name = names.get(mentions.getId(kind, i));
+                if (name != null) {
+                    mentions.setName(kind, i, name);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.mention;
+
+import java.util.Arrays;
+
+/**
+ * A bounded cache with a fixed time to live, keyed by primitive snowflake ids.
+ * The entries are stored in 4-way sets of flat arrays, when a set is full the entry expiring first is replaced.
+ */
+final class MentionCache {
+
+    private static final int WAYS = 4;
+
+    private final long[] keys;
+    private final Object[] values;
+    private final long[] expiries; // System.nanoTime based, 0 for unused slots
+    private final int setMask;
+    private final long timeToLiveNanos;
+
+    MentionCache(int maximumSize, long timeToLiveNanos) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        if (timeToLiveNanos < 1) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        int sets = Integer.highestOneBit(Math.max(1, (maximumSize + WAYS - 1) / WAYS));
+        this.keys = new long[sets * WAYS];
+        this.values = new Object[sets * WAYS];
+        this.expiries = new long[sets * WAYS];
+        this.setMask = sets - 1;
+        this.timeToLiveNanos = timeToLiveNanos;
+    }
+
+    private int setStart(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return ((int) (hash ^ hash >>> 32) & setMask) * WAYS;
+    }
+
+    synchronized Object get(long id, long now) {
+        int start = setStart(id);
+        for (int slot = start; slot < start + WAYS; slot++) {
+            if (expiries[slot] != 0 && keys[slot] == id) {
+                if (expiries[slot] - now > 0) {
+                    return values[slot];
+                }
+                expiries[slot] = 0;
+                values[slot] = null;
+                return null;
+            }
+        }
+        return null;
+    }
+
+    synchronized void put(long id, Object value, long now) {
+        int start = setStart(id);
+        int target = start;
+        for (int slot = start; slot < start + WAYS; slot++) {
+            if (expiries[slot] == 0 || keys[slot] == id || expiries[slot] - now <= 0) {
+                target = slot;
+                break;
+            }
+            if (expiries[slot] - expiries[target] < 0) {
+                target = slot;
+            }
+        }
+
+        keys[target] = id;
+        values[target] = value;
+        // 0 marks unused slots
+        long expiry = now + timeToLiveNanos;
+        expiries[target] = expiry == 0 ? 1 : expiry;
+    }
+
+    synchronized void clear() {
+        Arrays.fill(expiries, 0);
+        Arrays.fill(values, null);
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.mention;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Links Discord member names written in Minecraft chat to real Discord user mentions ({@code <@id>}).
+ *
+ * <p>Names are matched case-insensitively on word boundaries, with an optional leading {@code @} which is replaced as well.
+ * Names in URLs and email addresses aren't linked.
+ * When names overlap the leftmost, then longest name is linked.
+ * Matching uses an Aho-Corasick automaton built from the whole dictionary, so each text is scanned once regardless of the amount of names.
+ * The automaton can be rebuilt while in use (for example in the background when the guild's members change),
+ * texts being linked keep using the previous automaton until the new one is swapped in.</p>
+ *
+ * @see me.hypherionmc.mcdiscordformatter.discord.DiscordSerializerOptions#withMentionLinker(MentionLinker)
+ */
+public class MentionLinker {
+
+    private final boolean requireAtSign;
+    private volatile Automaton automaton = Automaton.build(Map.of());
+
+    /**
+     * Creates a {@link MentionLinker} without any names, use {@link #rebuild(Map)} to set them.
+     *
+     * @param requireAtSign if names are only linked when written with a leading {@code @}
+     */
+    public MentionLinker(boolean requireAtSign) {
+        this.requireAtSign = requireAtSign;
+    }
+
+    /**
+     * Creates a {@link MentionLinker} for the given names.
+     *
+     * @param names         the user ids by name
+     * @param requireAtSign if names are only linked when written with a leading {@code @}
+     */
+    public MentionLinker(@NotNull Map<String, Long> names, boolean requireAtSign) {
+        this(requireAtSign);
+        rebuild(names);
+    }
+
+    /**
+     * Replaces the names of this linker, the new automaton is built on the calling thread and then swapped in atomically.
+     *
+     * @param names the user ids by name
+     */
+    public void rebuild(@NotNull Map<String, Long> names) {
+        this.automaton = Automaton.build(names);
+    }
+
+    /**
+     * Replaces the names of this linker, building the new automaton on the given executor.
+     *
+     * @param names    the user ids by name, should not be modified until the returned future completes
+     * @param executor the executor to build the automaton on
+     * @return a future completing once the new names are in use
+     */
+    public CompletableFuture<Void> rebuildAsync(@NotNull Map<String, Long> names, @NotNull Executor executor) {
+        return CompletableFuture.runAsync(() -> rebuild(names), executor);
+    }
+
+    /**
+     * Returns the amount of names this linker currently links.
+     *
+     * @return the amount of names
+     */
+    public int size() {
+        return automaton.size;
+    }
+
+    /**
+     * Replaces the names in the given text with user mentions.
+     *
+     * @param text the text
+     * @return the linked text, the same instance if no names were found
+     */
+    public @NotNull String link(@NotNull String text) {
+        Automaton automaton = this.automaton;
+        int length = text.length();
+
+        // the longest valid name starting at each index
+        int[] matchLength = null;
+        long[] matchId = null;
+
+        int node = 0;
+        for (int i = 0; i < length; i++) {
+            node = automaton.next(node, Character.toLowerCase(text.charAt(i)));
+            for (int output = automaton.outputOf(node); output != 0; output = automaton.dictionaryLink[output]) {
+                int nameLength = automaton.outputLength[output];
+                int start = i + 1 - nameLength;
+                if (!isBoundary(text, start - 1) || !isBoundary(text, i + 1)) {
+                    continue;
+                }
+                boolean atSign = start > 0 && text.charAt(start - 1) == '@';
+                if (atSign && !isBoundary(text, start - 2) || i + 1 < length && text.charAt(i + 1) == '@') {
+                    // part of an email address
+                    continue;
+                }
+                if (requireAtSign && !atSign) {
+                    continue;
+                }
+                if (atSign) {
+                    start--;
+                    nameLength++;
+                }
+
+                if (matchLength == null) {
+                    matchLength = new int[length];
+                    matchId = new long[length];
+                }
+                if (nameLength > matchLength[start]) {
+                    matchLength[start] = nameLength;
+                    matchId[start] = automaton.outputId[output];
+                }
+            }
+        }
+        if (matchLength == null) {
+            return text;
+        }
+
+        StringBuilder builder = null;
+        int copied = 0;
+        // the whitespace separated word of the last match, names in URLs aren't linked
+        int wordEnd = 0;
+        boolean inUrl = false;
+        for (int i = 0; i < length; i++) {
+            if (matchLength[i] == 0) {
+                continue;
+            }
+            if (i >= wordEnd) {
+                int wordStart = i;
+                while (wordStart > wordEnd && !Character.isWhitespace(text.charAt(wordStart - 1))) {
+                    wordStart--;
+                }
+                wordEnd = i + 1;
+                while (wordEnd < length && !Character.isWhitespace(text.charAt(wordEnd))) {
+                    wordEnd++;
+                }
+                inUrl = text.substring(wordStart, wordEnd).contains("://");
+            }
+            if (inUrl) {
+                continue;
+            }
+
+            if (builder == null) {
+                builder = new StringBuilder(length + 16);
+            }
+            builder.append(text, copied, i).append("<@").append(Long.toUnsignedString(matchId[i])).append('>');
+            copied = i + matchLength[i];
+            i = copied - 1;
+        }
+        return builder != null ? builder.append(text, copied, length).toString() : text;
+    }
+
+    private static boolean isBoundary(String text, int index) {
+        if (index < 0 || index >= text.length()) {
+            return true;
+        }
+        char c = text.charAt(index);
+        return c != '_' && !Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * An immutable Aho-Corasick automaton over lower cased names, with the trie edges stored in flat sorted arrays.
+     */
+    private static final class Automaton {
+
+        // node i has the edges [edgeStart[i], edgeStart[i + 1]), sorted by char
+        private final int[] edgeStart;
+        private final char[] edgeChars;
+        private final int[] edgeTargets;
+        private final int[] failure;
+        // outputs: the name ending at a node (length 0 for none), and the next node on the failure chain with an output
+        private final int[] outputLength;
+        private final long[] outputId;
+        private final int[] dictionaryLink;
+        private final int size;
+
+        private Automaton(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] failure,
+                          int[] outputLength, long[] outputId, int[] dictionaryLink, int size) {
+            this.edgeStart = edgeStart;
+            this.edgeChars = edgeChars;
+            this.edgeTargets = edgeTargets;
+            this.failure = failure;
+            this.outputLength = outputLength;
+            this.outputId = outputId;
+            this.dictionaryLink = dictionaryLink;
+            this.size = size;
+        }
+
+        static Automaton build(Map<String, Long> names) {
+            List<TreeMap<Character, Integer>> children = new ArrayList<>();
+            children.add(new TreeMap<>());
+            int[] lengths = new int[16];
+            long[] ids = new long[16];
+            int size = 0;
+
+            for (Map.Entry<String, Long> entry : names.entrySet()) {
+                String name = entry.getKey();
+                if (name.isEmpty()) {
+                    continue;
+                }
+
+                int node = 0;
+                for (int i = 0; i < name.length(); i++) {
+                    char c = Character.toLowerCase(name.charAt(i));
+                    Integer next = children.get(node).get(c);
+                    if (next == null) {
+                        next = children.size();
+                        children.add(new TreeMap<>());
+                        children.get(node).put(c, next);
+                    }
+                    node = next;
+                }
+
+                if (node >= lengths.length) {
+                    int capacity = Math.max(node + 1, children.size() * 2);
+                    lengths = Arrays.copyOf(lengths, capacity);
+                    ids = Arrays.copyOf(ids, capacity);
+                }
+                if (lengths[node] == 0) {
+                    // names only differing in case: the first one wins
+                    lengths[node] = name.length();
+                    ids[node] = entry.getValue();
+                    size++;
+                }
+            }
+
+            int nodeCount = children.size();
+            lengths = Arrays.copyOf(lengths, nodeCount);
+            ids = Arrays.copyOf(ids, nodeCount);
+
+            int[] edgeStart = new int[nodeCount + 1];
+            char[] edgeChars = new char[nodeCount - 1];
+            int[] edgeTargets = new int[nodeCount - 1];
+            int edge = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                edgeStart[node] = edge;
+                for (Map.Entry<Character, Integer> child : children.get(node).entrySet()) {
+                    edgeChars[edge] = child.getKey();
+                    edgeTargets[edge] = child.getValue();
+                    edge++;
+                }
+            }
+            edgeStart[nodeCount] = edge;
+
+            Automaton automaton = new Automaton(edgeStart, edgeChars, edgeTargets, new int[nodeCount],
+                    lengths, ids, new int[nodeCount], size);
+            automaton.link();
+            return automaton;
+        }
+
+        /**
+         * Computes the failure and dictionary links breadth first, so the links of shallower nodes are known first.
+         */
+        private void link() {
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int edge = edgeStart[0]; edge < edgeStart[1]; edge++) {
+                // failure[child] = 0 (root)
+                queue.add(edgeTargets[edge]);
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                    int child = edgeTargets[edge];
+                    char c = edgeChars[edge];
+
+                    int fallback = failure[node];
+                    int target;
+                    while ((target = child(fallback, c)) == -1 && fallback != 0) {
+                        fallback = failure[fallback];
+                    }
+                    failure[child] = target == -1 ? 0 : target;
+
+                    int childFailure = failure[child];
+                    dictionaryLink[child] = outputLength[childFailure] != 0 ? childFailure : dictionaryLink[childFailure];
+                    queue.add(child);
+                }
+            }
+        }
+
+        private int child(int node, char c) {
+            int index = Arrays.binarySearch(edgeChars, edgeStart[node], edgeStart[node + 1], c);
+            return index < 0 ? -1 : edgeTargets[index];
+        }
+
+        int next(int node, char c) {
+            int target;
+            while ((target = child(node, c)) == -1 && node != 0) {
+                node = failure[node];
+            }
+            return target == -1 ? 0 : target;
+        }
+
+        /**
+         * Returns the first node with an output on the failure chain of the given node (including itself), or 0 for none.
+         */
+        int outputOf(int node) {
+            return outputLength[node] != 0 ? node : dictionaryLink[node];
+        }
+    }
+}
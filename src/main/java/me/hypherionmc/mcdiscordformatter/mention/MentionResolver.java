@@ -0,0 +1,44 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.mention;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Resolves the names of mentioned users, roles and channels, for rendering mentions in Minecraft.
+ *
+ * <p>All mentions in a message are collected before rendering and passed to the resolver at once,
+ * so implementations can resolve them with a single bulk lookup.</p>
+ *
+ * @see CachingMentionResolver
+ * @see InMemoryMentionResolver
+ * @see me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions#withMentionResolver(MentionResolver)
+ */
+@FunctionalInterface
+public interface MentionResolver {
+
+    /**
+     * Resolves the names for the mentions of a message,
+     * by calling {@link ResolvedMentions#setName(me.hypherionmc.mcdiscordformatter.node.MentionNode.Kind, int, String)}
+     * for every mention that could be resolved. Unresolved mentions are rendered with their id.
+     *
+     * @param mentions the mentions of a message
+     */
+    void resolve(@NotNull ResolvedMentions mentions);
+}
@@ -0,0 +1,226 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.mention;
+
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import me.hypherionmc.mcdiscordformatter.rules.DiscordMarkdownRules;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The distinct mentions of a message, by kind, together with their resolved names.
+ *
+ * @see MentionResolver
+ */
+public final class ResolvedMentions {
+
+    private static final MentionNode.Kind[] KINDS = MentionNode.Kind.values();
+
+    private final long[][] ids = new long[KINDS.length][];
+    private final String[][] names = new String[KINDS.length][];
+    private final int[] counts = new int[KINDS.length];
+
+    /**
+     * Creates an empty {@link ResolvedMentions}.
+     */
+    public ResolvedMentions() {
+        for (int i = 0; i < KINDS.length; i++) {
+            ids[i] = new long[0];
+            names[i] = new String[0];
+        }
+    }
+
+    /**
+     * Collects the user, role and channel mentions in the given Discord message.
+     * Mentions in code blocks and inline code aren't rendered as mentions, so they're skipped.
+     *
+     * @param discordMessage the Discord message
+     * @return the mentions of the message, without names
+     */
+    public static ResolvedMentions collect(@NotNull CharSequence discordMessage) {
+        ResolvedMentions mentions = new ResolvedMentions();
+        int length = discordMessage.length();
+        for (int i = 0; i < length - 2; i++) {
+            char first = discordMessage.charAt(i);
+            if (first == '\\') {
+                i++;
+                continue;
+            }
+            if (first == '`') {
+                int codeEnd = DiscordMarkdownRules.codeEnd(discordMessage, i);
+                if (codeEnd != -1) {
+                    i = codeEnd - 1;
+                }
+                continue;
+            }
+            if (first != '<') {
+                continue;
+            }
+
+            int index = i + 1;
+            MentionNode.Kind kind;
+            char c = discordMessage.charAt(index++);
+            if (c == '#') {
+                kind = MentionNode.Kind.CHANNEL;
+            } else if (c == '@') {
+                kind = MentionNode.Kind.USER;
+                c = discordMessage.charAt(index);
+                if (c == '!') {
+                    index++;
+                } else if (c == '&') {
+                    kind = MentionNode.Kind.ROLE;
+                    index++;
+                }
+            } else {
+                continue;
+            }
+
+            long id = 0;
+            int digits = 0;
+            boolean overflow = false;
+            while (index < length && (c = discordMessage.charAt(index)) >= '0' && c <= '9') {
+                int digit = c - '0';
+                // snowflakes fit in an unsigned long
+                overflow |= Long.compareUnsigned(id, Long.divideUnsigned(-1L - digit, 10)) > 0;
+                id = id * 10 + digit;
+                digits++;
+                index++;
+            }
+            if (digits > 0 && !overflow && index < length && discordMessage.charAt(index) == '>') {
+                mentions.add(kind, id);
+                i = index;
+            }
+        }
+        return mentions;
+    }
+
+    /**
+     * Adds a mention, unless it is already present.
+     *
+     * @param kind the kind of mention
+     * @param id   the snowflake id of the mentioned user, role or channel
+     * @return the index of the mention within its kind
+     */
+    public int add(@NotNull MentionNode.Kind kind, long id) {
+        int ordinal = kind.ordinal();
+        int index = indexOf(kind, id);
+        if (index != -1) {
+            return index;
+        }
+
+        int count = counts[ordinal];
+        if (count == ids[ordinal].length) {
+            int capacity = Math.max(4, count * 2);
+            ids[ordinal] = Arrays.copyOf(ids[ordinal], capacity);
+            names[ordinal] = Arrays.copyOf(names[ordinal], capacity);
+        }
+        ids[ordinal][count] = id;
+        counts[ordinal] = count + 1;
+        return count;
+    }
+
+    /**
+     * Returns the amount of distinct mentions of the given kind.
+     *
+     * @param kind the kind of mention
+     * @return the amount of mentions
+     */
+    public int size(@NotNull MentionNode.Kind kind) {
+        return counts[kind.ordinal()];
+    }
+
+    /**
+     * Checks if there are no mentions at all.
+     *
+     * @return true if there are no mentions
+     */
+    public boolean isEmpty() {
+        for (int count : counts) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getId(@NotNull MentionNode.Kind kind, int index) {
+        checkIndex(kind, index);
+        return ids[kind.ordinal()][index];
+    }
+
+    public @Nullable String getName(@NotNull MentionNode.Kind kind, int index) {
+        checkIndex(kind, index);
+        return names[kind.ordinal()][index];
+    }
+
+    public void setName(@NotNull MentionNode.Kind kind, int index, @Nullable String name) {
+        checkIndex(kind, index);
+        names[kind.ordinal()][index] = name;
+    }
+
+    /**
+     * Finds the resolved name for the given mention.
+     *
+     * @param kind the kind of mention
+     * @param id   the snowflake id of the mentioned user, role or channel
+     * @return the name or {@code null} if the mention wasn't collected or resolved
+     */
+    public @Nullable String findName(@NotNull MentionNode.Kind kind, long id) {
+        int index = indexOf(kind, id);
+        return index == -1 ? null : names[kind.ordinal()][index];
+    }
+
+    private int indexOf(MentionNode.Kind kind, long id) {
+        int ordinal = kind.ordinal();
+        long[] kindIds = ids[ordinal];
+        for (int i = 0; i < counts[ordinal]; i++) {
+            if (kindIds[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void checkIndex(MentionNode.Kind kind, int index) {
+        if (index < 0 || index >= counts[kind.ordinal()]) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + kind + " mentions: " + counts[kind.ordinal()]);
+        }
+    }
+
+    public String toString() {
+        StringBuilder builder = new StringBuilder("ResolvedMentions(");
+        for (MentionNode.Kind kind : KINDS) {
+            int ordinal = kind.ordinal();
+            if (ordinal > 0) {
+                builder.append(", ");
+            }
+            builder.append(kind).append("=[");
+            for (int i = 0; i < counts[ordinal]; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append(Long.toUnsignedString(ids[ordinal][i])).append('=').append(names[ordinal][i]);
+            }
+            builder.append(']');
+        }
+        return builder.append(')').toString();
+    }
+}
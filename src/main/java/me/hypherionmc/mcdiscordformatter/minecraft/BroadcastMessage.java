@@ -0,0 +1,177 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import me.hypherionmc.mcdiscordformatter.jfr.RenderEvent;
+import me.hypherionmc.mcdiscordformatter.mention.ResolvedMentions;
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Discord message that is sent to many recipients, rendered once and shared between them.
+ * Per-recipient changes are applied with {@link RecipientOverlay}s, which only render the top-level blocks
+ * (see {@link IncrementalSerialization}) containing the mentions or spoilers they change again and share all other blocks.
+ *
+ * <p>The rendered components are shared between recipients and should not be modified.</p>
+ *
+ * @see MinecraftSerializer#serializeBroadcast(String, MinecraftSerializerOptions)
+ */
+public final class BroadcastMessage {
+
+    private static final long[] NO_USERS = new long[0];
+
+    private final MinecraftSerializer serializer;
+    private final String source;
+    private final int[] blockEnds;
+    private final MutableComponent[] blocks;
+    private final long[][] blockUserIds;
+    private final boolean[] blockSpoilers;
+    private final MinecraftSerializerOptions<MutableComponent> serializerOptions;
+    private final RenderContext renderContext;
+    private final Map<RecipientOverlay, MutableComponent> sharedOverlays = new ConcurrentHashMap<>();
+    private final MutableComponent component;
+
+    BroadcastMessage(MinecraftSerializer serializer, String source, MinecraftSerializerOptions<MutableComponent> serializerOptions,
+                     RenderContext renderContext) {
+        this.serializer = serializer;
+        this.source = source;
+        this.serializerOptions = serializerOptions;
+        this.renderContext = renderContext;
+        this.blockEnds = IncrementalSerialization.findBlockEnds(source);
+
+        int count = blockEnds.length;
+        this.blocks = new MutableComponent[count];
+        this.blockUserIds = new long[count][];
+        this.blockSpoilers = new boolean[count];
+        MutableComponent component = Component.empty();
+        for (int i = 0; i < count; i++) {
+            String block = block(i);
+            blocks[i] = serializer.render(block, serializerOptions, renderContext);
+            blockUserIds[i] = userIds(block);
+            blockSpoilers[i] = block.contains("||");
+            component.append(blocks[i]);
+        }
+        this.component = component;
+    }
+
+    private String block(int index) {
+        return source.substring(index == 0 ? 0 : blockEnds[index - 1], blockEnds[index]);
+    }
+
+    private static long[] userIds(String block) {
+        ResolvedMentions mentions = ResolvedMentions.collect(block);
+        int size = mentions.size(MentionNode.Kind.USER);
+        if (size == 0) {
+            return NO_USERS;
+        }
+        long[] ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = mentions.getId(MentionNode.Kind.USER, i);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the message as rendered for recipients without an overlay.
+     *
+     * @return the shared Minecraft component
+     */
+    public @NotNull MutableComponent getComponent() {
+        return this.component;
+    }
+
+    /**
+     * Returns the message with the given recipient's overlay applied. Blocks the overlay doesn't affect are shared with
+     * {@link #getComponent()}, and the result for overlays without a highlighted user is cached as it is shared between recipients.
+     *
+     * @param overlay the recipient's overlay
+     * @return the Minecraft component for the recipient
+     */
+    public @NotNull MutableComponent render(@NotNull RecipientOverlay overlay) {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        MutableComponent output;
+        boolean cacheHit = true;
+        if (overlay.isEmpty()) {
+            output = component;
+        } else if (overlay.getHighlightedUserId() == RecipientOverlay.NO_USER) {
+            output = sharedOverlays.get(overlay);
+            if (output == null) {
+                cacheHit = false;
+                output = sharedOverlays.computeIfAbsent(overlay, this::renderOverlay);
+            }
+        } else {
+            cacheHit = false;
+            output = renderOverlay(overlay);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(RenderEvent.BROADCAST, source.length(), output.getString().length(), false, cacheHit);
+        }
+        return output;
+    }
+
+    private MutableComponent renderOverlay(RecipientOverlay overlay) {
+        MinecraftSerializerOptions<MutableComponent> overlayOptions = null;
+        MutableComponent output = Component.empty();
+        for (int i = 0; i < blocks.length; i++) {
+            if (!overlay.affects(blockUserIds[i], blockSpoilers[i])) {
+                output.append(blocks[i]);
+                continue;
+            }
+            if (overlayOptions == null) {
+                overlayOptions = serializerOptions.addRenderer(0, overlay.getRenderer());
+            }
+            output.append(serializer.render(block(i), overlayOptions, renderContext));
+        }
+        return overlayOptions != null ? output : component;
+    }
+
+    /**
+     * Returns the Discord message this broadcast was serialized from.
+     *
+     * @return the Discord markdown message
+     */
+    public @NotNull String getSource() {
+        return this.source;
+    }
+
+    /**
+     * Returns the options used for rendering, the mentions of the whole message are resolved once with its mention resolver.
+     *
+     * @return the serializer options
+     */
+    public @NotNull MinecraftSerializerOptions<MutableComponent> getSerializerOptions() {
+        return this.serializerOptions;
+    }
+
+    /**
+     * Returns the amount of top-level blocks the message was split into.
+     *
+     * @return the amount of blocks
+     */
+    public int getBlockCount() {
+        return this.blocks.length;
+    }
+}
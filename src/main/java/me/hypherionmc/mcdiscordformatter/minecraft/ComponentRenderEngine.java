@@ -0,0 +1,299 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import dev.vankka.simpleast.core.TextStyle;
+import dev.vankka.simpleast.core.node.Node;
+import dev.vankka.simpleast.core.node.StyleNode;
+import dev.vankka.simpleast.core.node.TextNode;
+import me.hypherionmc.mcdiscordformatter.renderer.MinecraftNodeRenderer;
+import me.hypherionmc.mcdiscordformatter.renderer.MinecraftRenderer;
+import me.hypherionmc.mcdiscordformatter.renderer.NodeRenderer;
+import me.hypherionmc.mcdiscordformatter.renderer.implementation.DefaultMinecraftRenderer;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Renders {@link Node} trees into {@link MutableComponent}s with an explicit stack instead of recursion.
+ * One instance is used per serialization, it is also the {@code renderWithChildren} function passed to the renderers,
+ * rendering nodes with the style of the component that is currently being rendered.
+ *
+ * <p>Trees are either rendered with {@link #render(Node, Style)}, or by an outside traversal through the {@link TraversalRenderer} methods.</p>
+ *
+ * <p>The text of quotes rendered by a {@link MinecraftRenderer} is split at line breaks as it's rendered, the {@code "> "} starting
+ * each following line is replaced with the renderer's {@link MinecraftRenderer#appendQuoteLinePrefix(MutableComponent) line prefix}.
+ * The parsed tree isn't modified, so it can be rendered for other targets.</p>
+ */
+final class ComponentRenderEngine implements Function<Node<Object>, MutableComponent>, TraversalRenderer<MutableComponent> {
+
+    private final MinecraftSerializerOptions<MutableComponent> serializerOptions;
+    private final RenderContext renderContext;
+    private final RenderContext quoteContext;
+    private final List<NodeRenderer<MutableComponent>> renderers;
+
+    private Frame[] frames = new Frame[8];
+    private int depth;
+
+    /**
+     * The component given to the renderer that is currently running.
+     */
+    private MutableComponent current;
+
+    /**
+     * If the last text rendered in a quote ended with a line break, the next text starts with {@code "> "}.
+     */
+    private boolean quoteLineStart;
+
+    /**
+     * The renderer of the last node rendered by {@link #renderNode(MutableComponent, Node, RenderContext)}.
+     */
+    private NodeRenderer<MutableComponent> rendered;
+
+    ComponentRenderEngine(MinecraftSerializerOptions<MutableComponent> serializerOptions, RenderContext renderContext) {
+        this.serializerOptions = serializerOptions;
+        this.renderContext = renderContext;
+        this.quoteContext = renderContext.inQuote();
+        this.renderers = serializerOptions.getRenderers();
+    }
+
+    @Override
+    public MutableComponent apply(Node<Object> node) {
+        return render(node, current.getStyle());
+    }
+
+    /**
+     * The output of the top-level nodes rendered through {@link #enter(Node)} and {@link #exit(Node)}.
+     */
+    private MutableComponent root;
+
+    @Override
+    public boolean enter(Node<Object> node) {
+        if (depth == 0) {
+            push(node, Style.EMPTY, null);
+        } else {
+            Frame parent = frames[depth - 1];
+            push(node, parent.output.getStyle(), parent.quote);
+        }
+        List<Node<Object>> children = frames[depth - 1].children;
+        return children != null && !children.isEmpty();
+    }
+
+    @Override
+    public void exit(Node<Object> node) {
+        Frame frame = frames[depth - 1];
+        MutableComponent output = renderAfterChildren(frame);
+        frame.clear();
+        depth--;
+        if (depth == 0) {
+            if (root == null) {
+                root = Component.empty();
+            }
+            root.append(output);
+        } else {
+            Frame parent = frames[depth - 1];
+            parent.output = parent.output.append(output);
+        }
+    }
+
+    @Override
+    public MutableComponent finish() {
+        return root != null ? root : Component.empty();
+    }
+
+    /**
+     * Renders the node and its children.
+     *
+     * @param node  the node to render
+     * @param style the style of the component the node is rendered to
+     * @return the rendered component
+     */
+    MutableComponent render(Node<Object> node, Style style) {
+        // renderers may call back into this engine, those renders use the frames above this one
+        // and are part of the component the renderer builds rather than the lines of a quote
+        int base = depth;
+        push(node, style, null);
+        while (true) {
+            Frame frame = frames[depth - 1];
+            List<Node<Object>> children = frame.children;
+            if (children != null && frame.childIndex < children.size()) {
+                push(children.get(frame.childIndex++), frame.output.getStyle(), frame.quote);
+                continue;
+            }
+
+            MutableComponent output = renderAfterChildren(frame);
+            frame.clear();
+            depth--;
+            if (depth == base) {
+                return output;
+            }
+            Frame parent = frames[depth - 1];
+            parent.output = parent.output.append(output);
+        }
+    }
+
+    /**
+     * @param quote the renderer of the quote the node is in, or {@code null}
+     */
+    private void push(Node<Object> node, Style style, MinecraftRenderer quote) {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+        Frame frame = frames[depth];
+        if (frame == null) {
+            frame = frames[depth] = new Frame();
+        }
+        depth++;
+
+        MutableComponent component = Component.empty().setStyle(style);
+        MutableComponent previous = current;
+        current = component;
+
+        RenderContext context = quote != null ? quoteContext : renderContext;
+        MutableComponent output;
+        if (quote != null && node instanceof TextNode) {
+            output = renderQuoteText(component, (TextNode<Object>) node, context, quote);
+        } else {
+            output = renderNode(component, node, context);
+        }
+        current = previous;
+
+        NodeRenderer<MutableComponent> render = rendered;
+        if (quote == null && render instanceof MinecraftRenderer && isQuote(node)) {
+            quote = (MinecraftRenderer) render;
+            quoteLineStart = false;
+        }
+        frame.node = node;
+        frame.component = component;
+        frame.renderer = render;
+        frame.output = output;
+        frame.quote = quote;
+        // a renderer can render the children itself, without them being part of the traversal
+        frame.children = render instanceof MinecraftNodeRenderer && ((MinecraftNodeRenderer) render).rendersChildren(node, serializerOptions)
+                ? null : node.getChildren();
+        frame.childIndex = 0;
+    }
+
+    private MutableComponent renderNode(MutableComponent component, Node<Object> node, RenderContext context) {
+        for (NodeRenderer<MutableComponent> renderer : renderers) {
+            MutableComponent output = renderer instanceof MinecraftNodeRenderer
+                    ? ((MinecraftNodeRenderer) renderer).render(component, node, serializerOptions, context, this)
+                    : renderer.render(component, node, serializerOptions, this);
+            if (output != null) {
+                rendered = renderer;
+                return output;
+            }
+        }
+        rendered = DefaultMinecraftRenderer.INSTANCE;
+        return DefaultMinecraftRenderer.INSTANCE.render(component, node, serializerOptions, context, this);
+    }
+
+    /**
+     * Renders text of a quote. Each line is rendered separately, the lines after a line break start with the quote's line prefix
+     * instead of the {@code "> "} they start with in the message.
+     */
+    private MutableComponent renderQuoteText(MutableComponent component, TextNode<Object> node, RenderContext context, MinecraftRenderer quote) {
+        String content = node.getContent();
+        if (content.isEmpty()) {
+            return renderNode(component, node, context);
+        }
+        boolean lineStart = quoteLineStart;
+        int newline = content.indexOf('\n');
+        // a line break at the end is prefixed by the text of the next line
+        quoteLineStart = content.charAt(content.length() - 1) == '\n';
+        if (!lineStart && (newline == -1 || newline == content.length() - 1)) {
+            return renderNode(component, node, context);
+        }
+
+        NodeRenderer<MutableComponent> firstRenderer = null;
+        Style style = component.getStyle();
+        int start = 0;
+        while (true) {
+            if (lineStart) {
+                MutableComponent prefix = quote.appendQuoteLinePrefix(Component.empty());
+                if (prefix != null) {
+                    component.append(prefix);
+                }
+                if (content.startsWith("> ", start)) {
+                    start += 2;
+                }
+            }
+            if (start == content.length()) {
+                break;
+            }
+
+            newline = content.indexOf('\n', start);
+            int end = newline != -1 ? newline + 1 : content.length();
+            component.append(renderNode(Component.empty().setStyle(style), new TextNode<>(content.substring(start, end)), context));
+            if (firstRenderer == null) {
+                firstRenderer = rendered;
+            }
+            if (end == content.length()) {
+                break;
+            }
+            start = end;
+            lineStart = true;
+        }
+        rendered = firstRenderer != null ? firstRenderer : DefaultMinecraftRenderer.INSTANCE;
+        return component;
+    }
+
+    private static boolean isQuote(Node<Object> node) {
+        if (!(node instanceof StyleNode)) {
+            return false;
+        }
+        for (Object style : ((StyleNode<?, ?>) node).getStyles()) {
+            if (((TextStyle) style).getType() == TextStyle.Type.QUOTE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private MutableComponent renderAfterChildren(Frame frame) {
+        MutableComponent previous = current;
+        current = frame.component;
+        MutableComponent newOutput = frame.renderer.renderAfterChildren(frame.output, frame.node, serializerOptions, this);
+        current = previous;
+        return newOutput != null ? newOutput : frame.output;
+    }
+
+    private static final class Frame {
+        private Node<Object> node;
+        private MutableComponent component;
+        private NodeRenderer<MutableComponent> renderer;
+        private MutableComponent output;
+        private List<Node<Object>> children;
+        private int childIndex;
+        private MinecraftRenderer quote;
+
+        private void clear() {
+            node = null;
+            component = null;
+            renderer = null;
+            output = null;
+            children = null;
+            quote = null;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import dev.vankka.simpleast.core.node.Node;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Walks a parse tree once with an explicit stack, entering and exiting every node for each {@link TraversalRenderer}.
+ * Renderers that render the children of a node themselves (like quotes) don't get the events of that subtree.
+ */
+final class FanOutTraversal {
+
+    /**
+     * The maximum amount of renderers, one bit per renderer in a long.
+     */
+    static final int MAX_RENDERERS = Long.SIZE;
+
+    private final TraversalRenderer<?>[] renderers;
+    private Frame[] frames = new Frame[8];
+    private int depth;
+
+    FanOutTraversal(TraversalRenderer<?>[] renderers) {
+        if (renderers.length > MAX_RENDERERS) {
+            throw new IllegalArgumentException("At most " + MAX_RENDERERS + " targets can be rendered at once");
+        }
+        this.renderers = renderers;
+    }
+
+    void traverse(List<Node<Object>> nodes) {
+        long all = renderers.length == MAX_RENDERERS ? -1L : (1L << renderers.length) - 1;
+        for (Node<Object> node : nodes) {
+            push(node, all);
+            while (depth > 0) {
+                Frame frame = frames[depth - 1];
+                if (frame.children != null && frame.childIndex < frame.children.size()) {
+                    push(frame.children.get(frame.childIndex++), frame.descending);
+                    continue;
+                }
+
+                depth--;
+                for (long mask = frame.entered; mask != 0; mask &= mask - 1) {
+                    renderers[Long.numberOfTrailingZeros(mask)].exit(frame.node);
+                }
+                frame.node = null;
+                frame.children = null;
+            }
+        }
+    }
+
+    private void push(Node<Object> node, long entered) {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+        Frame frame = frames[depth];
+        if (frame == null) {
+            frame = frames[depth] = new Frame();
+        }
+        depth++;
+
+        List<Node<Object>> children = node.getChildren();
+
+        long descending = 0;
+        for (long mask = entered; mask != 0; mask &= mask - 1) {
+            int index = Long.numberOfTrailingZeros(mask);
+            if (renderers[index].enter(node)) {
+                descending |= 1L << index;
+            }
+        }
+
+        frame.node = node;
+        frame.children = descending != 0 && children != null && !children.isEmpty() ? children : null;
+        frame.childIndex = 0;
+        frame.entered = entered;
+        frame.descending = descending;
+    }
+
+    private static final class Frame {
+        private Node<Object> node;
+        private List<Node<Object>> children;
+        private int childIndex;
+        private long entered;
+        private long descending;
+    }
+}
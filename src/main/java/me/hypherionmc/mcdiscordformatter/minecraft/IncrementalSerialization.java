@@ -0,0 +1,202 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import me.hypherionmc.mcdiscordformatter.rules.DiscordMarkdownRules;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The result of an incremental serialization, which can be passed back to
+ * {@link MinecraftSerializer#reserialize(IncrementalSerialization, String)} when the message is edited.
+ *
+ * <p>Messages are split into top-level blocks at blank lines, only where no formatting can span the split
+ * (outside code and spoilers, with balanced emphasis markers), so each block parses the same on its own as within the message.
+ * Blocks are rendered separately and unchanged blocks are reused by later serializations of an edited message.</p>
+ *
+ * <p>The rendered block components are shared between serializations and should not be modified.</p>
+ */
+public final class IncrementalSerialization {
+
+    private final String source;
+    private final int[] blockEnds;
+    private final MutableComponent[] blocks;
+    private final MinecraftSerializerOptions<MutableComponent> serializerOptions;
+    private final int reusedBlocks;
+    private MutableComponent component;
+
+    IncrementalSerialization(String source, int[] blockEnds, MutableComponent[] blocks,
+                             MinecraftSerializerOptions<MutableComponent> serializerOptions, int reusedBlocks) {
+        this.source = source;
+        this.blockEnds = blockEnds;
+        this.blocks = blocks;
+        this.serializerOptions = serializerOptions;
+        this.reusedBlocks = reusedBlocks;
+    }
+
+    /**
+     * Returns the rendered message, made up of one child component per block.
+     *
+     * @return the Discord message formatted to a Minecraft TextComponent
+     */
+    public synchronized @NotNull MutableComponent getComponent() {
+        if (component == null) {
+            MutableComponent text = Component.empty();
+            for (MutableComponent block : blocks) {
+                text.append(block);
+            }
+            component = text;
+        }
+        return component;
+    }
+
+    /**
+     * Returns the Discord message this result was serialized from.
+     *
+     * @return the Discord markdown message
+     */
+    public @NotNull String getSource() {
+        return this.source;
+    }
+
+    public @NotNull MinecraftSerializerOptions<MutableComponent> getSerializerOptions() {
+        return this.serializerOptions;
+    }
+
+    /**
+     * Returns the amount of top-level blocks the message was split into.
+     *
+     * @return the amount of blocks
+     */
+    public int getBlockCount() {
+        return this.blocks.length;
+    }
+
+    /**
+     * Returns the amount of blocks that were reused from the previous serialization instead of being parsed and rendered again.
+     *
+     * @return the amount of reused blocks
+     */
+    public int getReusedBlockCount() {
+        return this.reusedBlocks;
+    }
+
+    int blockStart(int index) {
+        return index == 0 ? 0 : blockEnds[index - 1];
+    }
+
+    int blockEnd(int index) {
+        return blockEnds[index];
+    }
+
+    MutableComponent block(int index) {
+        return blocks[index];
+    }
+
+    /**
+     * Checks if the given block of this result has the exact same content as the given range of the other message.
+     */
+    boolean blockMatches(int index, String other, int start, int end) {
+        int blockStart = blockStart(index);
+        return blockEnd(index) - blockStart == end - start && source.regionMatches(blockStart, other, start, end - start);
+    }
+
+    /**
+     * Finds the end offsets of the top-level blocks of the given message.
+     * A block ends after a run of blank lines, unless the blank lines are inside a code block or a spoiler,
+     * or a bold, italic, underline or strikethrough marker before them isn't balanced.
+     * Markdown characters inside code blocks and inline code aren't formatting, so they're skipped.
+     *
+     * @param message the Discord message
+     * @return the exclusive end offsets of each block, the last one being the message's length
+     */
+    static int[] findBlockEnds(CharSequence message) {
+        int length = message.length();
+        int[] ends = new int[4];
+        int count = 0;
+
+        boolean spoiler = false;
+        int balance = 0; // one bit per emphasis character, set while runs of the character have appeared an odd amount of times
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            if (c == '\\') {
+                i++;
+                previous = 0;
+                continue;
+            }
+
+            if (c == '`') {
+                // code can't be split and doesn't contain formatting, continue after it
+                int codeEnd = DiscordMarkdownRules.codeEnd(message, i);
+                if (codeEnd != -1) {
+                    i = codeEnd - 1;
+                    previous = 0;
+                    continue;
+                }
+            } else if (c == '|' && i + 1 < length && message.charAt(i + 1) == '|') {
+                spoiler = !spoiler;
+                i++;
+                previous = 0;
+                continue;
+            } else if (c != previous) {
+                switch (c) {
+                    case '*': balance ^= 1; break;
+                    case '_': balance ^= 2; break;
+                    case '~': balance ^= 4; break;
+                    default: break;
+                }
+            }
+            previous = c;
+
+            if (c != '\n' || balance != 0 || spoiler) {
+                continue;
+            }
+
+            // find the end of this run of blank lines, it has to contain at least two line breaks
+            int end = -1;
+            for (int j = i + 1; j < length; j++) {
+                char next = message.charAt(j);
+                if (next == '\n') {
+                    end = j + 1;
+                } else if (next != ' ') {
+                    break;
+                }
+            }
+            if (end == -1 || end == length) {
+                continue;
+            }
+
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            ends[count++] = end;
+            i = end - 1;
+        }
+
+        if (count == ends.length) {
+            ends = Arrays.copyOf(ends, count + 1);
+        }
+        ends[count++] = length;
+        return Arrays.copyOf(ends, count);
+    }
+}
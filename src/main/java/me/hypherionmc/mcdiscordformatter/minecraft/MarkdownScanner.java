@@ -0,0 +1,57 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+/**
+ * Detects messages that none of the default Discord rules can match, so they can skip the parser entirely.
+ */
+final class MarkdownScanner {
+
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static {
+        for (char c : "\\\n*_~|`<>[".toCharArray()) {
+            SPECIAL[c] = true;
+        }
+    }
+
+    private MarkdownScanner() {
+    }
+
+    /**
+     * Checks if the given message contains any character that can start or be part of markdown, a mention, a quote or a link.
+     *
+     * @param message the Discord message
+     * @return false if the message is plain text for the default rules
+     */
+    static boolean mayContainMarkdown(CharSequence message) {
+        int length = message.length();
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            if (c < 128 && SPECIAL[c]) {
+                return true;
+            }
+            if (c == ':' && i + 2 < length && message.charAt(i + 1) == '/' && message.charAt(i + 2) == '/') {
+                // a link
+                return true;
+            }
+        }
+        return false;
+    }
+}
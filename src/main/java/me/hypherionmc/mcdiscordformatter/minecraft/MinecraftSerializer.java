@@ -20,16 +20,26 @@ package me.hypherionmc.mcdiscordformatter.minecraft;
 
 import dev.vankka.simpleast.core.node.Node;
 import dev.vankka.simpleast.core.node.TextNode;
+import me.hypherionmc.mcdiscordformatter.emoji.EmojiTranslator;
+import me.hypherionmc.mcdiscordformatter.jfr.EscapeEvent;
+import me.hypherionmc.mcdiscordformatter.jfr.ParseEvent;
+import me.hypherionmc.mcdiscordformatter.jfr.RenderEvent;
+import me.hypherionmc.mcdiscordformatter.mention.MentionResolver;
+import me.hypherionmc.mcdiscordformatter.mention.ResolvedMentions;
+import me.hypherionmc.mcdiscordformatter.renderer.AppendingNodeRenderer;
 import me.hypherionmc.mcdiscordformatter.renderer.NodeRenderer;
 import me.hypherionmc.mcdiscordformatter.renderer.implementation.DefaultDiscordEscapingRenderer;
-import me.hypherionmc.mcdiscordformatter.renderer.implementation.DefaultMinecraftRenderer;
+import me.hypherionmc.mcdiscordformatter.text.Utf8CharSequence;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -119,12 +129,124 @@ public class MinecraftSerializer {
      * @see MinecraftSerializerOptions#MinecraftSerializerOptions(dev.vankka.simpleast.core.parser.Parser, List, List, boolean)
      */
     public MutableComponent serialize(@NotNull final String discordMessage, @NotNull final MinecraftSerializerOptions<MutableComponent> serializerOptions) {
-        List<MutableComponent> components = new ArrayList<>();
+        return serialize((CharSequence) discordMessage, serializerOptions);
+    }
 
-        List<Node<Object>> nodes = serializerOptions.getParser().parse(discordMessage, null, serializerOptions.getRules(), serializerOptions.isDebuggingEnabled());
-        nodes = flattenTextNodes(nodes); // reduce the amount of single character nodes caused by special characters
+    /**
+     * Serializes a UTF-8 encoded Discord message (markdown) to a Minecraft {@link MutableComponent} using this serializer's
+     * {@link MinecraftSerializer#getDefaultOptions() default options}, without decoding the message to a {@link String} first.
+     * The bytes between the buffer's position and limit are parsed, the position of the buffer is not modified.
+     *
+     * @param utf8DiscordMessage a UTF-8 encoded Discord markdown message, for example the content of a gateway payload
+     * @return the Discord message formatted to a Minecraft TextComponent
+     * @see Utf8CharSequence
+     */
+    public MutableComponent serialize(@NotNull final ByteBuffer utf8DiscordMessage) {
+        return serialize(utf8DiscordMessage, getDefaultOptions());
+    }
+
+    /**
+     * Serializes a UTF-8 encoded Discord message (markdown) to a Minecraft {@link MutableComponent},
+     * without decoding the message to a {@link String} first.
+     * The bytes between the buffer's position and limit are parsed, the position of the buffer is not modified.
+     *
+     * @param utf8DiscordMessage a UTF-8 encoded Discord markdown message, for example the content of a gateway payload
+     * @param serializerOptions  The options to use for this serialization
+     * @return the Discord message formatted to a Minecraft TextComponent
+     * @see Utf8CharSequence
+     */
+    public MutableComponent serialize(@NotNull final ByteBuffer utf8DiscordMessage, @NotNull final MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        return serialize(Utf8CharSequence.of(utf8DiscordMessage), serializerOptions);
+    }
+
+    /**
+     * Serializes a slice of a UTF-8 encoded Discord message (markdown) to a Minecraft {@link MutableComponent} using this serializer's
+     * {@link MinecraftSerializer#getDefaultOptions() default options}, without decoding the message to a {@link String} first.
+     *
+     * @param utf8DiscordMessage the bytes containing a UTF-8 encoded Discord markdown message
+     * @param offset             the offset of the message in the array
+     * @param length             the length of the message in bytes
+     * @return the Discord message formatted to a Minecraft TextComponent
+     * @see Utf8CharSequence
+     */
+    public MutableComponent serialize(@NotNull final byte[] utf8DiscordMessage, int offset, int length) {
+        return serialize(utf8DiscordMessage, offset, length, getDefaultOptions());
+    }
+
+    /**
+     * Serializes a slice of a UTF-8 encoded Discord message (markdown) to a Minecraft {@link MutableComponent},
+     * without decoding the message to a {@link String} first.
+     *
+     * @param utf8DiscordMessage the bytes containing a UTF-8 encoded Discord markdown message
+     * @param offset             the offset of the message in the array
+     * @param length             the length of the message in bytes
+     * @param serializerOptions  The options to use for this serialization
+     * @return the Discord message formatted to a Minecraft TextComponent
+     * @see Utf8CharSequence
+     */
+    public MutableComponent serialize(@NotNull final byte[] utf8DiscordMessage, int offset, int length,
+                                      @NotNull final MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        return serialize(Utf8CharSequence.of(utf8DiscordMessage, offset, length), serializerOptions);
+    }
+
+    private MutableComponent serialize(final CharSequence discordMessage, MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        return render(discordMessage, serializerOptions, resolveMentions(discordMessage, serializerOptions));
+    }
+
+    /**
+     * Resolves all mentions of the message at once with the options' {@link MentionResolver}, before rendering.
+     *
+     * @return the context to render the message with
+     */
+    static RenderContext resolveMentions(final CharSequence discordMessage, final MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        MentionResolver mentionResolver = serializerOptions.getMentionResolver();
+        if (mentionResolver != null) {
+            ResolvedMentions mentions = ResolvedMentions.collect(discordMessage);
+            if (!mentions.isEmpty()) {
+                mentionResolver.resolve(mentions);
+                return RenderContext.of(mentions);
+            }
+        }
+        return RenderContext.empty();
+    }
+
+    /**
+     * Parses and renders the message, mentions should already be resolved into the context.
+     */
+    MutableComponent render(final CharSequence discordMessage, final MinecraftSerializerOptions<MutableComponent> serializerOptions,
+                            final RenderContext renderContext) {
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        boolean plainText = isPlainText(discordMessage, serializerOptions);
+        MutableComponent output = plainText
+                ? renderPlainText(discordMessage, serializerOptions)
+                : renderNodes(parse(discordMessage, serializerOptions), serializerOptions, renderContext);
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(RenderEvent.COMPONENT, discordMessage.length(), output.getString().length(), plainText, false);
+        }
+        return output;
+    }
+
+    private static MutableComponent renderPlainText(final CharSequence discordMessage, final MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        // same output as a single text node rendered by the default renderer
+        if (discordMessage.length() == 0) {
+            return Component.empty();
+        }
+        String content = discordMessage.toString();
+        EmojiTranslator emojiTranslator = serializerOptions.getEmojiTranslator();
+        if (emojiTranslator != null) {
+            content = emojiTranslator.toShortcodes(content);
+        }
+        return Component.empty().append(Component.literal(content));
+    }
+
+    private static MutableComponent renderNodes(final List<Node<Object>> nodes, final MinecraftSerializerOptions<MutableComponent> serializerOptions,
+                                                final RenderContext renderContext) {
+        List<MutableComponent> components = new ArrayList<>();
+        ComponentRenderEngine renderEngine = new ComponentRenderEngine(serializerOptions, renderContext);
         for (Node<Object> node : nodes) {
-            components.add(addChild(node, Component.empty(), serializerOptions));
+            components.add(renderEngine.render(node, Style.EMPTY));
         }
 
         MutableComponent text = Component.empty();
@@ -132,6 +254,148 @@ public class MinecraftSerializer {
         return text;
     }
 
+    /**
+     * Serializes Discord formatting (markdown) to a Minecraft {@link MutableComponent} using this serializer's
+     * {@link MinecraftSerializer#getDefaultOptions() default options}, keeping the result for incremental re-serialization.
+     *
+     * @param discordMessage a Discord markdown message
+     * @return the serialization result, which can be passed to {@link #reserialize(IncrementalSerialization, String)} once the message is edited
+     * @see IncrementalSerialization
+     */
+    public IncrementalSerialization serializeIncremental(@NotNull final String discordMessage) {
+        return serializeIncremental(discordMessage, getDefaultOptions());
+    }
+
+    /**
+     * Serializes Discord formatting (markdown) to a Minecraft {@link MutableComponent}, keeping the result for incremental re-serialization.
+     *
+     * @param discordMessage    a Discord markdown message
+     * @param serializerOptions The options to use for this serialization and any re-serializations of it
+     * @return the serialization result, which can be passed to {@link #reserialize(IncrementalSerialization, String)} once the message is edited
+     * @see IncrementalSerialization
+     */
+    public IncrementalSerialization serializeIncremental(@NotNull final String discordMessage,
+                                                         @NotNull final MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        int[] blockEnds = IncrementalSerialization.findBlockEnds(discordMessage);
+        MutableComponent[] blocks = new MutableComponent[blockEnds.length];
+        int start = 0;
+        for (int i = 0; i < blockEnds.length; i++) {
+            blocks[i] = serialize(discordMessage.substring(start, blockEnds[i]), serializerOptions);
+            start = blockEnds[i];
+        }
+        return new IncrementalSerialization(discordMessage, blockEnds, blocks, serializerOptions, 0);
+    }
+
+    /**
+     * Serializes an edited Discord message, only parsing and rendering the top-level blocks that changed since the previous serialization.
+     * The options of the previous serialization are used.
+     *
+     * @param previous       the previous serialization result for the message
+     * @param discordMessage the new content of the Discord message
+     * @return the new serialization result
+     * @see IncrementalSerialization
+     */
+    public IncrementalSerialization reserialize(@NotNull final IncrementalSerialization previous, @NotNull final String discordMessage) {
+        if (previous.getSource().equals(discordMessage)) {
+            return previous;
+        }
+        MinecraftSerializerOptions<MutableComponent> serializerOptions = previous.getSerializerOptions();
+
+        int[] blockEnds = IncrementalSerialization.findBlockEnds(discordMessage);
+        int newCount = blockEnds.length;
+        int oldCount = previous.getBlockCount();
+
+        // unchanged blocks from the start of the message
+        int prefix = 0;
+        while (prefix < newCount && prefix < oldCount
+                && previous.blockMatches(prefix, discordMessage, prefix == 0 ? 0 : blockEnds[prefix - 1], blockEnds[prefix])) {
+            prefix++;
+        }
+
+        // unchanged blocks from the end of the message
+        int suffix = 0;
+        while (suffix < newCount - prefix && suffix < oldCount - prefix) {
+            int index = newCount - 1 - suffix;
+            if (!previous.blockMatches(oldCount - 1 - suffix, discordMessage, index == 0 ? 0 : blockEnds[index - 1], blockEnds[index])) {
+                break;
+            }
+            suffix++;
+        }
+
+        MutableComponent[] blocks = new MutableComponent[newCount];
+        for (int i = 0; i < newCount; i++) {
+            if (i < prefix) {
+                blocks[i] = previous.block(i);
+            } else if (i >= newCount - suffix) {
+                blocks[i] = previous.block(oldCount - (newCount - i));
+            } else {
+                blocks[i] = serialize(discordMessage.substring(i == 0 ? 0 : blockEnds[i - 1], blockEnds[i]), serializerOptions);
+            }
+        }
+        return new IncrementalSerialization(discordMessage, blockEnds, blocks, serializerOptions, prefix + suffix);
+    }
+
+    /**
+     * Serializes Discord formatting (markdown) to a Minecraft {@link MutableComponent} that is sent to many recipients,
+     * using this serializer's {@link MinecraftSerializer#getDefaultOptions() default options}.
+     *
+     * @param discordMessage a Discord markdown message
+     * @return the shared serialization, which renders per-recipient {@link RecipientOverlay overlays}
+     * @see BroadcastMessage
+     */
+    public BroadcastMessage serializeBroadcast(@NotNull final String discordMessage) {
+        return serializeBroadcast(discordMessage, getDefaultOptions());
+    }
+
+    /**
+     * Serializes Discord formatting (markdown) to a Minecraft {@link MutableComponent} that is sent to many recipients.
+     * The message is parsed and rendered once, mentions are resolved once for all recipients.
+     *
+     * @param discordMessage    a Discord markdown message
+     * @param serializerOptions The options to use for this serialization and its overlays
+     * @return the shared serialization, which renders per-recipient {@link RecipientOverlay overlays}
+     * @see BroadcastMessage
+     */
+    public BroadcastMessage serializeBroadcast(@NotNull final String discordMessage,
+                                               @NotNull final MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        return new BroadcastMessage(this, discordMessage, serializerOptions, resolveMentions(discordMessage, serializerOptions));
+    }
+
+    /**
+     * Parses a Discord message once and renders it into several targets at the same time, in one traversal of the parse tree.
+     * For example a Minecraft component for players together with the escaped markdown for a relay.
+     *
+     * @param discordMessage a Discord markdown message
+     * @param parseOptions   the options whose parser and rules are used to parse the message, the renderers of the targets
+     *                       have to understand all nodes these rules produce
+     * @param targets        the targets to render
+     * @return the output of each target
+     * @see RenderTarget#component(MinecraftSerializerOptions)
+     * @see RenderTarget#string(MinecraftSerializerOptions)
+     */
+    public RenderResults serializeAll(@NotNull final String discordMessage, @NotNull final MinecraftSerializerOptions<?> parseOptions,
+                                      @NotNull final RenderTarget<?>... targets) {
+        TraversalRenderer<?>[] renderers = new TraversalRenderer<?>[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            renderers[i] = targets[i].createRenderer(this, discordMessage);
+        }
+        FanOutTraversal traversal = new FanOutTraversal(renderers);
+
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        traversal.traverse(parse(discordMessage, parseOptions));
+
+        Object[] results = new Object[targets.length];
+        for (int i = 0; i < renderers.length; i++) {
+            results[i] = renderers[i].finish();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(RenderEvent.FAN_OUT, discordMessage.length(), -1, false, false);
+        }
+        return new RenderResults(targets.clone(), results);
+    }
+
     /**
      * Escapes the given Discord message of Discord markdown. Should include the entire message (not just a part) to be effective.
      *
@@ -154,10 +418,26 @@ public class MinecraftSerializer {
      * @see MinecraftSerializer#escapeMarkdown(String)
      */
     public String escapeMarkdown(@NotNull final String discordMessage, @NotNull final MinecraftSerializerOptions<String> serializerOptions) {
-        String output = "";
+        EscapeEvent event = new EscapeEvent();
+        event.begin();
+        boolean plainText = isPlainText(discordMessage, serializerOptions);
+        String output = plainText ? discordMessage : escapeNodes(parse(discordMessage, serializerOptions), discordMessage.length(), serializerOptions);
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(discordMessage.length(), output.length(), plainText);
+        }
+        return output;
+    }
 
-        List<Node<Object>> nodes = serializerOptions.getParser().parse(discordMessage, null, serializerOptions.getRules(), serializerOptions.isDebuggingEnabled());
-        nodes = flattenTextNodes(nodes); // reduce the amount of single character nodes caused by special characters
+    private String escapeNodes(List<Node<Object>> nodes, int length, MinecraftSerializerOptions<String> serializerOptions) {
+        if (isAppendingOnly(serializerOptions)) {
+            // all renderers write into one shared buffer
+            StringBuilder output = new StringBuilder(length + 16);
+            appendNodes(nodes, output, serializerOptions);
+            return output.toString();
+        }
+
+        String output = "";
         for (Node<Object> node : nodes) {
             output = addChild(node, output, serializerOptions);
         }
@@ -165,41 +445,73 @@ public class MinecraftSerializer {
         return output;
     }
 
-    private MutableComponent addChild(final Node<Object> node, final MutableComponent styleNode,
-                               final MinecraftSerializerOptions<MutableComponent> serializerOptions) {
-        MutableComponent component = Component.empty().setStyle(styleNode.getStyle());
-        Function<Node<Object>, MutableComponent> renderWithChildren = otherNode -> addChild(otherNode, component, serializerOptions);
-
-        MutableComponent output = null;
-        NodeRenderer<MutableComponent> render = null;
-        for (NodeRenderer<MutableComponent> renderer : serializerOptions.getRenderers()) {
-            output = renderer.render(component, node, serializerOptions, renderWithChildren);
-            if (output != null) {
-                render = renderer;
-                break;
-            }
+    /**
+     * Renders the given Discord message by appending it to the given buffer, without creating any intermediate {@link String}s.
+     * All renderers of the options have to be {@link AppendingNodeRenderer}s, the buffer can be reused between messages.
+     *
+     * @param discordMessage    the Discord message
+     * @param serializerOptions options for this render
+     * @param output            the buffer to append the rendered message to
+     * @throws IllegalArgumentException if a renderer of the options isn't an {@link AppendingNodeRenderer}
+     * @see MinecraftSerializer#escapeMarkdown(String, MinecraftSerializerOptions)
+     */
+    public void appendRendered(@NotNull final String discordMessage, @NotNull final MinecraftSerializerOptions<String> serializerOptions,
+                               @NotNull final StringBuilder output) {
+        if (!isAppendingOnly(serializerOptions)) {
+            throw new IllegalArgumentException("All renderers have to be AppendingNodeRenderers to render into a buffer");
         }
-        if (output == null) {
-            render = DefaultMinecraftRenderer.INSTANCE;
-            output = render.render(component, node, serializerOptions, renderWithChildren);
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        int start = output.length();
+        boolean plainText = isPlainText(discordMessage, serializerOptions);
+        if (plainText) {
+            output.append(discordMessage);
+        } else {
+            appendNodes(parse(discordMessage, serializerOptions), output, serializerOptions);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(RenderEvent.TEXT, discordMessage.length(), output.length() - start, plainText, false);
         }
+    }
 
-        Collection<Node<Object>> children = node.getChildren();
-        if (children != null) {
-            for (Node<Object> child : children) {
-                output = output.append(addChild(child, output, serializerOptions));
-            }
+    /**
+     * Parses the message with the parser and rules of the options.
+     */
+    private List<Node<Object>> parse(final CharSequence discordMessage, final MinecraftSerializerOptions<?> serializerOptions) {
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        List<Node<Object>> nodes = serializerOptions.getParser().parse(discordMessage, null, serializerOptions.getRules(), serializerOptions.isDebuggingEnabled());
+        nodes = flattenTextNodes(nodes); // reduce the amount of single character nodes caused by special characters
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit(discordMessage.length(), nodes.size());
         }
+        return nodes;
+    }
 
-        MutableComponent newOutput = render.renderAfterChildren(output, node, serializerOptions, renderWithChildren);
-        if (newOutput != null) {
-            output = newOutput;
+    private void appendNodes(List<Node<Object>> nodes, StringBuilder output, MinecraftSerializerOptions<String> serializerOptions) {
+        for (Node<Object> node : nodes) {
+            appendChild(node, output, serializerOptions);
         }
+    }
 
-        return output;
+    private static boolean isPlainText(CharSequence discordMessage, MinecraftSerializerOptions<?> serializerOptions) {
+        return serializerOptions.isPlainTextFastPath()
+                && serializerOptions.getRenderers().isEmpty()
+                && !MarkdownScanner.mayContainMarkdown(discordMessage);
     }
 
-    private String addChild(final Node<Object> node, final String input,
+    private static boolean isAppendingOnly(MinecraftSerializerOptions<String> serializerOptions) {
+        for (NodeRenderer<String> renderer : serializerOptions.getRenderers()) {
+            if (!(renderer instanceof AppendingNodeRenderer)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String addChild(final Node<Object> node, final String input,
                           final MinecraftSerializerOptions<String> serializerOptions) {
         Function<Node<Object>, String> renderWithChildren = otherNode -> addChild(otherNode, input, serializerOptions);
 
@@ -232,6 +544,32 @@ public class MinecraftSerializer {
         return output;
     }
 
+    void appendChild(final Node<Object> node, final StringBuilder output,
+                             final MinecraftSerializerOptions<String> serializerOptions) {
+        Consumer<Node<Object>> renderWithChildren = otherNode -> appendChild(otherNode, output, serializerOptions);
+
+        AppendingNodeRenderer render = null;
+        for (NodeRenderer<String> renderer : serializerOptions.getRenderers()) {
+            if (((AppendingNodeRenderer) renderer).render(output, node, serializerOptions, renderWithChildren)) {
+                render = (AppendingNodeRenderer) renderer;
+                break;
+            }
+        }
+        if (render == null) {
+            render = DefaultDiscordEscapingRenderer.INSTANCE;
+            render.render(output, node, serializerOptions, renderWithChildren);
+        }
+
+        Collection<Node<Object>> children = node.getChildren();
+        if (children != null) {
+            for (Node<Object> child : children) {
+                appendChild(child, output, serializerOptions);
+            }
+        }
+
+        render.renderAfterChildren(output, node, serializerOptions, renderWithChildren);
+    }
+
     @SuppressWarnings("unchecked")
     private <R, T extends Node<R>> List<T> flattenTextNodes(List<T> nodes) {
         List<T> newNodes = new ArrayList<>();
@@ -22,11 +22,15 @@ import dev.vankka.simpleast.core.node.Node;
 import dev.vankka.simpleast.core.parser.Parser;
 import dev.vankka.simpleast.core.parser.Rule;
 import dev.vankka.simpleast.core.simple.SimpleMarkdownRules;
+import me.hypherionmc.mcdiscordformatter.emoji.EmojiTranslator;
+import me.hypherionmc.mcdiscordformatter.highlight.CodeHighlighter;
+import me.hypherionmc.mcdiscordformatter.mention.MentionResolver;
 import me.hypherionmc.mcdiscordformatter.renderer.NodeRenderer;
 import me.hypherionmc.mcdiscordformatter.renderer.implementation.DefaultMinecraftRenderer;
 import me.hypherionmc.mcdiscordformatter.rules.DiscordMarkdownRules;
 import net.minecraft.network.chat.MutableComponent;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -40,10 +44,21 @@ import java.util.List;
 public class MinecraftSerializerOptions<O> {
 
     public MinecraftSerializerOptions(@NotNull Parser<Object, Node<Object>, Object> parser, List<Rule<Object, Node<Object>, Object>> rules, @NotNull List<NodeRenderer<O>> renderers, boolean debuggingEnabled) {
+        this(parser, rules, renderers, debuggingEnabled, null, null, false, null);
+    }
+
+    private MinecraftSerializerOptions(@NotNull Parser<Object, Node<Object>, Object> parser, List<Rule<Object, Node<Object>, Object>> rules, @NotNull List<NodeRenderer<O>> renderers, boolean debuggingEnabled,
+                                       @Nullable MentionResolver mentionResolver,
+                                       @Nullable EmojiTranslator emojiTranslator, boolean plainTextFastPath,
+                                       @Nullable CodeHighlighter codeHighlighter) {
         this.parser = parser;
         this.rules = rules;
         this.renderers = renderers;
         this.debuggingEnabled = debuggingEnabled;
+        this.mentionResolver = mentionResolver;
+        this.emojiTranslator = emojiTranslator;
+        this.plainTextFastPath = plainTextFastPath;
+        this.codeHighlighter = codeHighlighter;
     }
 
     /**
@@ -55,7 +70,7 @@ public class MinecraftSerializerOptions<O> {
         return new MinecraftSerializerOptions<>(new Parser<>(),
                 DiscordMarkdownRules.createAllRulesForDiscord(true),
                 Collections.emptyList(),
-                false);
+                false, null, null, true, null);
     }
 
     /**
@@ -72,7 +87,7 @@ public class MinecraftSerializerOptions<O> {
         return new MinecraftSerializerOptions<>(new Parser<>(),
                 rules,
                 Collections.emptyList(),
-                false);
+                false, null, null, true, null);
     }
 
     /**
@@ -94,7 +109,7 @@ public class MinecraftSerializerOptions<O> {
         }
         List<NodeRenderer<O>> renderers = new ArrayList<>(this.renderers);
         renderers.add(renderer);
-        return new MinecraftSerializerOptions<>(parser, rules, renderers, debuggingEnabled);
+        return new MinecraftSerializerOptions<>(parser, rules, renderers, debuggingEnabled, mentionResolver, emojiTranslator, plainTextFastPath, codeHighlighter);
     }
 
     /**
@@ -117,7 +132,7 @@ public class MinecraftSerializerOptions<O> {
         }
         List<NodeRenderer<O>> renderers = new ArrayList<>(this.renderers);
         renderers.add(index, renderer);
-        return new MinecraftSerializerOptions<>(parser, rules, renderers, debuggingEnabled);
+        return new MinecraftSerializerOptions<>(parser, rules, renderers, debuggingEnabled, mentionResolver, emojiTranslator, plainTextFastPath, codeHighlighter);
     }
 
     /**
@@ -134,7 +149,7 @@ public class MinecraftSerializerOptions<O> {
         }
         List<NodeRenderer<O>> renderers = new ArrayList<>(this.renderers);
         renderers.remove(renderer);
-        return new MinecraftSerializerOptions<>(parser, rules, renderers, debuggingEnabled);
+        return new MinecraftSerializerOptions<>(parser, rules, renderers, debuggingEnabled, mentionResolver, emojiTranslator, plainTextFastPath, codeHighlighter);
     }
 
     /**
@@ -169,8 +184,34 @@ public class MinecraftSerializerOptions<O> {
      */
     private final boolean debuggingEnabled;
 
+    /**
+     * The {@link MentionResolver} to resolve the names of mentions with before rendering,
+     * {@code null} to render mentions with their ids.
+     */
+    @Nullable
+    private final MentionResolver mentionResolver;
+
+    /**
+     * The {@link EmojiTranslator} to replace unicode emoji in text with their shortcodes,
+     * {@code null} to leave emoji untouched.
+     */
+    @Nullable
+    private final EmojiTranslator emojiTranslator;
+
+    /**
+     * Whether or not messages without any markdown characters skip parsing and are rendered as a single literal.
+     * Only enabled for the default rules, as custom rules could match any character.
+     */
+    private final boolean plainTextFastPath;
+
+    /**
+     * The {@link CodeHighlighter} to highlight code blocks with, {@code null} to not highlight code blocks.
+     */
+    @Nullable
+    private final CodeHighlighter codeHighlighter;
+
     public String toString() {
-        return "MinecraftSerializerOptions(parser=" + this.parser + ", rules=" + this.rules + ", renderers=" + this.getRenderers() + ", debuggingEnabled=" + this.debuggingEnabled + ")";
+        return "MinecraftSerializerOptions(parser=" + this.parser + ", rules=" + this.rules + ", renderers=" + this.getRenderers() + ", debuggingEnabled=" + this.debuggingEnabled + ", mentionResolver=" + this.mentionResolver + ", emojiTranslator=" + this.emojiTranslator + ", plainTextFastPath=" + this.plainTextFastPath + ", codeHighlighter=" + this.codeHighlighter + ")";
     }
 
     public @NotNull Parser<Object, Node<Object>, Object> getParser() {
@@ -185,15 +226,61 @@ public class MinecraftSerializerOptions<O> {
         return this.debuggingEnabled;
     }
 
+    public @Nullable MentionResolver getMentionResolver() {
+        return this.mentionResolver;
+    }
+
+    public @Nullable EmojiTranslator getEmojiTranslator() {
+        return this.emojiTranslator;
+    }
+
+    public boolean isPlainTextFastPath() {
+        return this.plainTextFastPath;
+    }
+
+    public @Nullable CodeHighlighter getCodeHighlighter() {
+        return this.codeHighlighter;
+    }
+
     public MinecraftSerializerOptions<O> withParser(@NotNull Parser<Object, Node<Object>, Object> parser) {
-        return this.parser == parser ? this : new MinecraftSerializerOptions<O>(parser, this.rules, this.renderers, this.debuggingEnabled);
+        return this.parser == parser ? this : new MinecraftSerializerOptions<O>(parser, this.rules, this.renderers, this.debuggingEnabled, this.mentionResolver, this.emojiTranslator, this.plainTextFastPath, this.codeHighlighter);
     }
 
     public MinecraftSerializerOptions<O> withRules(List<Rule<Object, Node<Object>, Object>> rules) {
-        return this.rules == rules ? this : new MinecraftSerializerOptions<O>(this.parser, rules, this.renderers, this.debuggingEnabled);
+        return this.rules == rules ? this : new MinecraftSerializerOptions<O>(this.parser, rules, this.renderers, this.debuggingEnabled, this.mentionResolver, this.emojiTranslator, false, this.codeHighlighter);
     }
 
     public MinecraftSerializerOptions<O> withDebuggingEnabled(boolean debuggingEnabled) {
-        return this.debuggingEnabled == debuggingEnabled ? this : new MinecraftSerializerOptions<O>(this.parser, this.rules, this.renderers, debuggingEnabled);
+        return this.debuggingEnabled == debuggingEnabled ? this : new MinecraftSerializerOptions<O>(this.parser, this.rules, this.renderers, debuggingEnabled, this.mentionResolver, this.emojiTranslator, this.plainTextFastPath, this.codeHighlighter);
+    }
+
+    public MinecraftSerializerOptions<O> withMentionResolver(@Nullable MentionResolver mentionResolver) {
+        return this.mentionResolver == mentionResolver ? this : new MinecraftSerializerOptions<O>(this.parser, this.rules, this.renderers, this.debuggingEnabled, mentionResolver, this.emojiTranslator, this.plainTextFastPath, this.codeHighlighter);
+    }
+
+    public MinecraftSerializerOptions<O> withEmojiTranslator(@Nullable EmojiTranslator emojiTranslator) {
+        return this.emojiTranslator == emojiTranslator ? this : new MinecraftSerializerOptions<O>(this.parser, this.rules, this.renderers, this.debuggingEnabled, this.mentionResolver, emojiTranslator, plainTextFastPath, this.codeHighlighter);
+    }
+
+    /**
+     * Sets whether or not messages without any markdown characters ({@code \\ * _ ~ | ` < > [}, {@code ://} and line breaks) skip parsing.
+     * Setting custom {@link #withRules(List) rules} disables this, only enable it again if none of the rules can match plain text.
+     *
+     * @param plainTextFastPath if plain messages should skip parsing
+     * @return the new instance of options
+     */
+    public MinecraftSerializerOptions<O> withPlainTextFastPath(boolean plainTextFastPath) {
+        return this.plainTextFastPath == plainTextFastPath ? this : new MinecraftSerializerOptions<O>(this.parser, this.rules, this.renderers, this.debuggingEnabled, this.mentionResolver, this.emojiTranslator, plainTextFastPath, codeHighlighter);
+    }
+
+    /**
+     * Sets the {@link CodeHighlighter} to highlight code blocks in supported languages with.
+     *
+     * @param codeHighlighter the highlighter, {@code null} to render code blocks in a single style
+     * @return the new instance of options
+     * @see CodeHighlighter#defaults()
+     */
+    public MinecraftSerializerOptions<O> withCodeHighlighter(@Nullable CodeHighlighter codeHighlighter) {
+        return this.codeHighlighter == codeHighlighter ? this : new MinecraftSerializerOptions<O>(this.parser, this.rules, this.renderers, this.debuggingEnabled, this.mentionResolver, this.emojiTranslator, this.plainTextFastPath, codeHighlighter);
     }
 }
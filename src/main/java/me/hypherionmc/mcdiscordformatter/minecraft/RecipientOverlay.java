@@ -0,0 +1,231 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import dev.vankka.simpleast.core.TextStyle;
+import dev.vankka.simpleast.core.node.Node;
+import dev.vankka.simpleast.core.node.StyleNode;
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import me.hypherionmc.mcdiscordformatter.renderer.MinecraftNodeRenderer;
+import me.hypherionmc.mcdiscordformatter.renderer.NodeRenderer;
+import me.hypherionmc.mcdiscordformatter.renderer.implementation.DefaultMinecraftRenderer;
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Per-recipient changes to a {@link BroadcastMessage}, only the blocks of the message they affect are rendered again.
+ *
+ * @see BroadcastMessage#render(RecipientOverlay)
+ */
+public final class RecipientOverlay {
+
+    /**
+     * The user id of overlays without a highlighted user.
+     */
+    public static final long NO_USER = -1;
+
+    private static final RecipientOverlay NONE = new RecipientOverlay(NO_USER, ChatFormatting.YELLOW, SpoilerMode.DEFAULT);
+
+    private final long highlightedUserId;
+    private final ChatFormatting highlightFormatting;
+    private final SpoilerMode spoilerMode;
+    private final NodeRenderer<MutableComponent> renderer;
+
+    private RecipientOverlay(long highlightedUserId, ChatFormatting highlightFormatting, SpoilerMode spoilerMode) {
+        this.highlightedUserId = highlightedUserId;
+        this.highlightFormatting = highlightFormatting;
+        this.spoilerMode = spoilerMode;
+        this.renderer = new OverlayRenderer();
+    }
+
+    /**
+     * Returns the overlay that doesn't change anything, recipients with it get the shared message.
+     *
+     * @return the empty overlay
+     */
+    public static RecipientOverlay none() {
+        return NONE;
+    }
+
+    public long getHighlightedUserId() {
+        return this.highlightedUserId;
+    }
+
+    public @NotNull ChatFormatting getHighlightFormatting() {
+        return this.highlightFormatting;
+    }
+
+    public @NotNull SpoilerMode getSpoilerMode() {
+        return this.spoilerMode;
+    }
+
+    /**
+     * Highlights mentions of the given Discord user, usually the recipient's own linked account.
+     *
+     * @param userId the snowflake id of the user or {@link #NO_USER}
+     * @return the new overlay
+     */
+    public RecipientOverlay withHighlightedUser(long userId) {
+        return this.highlightedUserId == userId ? this : new RecipientOverlay(userId, this.highlightFormatting, this.spoilerMode);
+    }
+
+    public RecipientOverlay withHighlightFormatting(@NotNull ChatFormatting highlightFormatting) {
+        return this.highlightFormatting == highlightFormatting ? this : new RecipientOverlay(this.highlightedUserId, highlightFormatting, this.spoilerMode);
+    }
+
+    public RecipientOverlay withSpoilerMode(@NotNull SpoilerMode spoilerMode) {
+        return this.spoilerMode == spoilerMode ? this : new RecipientOverlay(this.highlightedUserId, this.highlightFormatting, spoilerMode);
+    }
+
+    /**
+     * Checks if this overlay doesn't change any block.
+     */
+    boolean isEmpty() {
+        return highlightedUserId == NO_USER && spoilerMode == SpoilerMode.DEFAULT;
+    }
+
+    /**
+     * Checks if this overlay changes a block with the given user mentions and spoilers.
+     */
+    boolean affects(long[] userIds, boolean hasSpoilers) {
+        if (hasSpoilers && spoilerMode != SpoilerMode.DEFAULT) {
+            return true;
+        }
+        if (highlightedUserId != NO_USER) {
+            for (long userId : userIds) {
+                if (userId == highlightedUserId) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the renderer which is put in front of the message's renderers when rendering affected blocks.
+     */
+    NodeRenderer<MutableComponent> getRenderer() {
+        return renderer;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof RecipientOverlay)) return false;
+        RecipientOverlay other = (RecipientOverlay) o;
+        return highlightedUserId == other.highlightedUserId
+                && highlightFormatting == other.highlightFormatting
+                && spoilerMode == other.spoilerMode;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(highlightedUserId);
+        result = 31 * result + highlightFormatting.hashCode();
+        result = 31 * result + spoilerMode.hashCode();
+        return result;
+    }
+
+    public String toString() {
+        return "RecipientOverlay(highlightedUserId=" + Long.toUnsignedString(this.highlightedUserId) + ", highlightFormatting=" + this.highlightFormatting
+                + ", spoilerMode=" + this.spoilerMode + ")";
+    }
+
+    /**
+     * How spoilers are shown to a recipient.
+     */
+    public enum SpoilerMode {
+
+        /**
+         * As rendered by the message's renderers.
+         */
+        DEFAULT,
+
+        /**
+         * Hidden without a way to reveal them, for recipients that opted out of spoilers.
+         */
+        HIDE,
+
+        /**
+         * Shown inline as regular text.
+         */
+        REVEAL
+    }
+
+    private class OverlayRenderer implements MinecraftNodeRenderer {
+
+        @Override
+        public MutableComponent render(MutableComponent baseComponent, Node<Object> node, MinecraftSerializerOptions<MutableComponent> serializerOptions,
+                                       Function<Node<Object>, MutableComponent> renderWithChildren) {
+            return render(baseComponent, node, serializerOptions, RenderContext.empty(), renderWithChildren);
+        }
+
+        @Override
+        public MutableComponent render(MutableComponent baseComponent, Node<Object> node, MinecraftSerializerOptions<MutableComponent> serializerOptions,
+                                       RenderContext renderContext, Function<Node<Object>, MutableComponent> renderWithChildren) {
+            if (node instanceof MentionNode) {
+                MentionNode<Object> mentionNode = (MentionNode<Object>) node;
+                if (mentionNode.getKind() != MentionNode.Kind.USER || mentionNode.getId() != highlightedUserId) {
+                    return null;
+                }
+
+                // render the mention as usual, then highlight it
+                MutableComponent output = null;
+                for (NodeRenderer<MutableComponent> renderer : serializerOptions.getRenderers()) {
+                    if (renderer == this) {
+                        continue;
+                    }
+                    output = renderer instanceof MinecraftNodeRenderer
+                            ? ((MinecraftNodeRenderer) renderer).render(baseComponent, node, serializerOptions, renderContext, renderWithChildren)
+                            : renderer.render(baseComponent, node, serializerOptions, renderWithChildren);
+                    if (output != null) {
+                        break;
+                    }
+                }
+                if (output == null) {
+                    output = DefaultMinecraftRenderer.INSTANCE.render(baseComponent, node, serializerOptions, renderContext, renderWithChildren);
+                }
+                return output.withStyle(highlightFormatting);
+            }
+
+            if (spoilerMode == SpoilerMode.DEFAULT || !(node instanceof StyleNode)) {
+                return null;
+            }
+            List<?> styles = ((StyleNode<?, ?>) node).getStyles();
+            if (styles.size() != 1 || ((TextStyle) styles.get(0)).getType() != TextStyle.Type.SPOILER) {
+                return null;
+            }
+
+            MutableComponent content = Component.empty();
+            for (Node<Object> objectNode : serializerOptions.getParser().parse(renderContext.unquote(((TextStyle) styles.get(0)).getExtra().get("content")),
+                    null, serializerOptions.getRules(), serializerOptions.isDebuggingEnabled())) {
+                content = content.append(renderWithChildren.apply(objectNode));
+            }
+            if (spoilerMode == SpoilerMode.REVEAL) {
+                return baseComponent.append(content);
+            }
+            return baseComponent.append(Component.literal("▌".repeat(content.getString().length())).withStyle(ChatFormatting.DARK_GRAY));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import me.hypherionmc.mcdiscordformatter.mention.ResolvedMentions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * State of the message that is currently being rendered, given to {@link me.hypherionmc.mcdiscordformatter.renderer.MinecraftNodeRenderer}s
+ * next to the {@link MinecraftSerializerOptions}, which are shared between messages.
+ */
+public final class RenderContext {
+
+    private static final RenderContext EMPTY = new RenderContext(null, false);
+
+    @Nullable
+    private final ResolvedMentions resolvedMentions;
+    private final boolean inQuote;
+
+    private RenderContext(@Nullable ResolvedMentions resolvedMentions, boolean inQuote) {
+        this.resolvedMentions = resolvedMentions;
+        this.inQuote = inQuote;
+    }
+
+    /**
+     * Returns the context of messages without per-message state.
+     *
+     * @return the empty context
+     */
+    public static @NotNull RenderContext empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a context with the mentions of the message, as resolved by a {@link me.hypherionmc.mcdiscordformatter.mention.MentionResolver}.
+     *
+     * @param resolvedMentions the resolved mentions or {@code null}
+     * @return the context
+     */
+    public static @NotNull RenderContext of(@Nullable ResolvedMentions resolvedMentions) {
+        return resolvedMentions == null ? EMPTY : new RenderContext(resolvedMentions, false);
+    }
+
+    /**
+     * Returns this context for the nodes of a quote.
+     *
+     * @return the context with {@link #isInQuote()} set
+     */
+    RenderContext inQuote() {
+        return this.inQuote ? this : new RenderContext(this.resolvedMentions, true);
+    }
+
+    /**
+     * Returns the mentions of the message, as resolved by the options' {@link MinecraftSerializerOptions#getMentionResolver() mention resolver}.
+     *
+     * @return the resolved mentions or {@code null} if there is no mention resolver or the message contains no mentions
+     */
+    public @Nullable ResolvedMentions getResolvedMentions() {
+        return this.resolvedMentions;
+    }
+
+    /**
+     * Returns if the node being rendered is part of a quote. The lines of the quote's text are prefixed while rendering,
+     * text a renderer takes from the node itself (like code or the content of a spoiler) still contains the
+     * {@code "> "} starting each line, see {@link #unquote(String)}.
+     *
+     * @return true if the node is in a quote
+     */
+    public boolean isInQuote() {
+        return this.inQuote;
+    }
+
+    /**
+     * Removes the {@code "> "} starting the lines of the given text, if the node being rendered is part of a quote.
+     *
+     * @param text text from the node being rendered
+     * @return the text without the quote's line markers
+     */
+    public @NotNull String unquote(@NotNull String text) {
+        if (!inQuote || (!text.startsWith("> ") && !text.contains("\n> "))) {
+            return text;
+        }
+
+        StringBuilder unquoted = new StringBuilder(text.length());
+        int start = text.startsWith("> ") ? 2 : 0;
+        int newline;
+        while ((newline = text.indexOf('\n', start)) != -1) {
+            unquoted.append(text, start, newline + 1);
+            start = text.startsWith("> ", newline + 1) ? newline + 3 : newline + 1;
+        }
+        return unquoted.append(text, start, text.length()).toString();
+    }
+
+    public String toString() {
+        return "RenderContext(resolvedMentions=" + this.resolvedMentions + ", inQuote=" + this.inQuote + ")";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The outputs of {@link MinecraftSerializer#serializeAll(String, MinecraftSerializerOptions, RenderTarget[])}, one per {@link RenderTarget}.
+ */
+public final class RenderResults {
+
+    private final RenderTarget<?>[] targets;
+    private final Object[] results;
+
+    RenderResults(RenderTarget<?>[] targets, Object[] results) {
+        this.targets = targets;
+        this.results = results;
+    }
+
+    /**
+     * Returns the output of the given target.
+     *
+     * @param target the target, as passed to the serializer
+     * @param <O>    the output type
+     * @return the output
+     * @throws IllegalArgumentException if the target wasn't rendered
+     */
+    @SuppressWarnings("unchecked")
+    public <O> @NotNull O get(@NotNull RenderTarget<O> target) {
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] == target) {
+                return (O) results[i];
+            }
+        }
+        throw new IllegalArgumentException("The target " + target + " wasn't rendered");
+    }
+
+    /**
+     * Returns the output of the target at the given index.
+     *
+     * @param index the index of the target, in the order they were passed to the serializer
+     * @return the output
+     */
+    public @NotNull Object get(int index) {
+        return results[index];
+    }
+
+    public int size() {
+        return results.length;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import me.hypherionmc.mcdiscordformatter.renderer.AppendingNodeRenderer;
+import me.hypherionmc.mcdiscordformatter.renderer.NodeRenderer;
+import net.minecraft.network.chat.MutableComponent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * One of the outputs of {@link MinecraftSerializer#serializeAll(String, MinecraftSerializerOptions, RenderTarget[])},
+ * rendered with the renderers of its own options from the shared parse of the message.
+ *
+ * @param <O> the output type
+ * @see RenderResults#get(RenderTarget)
+ */
+public final class RenderTarget<O> {
+
+    private final MinecraftSerializerOptions<O> serializerOptions;
+    private final boolean component;
+
+    private RenderTarget(MinecraftSerializerOptions<O> serializerOptions, boolean component) {
+        this.serializerOptions = serializerOptions;
+        this.component = component;
+    }
+
+    /**
+     * Creates a target rendering a Minecraft component, like {@link MinecraftSerializer#serialize(String, MinecraftSerializerOptions)}.
+     * Mentions are resolved with the options' mention resolver.
+     *
+     * @param serializerOptions the options whose renderers, mention resolver and emoji translator are used
+     * @return the target
+     */
+    public static RenderTarget<MutableComponent> component(@NotNull MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        return new RenderTarget<>(serializerOptions, true);
+    }
+
+    /**
+     * Creates a target rendering text, like {@link MinecraftSerializer#escapeMarkdown(String, MinecraftSerializerOptions)}.
+     *
+     * @param serializerOptions the options whose renderers are used
+     * @return the target
+     */
+    public static RenderTarget<String> string(@NotNull MinecraftSerializerOptions<String> serializerOptions) {
+        return new RenderTarget<>(serializerOptions, false);
+    }
+
+    public @NotNull MinecraftSerializerOptions<O> getSerializerOptions() {
+        return this.serializerOptions;
+    }
+
+    @SuppressWarnings("unchecked")
+    TraversalRenderer<O> createRenderer(MinecraftSerializer serializer, CharSequence discordMessage) {
+        if (component) {
+            MinecraftSerializerOptions<MutableComponent> options = (MinecraftSerializerOptions<MutableComponent>) serializerOptions;
+            return (TraversalRenderer<O>) new ComponentRenderEngine(options, MinecraftSerializer.resolveMentions(discordMessage, options));
+        }
+
+        MinecraftSerializerOptions<String> options = (MinecraftSerializerOptions<String>) serializerOptions;
+        boolean appending = true;
+        for (NodeRenderer<String> renderer : options.getRenderers()) {
+            if (!(renderer instanceof AppendingNodeRenderer)) {
+                appending = false;
+                break;
+            }
+        }
+        return (TraversalRenderer<O>) new StringRenderEngine(serializer, options, appending);
+    }
+
+    public String toString() {
+        return "RenderTarget(" + (component ? "component" : "string") + ", serializerOptions=" + this.serializerOptions + ")";
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import dev.vankka.simpleast.core.node.Node;
+import me.hypherionmc.mcdiscordformatter.renderer.AppendingNodeRenderer;
+import me.hypherionmc.mcdiscordformatter.renderer.NodeRenderer;
+import me.hypherionmc.mcdiscordformatter.renderer.implementation.DefaultDiscordEscapingRenderer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Renders {@link Node} trees into {@link String}s for an outside traversal, with the same output as
+ * {@link MinecraftSerializer#escapeMarkdown(String, MinecraftSerializerOptions)}.
+ * If all renderers are {@link AppendingNodeRenderer}s they append into one buffer, otherwise the output is passed from node to node.
+ */
+final class StringRenderEngine implements TraversalRenderer<String> {
+
+    private final MinecraftSerializer serializer;
+    private final MinecraftSerializerOptions<String> serializerOptions;
+    private final boolean appending;
+
+    // appending renders
+    private final StringBuilder buffer;
+    private final Consumer<Node<Object>> appendWithChildren;
+
+    // the renderer of the node at each depth
+    private final List<NodeRenderer<String>> renderers = new ArrayList<>();
+    // the input and output of the node at each depth, only for renders that aren't appending
+    private String[] inputs;
+    private String[] outputs;
+    private int depth;
+    private String output = "";
+
+    StringRenderEngine(MinecraftSerializer serializer, MinecraftSerializerOptions<String> serializerOptions, boolean appending) {
+        this.serializer = serializer;
+        this.serializerOptions = serializerOptions;
+        this.appending = appending;
+        if (appending) {
+            this.buffer = new StringBuilder();
+            this.appendWithChildren = otherNode -> serializer.appendChild(otherNode, buffer, serializerOptions);
+        } else {
+            this.buffer = null;
+            this.appendWithChildren = null;
+            this.inputs = new String[8];
+            this.outputs = new String[8];
+        }
+    }
+
+    @Override
+    public boolean enter(Node<Object> node) {
+        if (!appending && depth == inputs.length) {
+            inputs = Arrays.copyOf(inputs, depth * 2);
+            outputs = Arrays.copyOf(outputs, depth * 2);
+        }
+
+        if (appending) {
+            AppendingNodeRenderer render = null;
+            for (NodeRenderer<String> renderer : serializerOptions.getRenderers()) {
+                if (((AppendingNodeRenderer) renderer).render(buffer, node, serializerOptions, appendWithChildren)) {
+                    render = (AppendingNodeRenderer) renderer;
+                    break;
+                }
+            }
+            if (render == null) {
+                render = DefaultDiscordEscapingRenderer.INSTANCE;
+                render.render(buffer, node, serializerOptions, appendWithChildren);
+            }
+            renderers.add(render);
+            depth++;
+            return true;
+        }
+
+        String input = depth == 0 ? output : outputs[depth - 1];
+        String rendered = null;
+        NodeRenderer<String> render = null;
+        for (NodeRenderer<String> renderer : serializerOptions.getRenderers()) {
+            rendered = renderer.render(rendered, node, serializerOptions, otherNode -> serializer.addChild(otherNode, input, serializerOptions));
+            if (rendered != null) {
+                render = renderer;
+                break;
+            }
+        }
+        if (rendered == null) {
+            render = DefaultDiscordEscapingRenderer.INSTANCE;
+            rendered = render.render(input, node, serializerOptions, otherNode -> serializer.addChild(otherNode, input, serializerOptions));
+        }
+        renderers.add(render);
+        inputs[depth] = input;
+        outputs[depth] = rendered;
+        depth++;
+        return true;
+    }
+
+    @Override
+    public void exit(Node<Object> node) {
+        depth--;
+        NodeRenderer<String> render = renderers.remove(depth);
+        if (appending) {
+            ((AppendingNodeRenderer) render).renderAfterChildren(buffer, node, serializerOptions, appendWithChildren);
+            return;
+        }
+
+        String input = inputs[depth];
+        String rendered = outputs[depth];
+        String newOutput = render.renderAfterChildren(rendered, node, serializerOptions, otherNode -> serializer.addChild(otherNode, input, serializerOptions));
+        if (newOutput != null) {
+            rendered = newOutput;
+        }
+        inputs[depth] = null;
+        outputs[depth] = null;
+        if (depth == 0) {
+            output = rendered;
+        } else {
+            outputs[depth - 1] = rendered;
+        }
+    }
+
+    @Override
+    public String finish() {
+        return appending ? buffer.toString() : output;
+    }
+}
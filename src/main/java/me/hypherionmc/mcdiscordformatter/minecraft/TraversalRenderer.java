@@ -0,0 +1,52 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import dev.vankka.simpleast.core.node.Node;
+
+/**
+ * A render target driven by an outside traversal of the parse tree, so one traversal can feed several targets.
+ *
+ * @param <O> the output type
+ * @see FanOutTraversal
+ */
+interface TraversalRenderer<O> {
+
+    /**
+     * Renders a node before its children.
+     *
+     * @param node the node
+     * @return true if the children of the node should be entered, false if the renderer already rendered them
+     */
+    boolean enter(Node<Object> node);
+
+    /**
+     * Renders a node after its children, called for every entered node.
+     *
+     * @param node the node
+     */
+    void exit(Node<Object> node);
+
+    /**
+     * Returns the output once all top-level nodes have been exited.
+     *
+     * @return the output
+     */
+    O finish();
+}
@@ -0,0 +1,70 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.node;
+
+import dev.vankka.simpleast.core.node.Node;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link Node} for Discord's custom emotes.
+ * <a href="https://discord.com/developers/docs/reference#message-formatting">Discord developer docs</a>
+ *
+ * @param <R> the render context type
+ */
+public class EmoteNode<R> extends Node<R> {
+
+    private final String name;
+    private final long id;
+    private final boolean animated;
+
+    /**
+     * Creates a {@link EmoteNode}.
+     *
+     * @param name     the name of the emote
+     * @param id       the snowflake id of the emote
+     * @param animated if the emote is animated
+     */
+    public EmoteNode(@NotNull String name, long id, boolean animated) {
+        this.name = name;
+        this.id = id;
+        this.animated = animated;
+    }
+
+    public @NotNull String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the snowflake id of the emote.
+     *
+     * @return the id, use {@link Long#toUnsignedString(long)} for its decimal representation
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    public boolean isAnimated() {
+        return this.animated;
+    }
+
+    @Override
+    public String toString() {
+        return "EmoteNode(name=" + this.name + ", id=" + Long.toUnsignedString(this.id) + ", animated=" + this.animated + ")";
+    }
+}
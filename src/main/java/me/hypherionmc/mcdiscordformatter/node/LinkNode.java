@@ -0,0 +1,58 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.node;
+
+import dev.vankka.simpleast.core.node.Node;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link Node} for links in Discord messages, either a plain URL or a masked link ({@code [text](url)}).
+ * The children of the node are the text of the link.
+ *
+ * @param <R> the render context type
+ */
+public class LinkNode<R> extends Node<R> {
+
+    private final String url;
+    private final boolean masked;
+
+    /**
+     * Creates a {@link LinkNode}.
+     *
+     * @param url    the URL the link points to
+     * @param masked if the link was written as {@code [text](url)}
+     */
+    public LinkNode(@NotNull String url, boolean masked) {
+        this.url = url;
+        this.masked = masked;
+    }
+
+    public @NotNull String getUrl() {
+        return this.url;
+    }
+
+    public boolean isMasked() {
+        return this.masked;
+    }
+
+    @Override
+    public String toString() {
+        return "LinkNode(url=" + this.url + ", masked=" + this.masked + ")";
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.node;
+
+import dev.vankka.simpleast.core.node.Node;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link Node} for Discord's user, role and channel mentions.
+ * <a href="https://discord.com/developers/docs/reference#message-formatting">Discord developer docs</a>
+ *
+ * @param <R> the render context type
+ */
+public class MentionNode<R> extends Node<R> {
+
+    /**
+     * The kinds of mentions.
+     */
+    public enum Kind {
+        USER,
+        ROLE,
+        CHANNEL
+    }
+
+    private final Kind kind;
+    private final long id;
+
+    /**
+     * Creates a {@link MentionNode}.
+     *
+     * @param kind the kind of mention
+     * @param id   the snowflake id of the mentioned user, role or channel
+     */
+    public MentionNode(@NotNull Kind kind, long id) {
+        this.kind = kind;
+        this.id = id;
+    }
+
+    public @NotNull Kind getKind() {
+        return this.kind;
+    }
+
+    /**
+     * Returns the snowflake id of the mentioned user, role or channel.
+     *
+     * @return the id, use {@link Long#toUnsignedString(long)} for its decimal representation
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    @Override
+    public String toString() {
+        return "MentionNode(kind=" + this.kind + ", id=" + Long.toUnsignedString(this.id) + ")";
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.node;
+
+import dev.vankka.simpleast.core.node.Node;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link Node} for Discord's timestamps ({@code <t:1700000000:R>}), which Discord shows in the reader's time zone.
+ *
+ * @param <R> the render context type
+ */
+public class TimestampNode<R> extends Node<R> {
+
+    /**
+     * The styles of timestamps, by the character used for them in Discord messages.
+     */
+    public enum Style {
+        SHORT_TIME('t'),
+        LONG_TIME('T'),
+        SHORT_DATE('d'),
+        LONG_DATE('D'),
+        SHORT_DATE_TIME('f'),
+        LONG_DATE_TIME('F'),
+        RELATIVE('R');
+
+        /**
+         * The style of timestamps that don't specify one.
+         */
+        public static final Style DEFAULT = SHORT_DATE_TIME;
+
+        private final char character;
+
+        Style(char character) {
+            this.character = character;
+        }
+
+        public char getCharacter() {
+            return this.character;
+        }
+
+        /**
+         * Returns the style for the given character.
+         *
+         * @param character the character of the style in Discord messages
+         * @return the style or {@code null} if there is no style for the character
+         */
+        public static @Nullable Style of(char character) {
+            for (Style style : values()) {
+                if (style.character == character) {
+                    return style;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final long epochSecond;
+    private final Style style;
+
+    /**
+     * Creates a {@link TimestampNode}.
+     *
+     * @param epochSecond the time, in seconds since the epoch
+     * @param style       the style to show the time in
+     */
+    public TimestampNode(long epochSecond, @NotNull Style style) {
+        this.epochSecond = epochSecond;
+        this.style = style;
+    }
+
+    public long getEpochSecond() {
+        return this.epochSecond;
+    }
+
+    public @NotNull Style getStyle() {
+        return this.style;
+    }
+
+    @Override
+    public String toString() {
+        return "TimestampNode(epochSecond=" + this.epochSecond + ", style=" + this.style + ")";
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.renderer;
+
+import dev.vankka.simpleast.core.node.Node;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Interface for rendering {@link Node}s into text by appending to a single {@link StringBuilder} shared by the whole render,
+ * instead of returning a new {@link String} for every node.
+ *
+ * <p>When all renderers of the {@link MinecraftSerializerOptions} are {@link AppendingNodeRenderer}s,
+ * {@link me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer#escapeMarkdown(String, MinecraftSerializerOptions)}
+ * renders into one buffer in linear time.</p>
+ */
+public interface AppendingNodeRenderer extends NodeRenderer<String> {
+
+    /**
+     * Renders the given {@link Node} by appending it to the output.
+     *
+     * @param output             the output of the render so far
+     * @param node               the node
+     * @param serializerOptions  the serializer options for this render
+     * @param renderWithChildren a function to allow rendering a node recursively into the output
+     * @return true if this renderer rendered the node, false to let the next renderer render it
+     */
+    boolean render(StringBuilder output, Node<Object> node, MinecraftSerializerOptions<String> serializerOptions,
+                   Consumer<Node<Object>> renderWithChildren);
+
+    /**
+     * Renders a given {@link Node} after children for it have been processed,
+     * only called on the renderer that rendered the node.
+     *
+     * @param output             the output of the render so far
+     * @param node               the node
+     * @param serializerOptions  the serializer options for this render
+     * @param renderWithChildren a function to allow rendering a node recursively into the output
+     * @see #render(StringBuilder, Node, MinecraftSerializerOptions, Consumer)
+     */
+    default void renderAfterChildren(StringBuilder output, Node<Object> node, MinecraftSerializerOptions<String> serializerOptions,
+                                     Consumer<Node<Object>> renderWithChildren) {
+    }
+
+    @Override
+    default String render(String renderTo, Node<Object> node, MinecraftSerializerOptions<String> serializerOptions,
+                          Function<Node<Object>, String> renderWithChildren) {
+        StringBuilder output = new StringBuilder(renderTo != null ? renderTo : "");
+        return render(output, node, serializerOptions, otherNode -> appendRendered(output, renderTo, renderWithChildren.apply(otherNode)))
+                ? output.toString() : null;
+    }
+
+    @Override
+    default String renderAfterChildren(String renderTo, Node<Object> node, MinecraftSerializerOptions<String> serializerOptions,
+                                       Function<Node<Object>, String> renderWithChildren) {
+        StringBuilder output = new StringBuilder(renderTo != null ? renderTo : "");
+        renderAfterChildren(output, node, serializerOptions, otherNode -> appendRendered(output, renderTo, renderWithChildren.apply(otherNode)));
+        return output.toString();
+    }
+
+    /**
+     * Appends the result of a {@link String} based render function, which includes the input it was given.
+     */
+    private static void appendRendered(StringBuilder output, String renderTo, String rendered) {
+        if (renderTo != null && rendered.startsWith(renderTo)) {
+            output.append(rendered, renderTo.length(), rendered.length());
+        } else {
+            output.append(rendered);
+        }
+    }
+}
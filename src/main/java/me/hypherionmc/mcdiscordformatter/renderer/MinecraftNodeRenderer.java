@@ -20,6 +20,7 @@ package me.hypherionmc.mcdiscordformatter.renderer;
 
 import dev.vankka.simpleast.core.node.Node;
 import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.minecraft.RenderContext;
 import net.minecraft.network.chat.MutableComponent;
 
 import java.util.function.Function;
@@ -42,4 +43,33 @@ public interface MinecraftNodeRenderer extends NodeRenderer<MutableComponent> {
      */
     MutableComponent render(MutableComponent baseComponent, Node<Object> node, MinecraftSerializerOptions<MutableComponent> serializerOptions,
                        Function<Node<Object>, MutableComponent> renderWithChildren);
+
+    /**
+     * Renders the given {@link Node} onto the provided {@link MutableComponent} using the given
+     * {@link MinecraftSerializerOptions} and the state of the message being rendered.
+     * Defaults to {@link #render(MutableComponent, Node, MinecraftSerializerOptions, Function)}.
+     *
+     * @param baseComponent      the input component to apply the node to
+     * @param node               the node
+     * @param serializerOptions  the serializer options for this render
+     * @param renderContext      the state of the message being rendered, like its resolved mentions
+     * @param renderWithChildren a function to allow rendering a node recursively
+     * @return the new component with the node applied to it
+     */
+    default MutableComponent render(MutableComponent baseComponent, Node<Object> node, MinecraftSerializerOptions<MutableComponent> serializerOptions,
+                                    RenderContext renderContext, Function<Node<Object>, MutableComponent> renderWithChildren) {
+        return render(baseComponent, node, serializerOptions, renderWithChildren);
+    }
+
+    /**
+     * Whether the component rendered by this renderer for the given {@link Node} already contains what its children render to,
+     * the children aren't rendered again if it does. Only asked for nodes this renderer rendered. Defaults to {@code false}.
+     *
+     * @param node              the node
+     * @param serializerOptions the serializer options for this render
+     * @return {@code true} if the children of the node shouldn't be rendered
+     */
+    default boolean rendersChildren(Node<Object> node, MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        return false;
+    }
 }
@@ -22,14 +22,23 @@ import dev.vankka.simpleast.core.TextStyle;
 import dev.vankka.simpleast.core.node.Node;
 import dev.vankka.simpleast.core.node.StyleNode;
 import dev.vankka.simpleast.core.node.TextNode;
+import me.hypherionmc.mcdiscordformatter.emoji.EmojiTranslator;
+import me.hypherionmc.mcdiscordformatter.highlight.CodeHighlighter;
+import me.hypherionmc.mcdiscordformatter.mention.ResolvedMentions;
 import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
-import me.hypherionmc.mcdiscordformatter.rules.DiscordMarkdownRules;
+import me.hypherionmc.mcdiscordformatter.minecraft.RenderContext;
+import me.hypherionmc.mcdiscordformatter.node.EmoteNode;
+import me.hypherionmc.mcdiscordformatter.node.LinkNode;
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import me.hypherionmc.mcdiscordformatter.node.TimestampNode;
+import me.hypherionmc.mcdiscordformatter.timestamp.DiscordTimestampFormatter;
+import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.HoverEvent;
 import net.minecraft.network.chat.MutableComponent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
@@ -42,11 +51,52 @@ public interface MinecraftRenderer extends MinecraftNodeRenderer {
     @Override
     default MutableComponent render(MutableComponent MutableComponent, Node<Object> node, MinecraftSerializerOptions<MutableComponent> serializerOptions,
                                     Function<Node<Object>, MutableComponent> renderWithChildren) {
+        return render(MutableComponent, node, serializerOptions, RenderContext.empty(), renderWithChildren);
+    }
+
+    @Override
+    default MutableComponent render(MutableComponent MutableComponent, Node<Object> node, MinecraftSerializerOptions<MutableComponent> serializerOptions,
+                                    RenderContext renderContext, Function<Node<Object>, MutableComponent> renderWithChildren) {
         if (node instanceof TextNode) {
-            MutableComponent = Component.literal(((TextNode<Object>) node).getContent());
+            String content = ((TextNode<Object>) node).getContent();
+            EmojiTranslator emojiTranslator = serializerOptions.getEmojiTranslator();
+            if (emojiTranslator != null) {
+                content = emojiTranslator.toShortcodes(content);
+            }
+            MutableComponent = Component.literal(content);
+        } else if (node instanceof MentionNode) {
+            MentionNode<Object> mentionNode = (MentionNode<Object>) node;
+            ResolvedMentions resolvedMentions = renderContext.getResolvedMentions();
+            String name = resolvedMentions != null ? resolvedMentions.findName(mentionNode.getKind(), mentionNode.getId()) : null;
+            if (name != null) {
+                return appendResolvedMention(MutableComponent, mentionNode.getKind(), mentionNode.getId(), name);
+            }
+
+            switch (mentionNode.getKind()) {
+                case USER:
+                    MutableComponent = appendUserMention(MutableComponent, mentionNode.getId());
+                    break;
+                case ROLE:
+                    MutableComponent = appendRoleMention(MutableComponent, mentionNode.getId());
+                    break;
+                case CHANNEL:
+                    MutableComponent = appendChannelMention(MutableComponent, mentionNode.getId());
+                    break;
+                default:
+                    break;
+            }
+        } else if (node instanceof EmoteNode) {
+            EmoteNode<Object> emoteNode = (EmoteNode<Object>) node;
+            MutableComponent = appendEmoteMention(MutableComponent, emoteNode.getName(), emoteNode.getId());
+        } else if (node instanceof TimestampNode) {
+            TimestampNode<Object> timestampNode = (TimestampNode<Object>) node;
+            MutableComponent = appendTimestamp(MutableComponent, timestampNode.getEpochSecond(), timestampNode.getStyle());
+        } else if (node instanceof LinkNode) {
+            MutableComponent = link(MutableComponent, ((LinkNode<Object>) node).getUrl());
         } else if (node instanceof StyleNode) {
-            List<TextStyle> styles = new ArrayList<>(((StyleNode<?, TextStyle>) node).getStyles());
-            for (TextStyle style : styles) {
+            List<TextStyle> styles = ((StyleNode<?, TextStyle>) node).getStyles();
+            for (int i = 0; i < styles.size(); i++) {
+                TextStyle style = styles.get(i);
                 switch (style.getType()) {
                     case STRIKETHROUGH:
                         MutableComponent = strikethrough(MutableComponent);
@@ -62,31 +112,32 @@ public interface MinecraftRenderer extends MinecraftNodeRenderer {
                         break;
                     case CODE_STRING:
                         MutableComponent = codeString(MutableComponent);
-                        ((StyleNode<?, TextStyle>) node).getStyles().remove(style);
+                        if (MutableComponent != null) {
+                            // rendered here so the emoji in the code aren't translated
+                            MutableComponent = MutableComponent.append(renderCode(node.getChildren(), renderWithChildren));
+                        }
                         break;
                     case CODE_BLOCK:
                         MutableComponent = codeBlock(MutableComponent);
-                        ((StyleNode<?, TextStyle>) node).getStyles().remove(style);
+                        if (MutableComponent != null) {
+                            // the code is rendered here instead of from the children, highlighted if the language is supported
+                            // and without translating its emoji
+                            MutableComponent = MutableComponent.append(renderCodeBlock(serializerOptions.getCodeHighlighter(), style.getExtra().get("language"),
+                                    node.getChildren(), renderContext, renderWithChildren));
+                        }
                         break;
                     case QUOTE:
-                        MutableComponent content = Component.empty();
-                        for (Node<Object> objectNode : serializerOptions.getParser().parse(style.getExtra().get("content"),
-                                new DiscordMarkdownRules.QuoteState(true),
-                                serializerOptions.getRules(),
-                                serializerOptions.isDebuggingEnabled())) {
-                            content = content.append(renderWithChildren.apply(objectNode));
-                        }
-
-                        MutableComponent = appendQuote(MutableComponent, content);
+                        // the lines of the quote are its children, the lines after the first are prefixed while they're rendered
+                        MutableComponent = appendQuote(MutableComponent, Component.empty());
                         break;
                     case SPOILER:
-                        content = Component.empty();
-                        for (Node<Object> objectNode : serializerOptions.getParser().parse(style.getExtra().get("content"),
+                        MutableComponent spoilerContent = Component.empty();
+                        for (Node<Object> objectNode : serializerOptions.getParser().parse(renderContext.unquote(style.getExtra().get("content")),
                                 null, serializerOptions.getRules(), serializerOptions.isDebuggingEnabled())) {
-                            content = content.append(renderWithChildren.apply(objectNode));
+                            spoilerContent = spoilerContent.append(renderWithChildren.apply(objectNode));
                         }
 
-                        MutableComponent = appendSpoiler(MutableComponent, content);
+                        MutableComponent = appendSpoiler(MutableComponent, spoilerContent);
                         break;
                     case MENTION_EMOJI:
                         MutableComponent = appendEmoteMention(MutableComponent, style.getExtra().get("name"), style.getExtra().get("id"));
@@ -109,6 +160,80 @@ public interface MinecraftRenderer extends MinecraftNodeRenderer {
         return MutableComponent;
     }
 
+    /**
+     * Renders the code of a code block, highlighted if the language is supported and the code block only contains text.
+     * The lines of a code block in a quote are prefixed like the other lines of the quote.
+     */
+    private MutableComponent renderCodeBlock(@Nullable CodeHighlighter codeHighlighter, @Nullable String language, List<Node<Object>> children,
+                                             RenderContext renderContext, Function<Node<Object>, MutableComponent> renderWithChildren) {
+        if (children.size() != 1 || !(children.get(0) instanceof TextNode)) {
+            return renderCode(children, renderWithChildren);
+        }
+
+        String code = ((TextNode<Object>) children.get(0)).getContent();
+        Component linePrefix = null;
+        if (renderContext.isInQuote()) {
+            code = trimLineBreaks(renderContext.unquote(code));
+            linePrefix = appendQuoteLinePrefix(Component.empty());
+        }
+        MutableComponent highlighted = codeHighlighter != null ? codeHighlighter.highlight(language, code, linePrefix) : null;
+        if (highlighted != null) {
+            return highlighted;
+        }
+        if (linePrefix == null) {
+            return Component.literal(code);
+        }
+
+        MutableComponent lines = Component.empty();
+        int start = 0;
+        int newline;
+        while ((newline = code.indexOf('\n', start)) != -1) {
+            lines.append(Component.literal(code.substring(start, newline + 1))).append(linePrefix);
+            start = newline + 1;
+        }
+        return lines.append(Component.literal(code.substring(start)));
+    }
+
+    /**
+     * Removes the line breaks around code, which the code block rule doesn't include in the code unless the code block is in a quote.
+     */
+    private static String trimLineBreaks(String code) {
+        int start = 0;
+        int end = code.length();
+        while (start < end && code.charAt(start) == '\n') {
+            start++;
+        }
+        while (end > start && code.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return code.substring(start, end);
+    }
+
+    /**
+     * Renders the children of a code node, their text is kept as written without translating emoji.
+     */
+    private static MutableComponent renderCode(List<Node<Object>> children, Function<Node<Object>, MutableComponent> renderWithChildren) {
+        MutableComponent code = Component.empty();
+        for (Node<Object> child : children) {
+            code.append(child instanceof TextNode ? Component.literal(((TextNode<Object>) child).getContent()) : renderWithChildren.apply(child));
+        }
+        return code;
+    }
+
+    @Override
+    default boolean rendersChildren(Node<Object> node, MinecraftSerializerOptions<MutableComponent> serializerOptions) {
+        if (!(node instanceof StyleNode)) {
+            return false;
+        }
+        for (Object style : ((StyleNode<?, ?>) node).getStyles()) {
+            TextStyle.Type type = ((TextStyle) style).getType();
+            if (type == TextStyle.Type.CODE_STRING || type == TextStyle.Type.CODE_BLOCK) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Renders the provided {@link MutableComponent} as strikethrough.
      *
@@ -163,6 +288,19 @@ public interface MinecraftRenderer extends MinecraftNodeRenderer {
     @Nullable
     MutableComponent codeBlock(@NotNull MutableComponent part);
 
+    /**
+     * Renders the provided {@link MutableComponent} as a link, the text of the link is appended to it afterwards.
+     * Defaults to adding a {@link ClickEvent.Action#OPEN_URL} click event.
+     *
+     * @param part the {@link MutableComponent} to render as a link
+     * @param url  the URL of the link
+     * @return the linked {@link MutableComponent} or {@code null} if this renderer does not process that kinds of styles
+     */
+    @Nullable
+    default MutableComponent link(@NotNull MutableComponent part, @NotNull String url) {
+        return part.withStyle(style -> style.withClickEvent(new ClickEvent(ClickEvent.Action.OPEN_URL, url)));
+    }
+
     /**
      * Renders the spoiler and appends it to the provided {@link MutableComponent}.
      *
@@ -183,6 +321,36 @@ public interface MinecraftRenderer extends MinecraftNodeRenderer {
     @Nullable
     MutableComponent appendQuote(@NotNull MutableComponent MutableComponent, @NotNull MutableComponent content);
 
+    /**
+     * Renders the prefix of the second and following lines of a quote and appends it to the provided {@link MutableComponent}.
+     * The prefix is appended within the formatting of the text it follows, it should set all of its formatting itself.
+     * Defaults to {@link #appendQuote(MutableComponent, MutableComponent)} with empty content.
+     *
+     * @param MutableComponent the {@link MutableComponent} to render to
+     * @return the {@link MutableComponent} with the prefix rendered or {@code null} if this renderer does not process that kinds of styles
+     */
+    @Nullable
+    default MutableComponent appendQuoteLinePrefix(@NotNull MutableComponent MutableComponent) {
+        return appendQuote(MutableComponent, Component.empty());
+    }
+
+    /**
+     * Renders a timestamp and appends it to the provided {@link MutableComponent}. Defaults to the timestamp
+     * formatted by {@link DiscordTimestampFormatter#system()}, with the full date and time when hovered.
+     *
+     * @param MutableComponent the {@link MutableComponent} to render to
+     * @param epochSecond the time, in seconds since the epoch
+     * @param style       the style of the timestamp
+     * @return the {@link MutableComponent} with the timestamp rendered or {@code null} if this renderer does not process that kinds of styles
+     */
+    @Nullable
+    default MutableComponent appendTimestamp(@NotNull MutableComponent MutableComponent, long epochSecond, @NotNull TimestampNode.Style style) {
+        DiscordTimestampFormatter formatter = DiscordTimestampFormatter.system();
+        Component fullTime = Component.literal(formatter.format(epochSecond, TimestampNode.Style.LONG_DATE_TIME));
+        return MutableComponent.append(Component.literal(formatter.format(epochSecond, style))
+                .withStyle(part -> part.withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, fullTime))));
+    }
+
     /**
      * Renders a emote mention and appends it to the provided {@link MutableComponent}.
      *
@@ -194,6 +362,20 @@ public interface MinecraftRenderer extends MinecraftNodeRenderer {
     @Nullable
     MutableComponent appendEmoteMention(@NotNull MutableComponent MutableComponent, @NotNull String name, @NotNull String id);
 
+    /**
+     * Renders a emote mention and appends it to the provided {@link MutableComponent}.
+     * Defaults to {@link #appendEmoteMention(MutableComponent, String, String)}.
+     *
+     * @param MutableComponent the {@link MutableComponent} to render to
+     * @param name      the name of the emote
+     * @param id        the snowflake id of the emote
+     * @return the {@link MutableComponent} with emote rendered or {@code null} if this renderer does not process that kinds of styles
+     */
+    @Nullable
+    default MutableComponent appendEmoteMention(@NotNull MutableComponent MutableComponent, @NotNull String name, long id) {
+        return appendEmoteMention(MutableComponent, name, Long.toUnsignedString(id));
+    }
+
     /**
      * Renders a channel mention and appends it to the provided {@link MutableComponent}.
      *
@@ -204,6 +386,19 @@ public interface MinecraftRenderer extends MinecraftNodeRenderer {
     @Nullable
     MutableComponent appendChannelMention(@NotNull MutableComponent MutableComponent, @NotNull String id);
 
+    /**
+     * Renders a channel mention and appends it to the provided {@link MutableComponent}.
+     * Defaults to {@link #appendChannelMention(MutableComponent, String)}.
+     *
+     * @param MutableComponent the {@link MutableComponent} to render to
+     * @param id        the snowflake id of the channel
+     * @return the {@link MutableComponent} with the channel mention rendered or {@code null} if this renderer does not process that kinds of styles
+     */
+    @Nullable
+    default MutableComponent appendChannelMention(@NotNull MutableComponent MutableComponent, long id) {
+        return appendChannelMention(MutableComponent, Long.toUnsignedString(id));
+    }
+
     /**
      * Renders a user mention and appends it to the provided {@link MutableComponent}.
      *
@@ -214,6 +409,19 @@ public interface MinecraftRenderer extends MinecraftNodeRenderer {
     @Nullable
     MutableComponent appendUserMention(@NotNull MutableComponent MutableComponent, @NotNull String id);
 
+    /**
+     * Renders a user mention and appends it to the provided {@link MutableComponent}.
+     * Defaults to {@link #appendUserMention(MutableComponent, String)}.
+     *
+     * @param MutableComponent the {@link MutableComponent} to render to
+     * @param id        the snowflake id of the user
+     * @return the {@link MutableComponent} with the user mention rendered or {@code null} if this renderer does not process that kinds of styles
+     */
+    @Nullable
+    default MutableComponent appendUserMention(@NotNull MutableComponent MutableComponent, long id) {
+        return appendUserMention(MutableComponent, Long.toUnsignedString(id));
+    }
+
     /**
      * Renders a role mention and appends it to the provided {@link MutableComponent}.
      *
@@ -223,4 +431,32 @@ public interface MinecraftRenderer extends MinecraftNodeRenderer {
      */
     @Nullable
     MutableComponent appendRoleMention(@NotNull MutableComponent MutableComponent, @NotNull String id);
+
+    /**
+     * Renders a role mention and appends it to the provided {@link MutableComponent}.
+     * Defaults to {@link #appendRoleMention(MutableComponent, String)}.
+     *
+     * @param MutableComponent the {@link MutableComponent} to render to
+     * @param id        the snowflake id of the role
+     * @return the {@link MutableComponent} with the role mention rendered or {@code null} if this renderer does not process that kinds of styles
+     */
+    @Nullable
+    default MutableComponent appendRoleMention(@NotNull MutableComponent MutableComponent, long id) {
+        return appendRoleMention(MutableComponent, Long.toUnsignedString(id));
+    }
+
+    /**
+     * Renders a mention which was resolved by the {@link MinecraftSerializerOptions#getMentionResolver() mention resolver}
+     * and appends it to the provided {@link MutableComponent}. Defaults to {@code @name} for users and roles, and {@code #name} for channels.
+     *
+     * @param MutableComponent the {@link MutableComponent} to render to
+     * @param kind      the kind of mention
+     * @param id        the snowflake id of the user, role or channel
+     * @param name      the resolved name of the user, role or channel
+     * @return the {@link MutableComponent} with the mention rendered or {@code null} if this renderer does not process that kinds of styles
+     */
+    @Nullable
+    default MutableComponent appendResolvedMention(@NotNull MutableComponent MutableComponent, @NotNull MentionNode.Kind kind, long id, @NotNull String name) {
+        return MutableComponent.append(Component.literal((kind == MentionNode.Kind.CHANNEL ? "#" : "@") + name));
+    }
 }
@@ -0,0 +1,320 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.renderer.implementation;
+
+import dev.vankka.simpleast.core.TextStyle;
+import dev.vankka.simpleast.core.node.Node;
+import dev.vankka.simpleast.core.node.StyleNode;
+import dev.vankka.simpleast.core.node.TextNode;
+import dev.vankka.simpleast.core.parser.Parser;
+import dev.vankka.simpleast.core.parser.Rule;
+import me.hypherionmc.mcdiscordformatter.emoji.EmojiTranslator;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.node.EmoteNode;
+import me.hypherionmc.mcdiscordformatter.node.LinkNode;
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import me.hypherionmc.mcdiscordformatter.node.TimestampNode;
+import me.hypherionmc.mcdiscordformatter.renderer.AppendingNodeRenderer;
+import me.hypherionmc.mcdiscordformatter.renderer.NodeRenderer;
+import me.hypherionmc.mcdiscordformatter.rules.DiscordMarkdownRules;
+import me.hypherionmc.mcdiscordformatter.timestamp.DiscordTimestampFormatter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Renders Discord messages into text for terminals, with the formatting as ANSI escape sequences (SGR codes)
+ * instead of Minecraft components: bold, italics, underline and strikethrough as themselves, code dimmed,
+ * spoilers in reverse video and links underlined in blue, masked links followed by their URL.
+ *
+ * <p>The renderer keeps the formatting of the current render and a reusable buffer,
+ * so it is not thread safe. Use one instance per thread, for example for the server console.</p>
+ *
+ * @see #render(String)
+ */
+public class AnsiConsoleRenderer implements AppendingNodeRenderer {
+
+    private static final char ESCAPE = '\u001B';
+
+    private static final int BOLD = 1;
+    private static final int DIM = 1 << 1;
+    private static final int ITALIC = 1 << 2;
+    private static final int UNDERLINE = 1 << 3;
+    private static final int STRIKETHROUGH = 1 << 4;
+    private static final int REVERSE = 1 << 5;
+    private static final int LINK = 1 << 6;
+
+    // don't keep the memory of a single huge message around
+    private static final int MAX_RETAINED_CAPACITY = 8192;
+
+    private final MinecraftSerializer serializer;
+    private final MinecraftSerializerOptions<String> serializerOptions;
+
+    private StringBuilder buffer = new StringBuilder(256);
+    // the SGR attributes of every node being rendered, the last one is active
+    private int[] attributes = new int[16];
+    private int depth;
+    private int quoteDepth;
+    // emoji in code are kept as written
+    private int codeDepth;
+
+    /**
+     * Creates a {@link AnsiConsoleRenderer} parsing messages with all of Discord's rules.
+     */
+    public AnsiConsoleRenderer() {
+        this(MinecraftSerializer.INSTANCE, DiscordMarkdownRules.createAllRulesForDiscord(true));
+    }
+
+    /**
+     * Creates a {@link AnsiConsoleRenderer}.
+     *
+     * @param serializer the serializer to render with
+     * @param rules      the rules to parse messages with, should include a text rule
+     */
+    public AnsiConsoleRenderer(@NotNull MinecraftSerializer serializer, @NotNull List<Rule<Object, Node<Object>, Object>> rules) {
+        this.serializer = serializer;
+        this.serializerOptions = new MinecraftSerializerOptions<>(new Parser<>(), rules,
+                Collections.<NodeRenderer<String>>singletonList(this), false);
+    }
+
+    /**
+     * Returns the options this renderer renders with, which can also be used for a
+     * {@link me.hypherionmc.mcdiscordformatter.minecraft.RenderTarget#string(MinecraftSerializerOptions) RenderTarget}.
+     *
+     * @return the options containing this renderer
+     */
+    public @NotNull MinecraftSerializerOptions<String> getSerializerOptions() {
+        return this.serializerOptions;
+    }
+
+    /**
+     * Renders the given Discord message into ANSI formatted text, using this renderer's buffer.
+     *
+     * @param discordMessage the Discord message
+     * @return the message with ANSI formatting, ending with all formatting reset
+     */
+    public @NotNull String render(@NotNull String discordMessage) {
+        StringBuilder output = buffer;
+        output.setLength(0);
+        render(discordMessage, output);
+        String rendered = output.toString();
+        if (output.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(256);
+        }
+        return rendered;
+    }
+
+    /**
+     * Renders the given Discord message into ANSI formatted text and appends it to the given buffer.
+     *
+     * @param discordMessage the Discord message
+     * @param output         the buffer to append to
+     */
+    public void render(@NotNull String discordMessage, @NotNull StringBuilder output) {
+        depth = 0;
+        quoteDepth = 0;
+        codeDepth = 0;
+        serializer.appendRendered(discordMessage, serializerOptions, output);
+    }
+
+    // every rendered node pushes its attributes once, even if it has no children, so renderAfterChildren can always pop
+    @Override
+    public boolean render(StringBuilder output, Node<Object> node, MinecraftSerializerOptions<String> serializerOptions,
+                          Consumer<Node<Object>> renderWithChildren) {
+        if (node instanceof TextNode) {
+            String content = ((TextNode<Object>) node).getContent();
+            EmojiTranslator emojiTranslator = serializerOptions.getEmojiTranslator();
+            if (emojiTranslator != null && codeDepth == 0) {
+                content = emojiTranslator.toShortcodes(content);
+            }
+            appendText(output, content);
+            push(output, 0);
+        } else if (node instanceof MentionNode) {
+            MentionNode<Object> mentionNode = (MentionNode<Object>) node;
+            switch (mentionNode.getKind()) {
+                case USER: output.append("<@"); break;
+                case ROLE: output.append("<@&"); break;
+                case CHANNEL: output.append("<#"); break;
+            }
+            output.append(Long.toUnsignedString(mentionNode.getId())).append('>');
+            push(output, 0);
+        } else if (node instanceof EmoteNode) {
+            appendText(output, ":" + ((EmoteNode<Object>) node).getName() + ":");
+            push(output, 0);
+        } else if (node instanceof TimestampNode) {
+            TimestampNode<Object> timestampNode = (TimestampNode<Object>) node;
+            DiscordTimestampFormatter.system().formatTo(timestampNode.getEpochSecond(), timestampNode.getStyle(),
+                    Locale.getDefault(Locale.Category.FORMAT), output);
+            push(output, 0);
+        } else if (node instanceof LinkNode) {
+            push(output, LINK | UNDERLINE);
+        } else if (node instanceof StyleNode) {
+            int styleAttributes = 0;
+            for (Object style : ((StyleNode<?, ?>) node).getStyles()) {
+                TextStyle textStyle = (TextStyle) style;
+                switch (textStyle.getType()) {
+                    case BOLD: styleAttributes |= BOLD; break;
+                    case ITALICS: styleAttributes |= ITALIC; break;
+                    case UNDERLINE: styleAttributes |= UNDERLINE; break;
+                    case STRIKETHROUGH: styleAttributes |= STRIKETHROUGH; break;
+                    case CODE_STRING:
+                    case CODE_BLOCK:
+                        styleAttributes |= DIM;
+                        codeDepth++;
+                        break;
+                    case QUOTE:
+                        appendQuotePrefix(output);
+                        quoteDepth++;
+                        break;
+                    case SPOILER:
+                        // spoilers are terminal, their content is parsed separately
+                        push(output, REVERSE);
+                        for (Node<Object> spoilerNode : serializerOptions.getParser().parse(textStyle.getExtra().get("content"),
+                                null, serializerOptions.getRules(), serializerOptions.isDebuggingEnabled())) {
+                            renderWithChildren.accept(spoilerNode);
+                        }
+                        pop(output);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            push(output, styleAttributes);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void renderAfterChildren(StringBuilder output, Node<Object> node, MinecraftSerializerOptions<String> serializerOptions,
+                                    Consumer<Node<Object>> renderWithChildren) {
+        if (node instanceof StyleNode) {
+            for (Object style : ((StyleNode<?, ?>) node).getStyles()) {
+                TextStyle.Type styleType = ((TextStyle) style).getType();
+                if (styleType == TextStyle.Type.QUOTE) {
+                    quoteDepth--;
+                } else if (styleType == TextStyle.Type.CODE_STRING || styleType == TextStyle.Type.CODE_BLOCK) {
+                    codeDepth--;
+                }
+            }
+        }
+        pop(output);
+        if (node instanceof LinkNode && ((LinkNode<Object>) node).isMasked()) {
+            // the text of a masked link can be anything, show where it points
+            output.append(" (");
+            appendText(output, ((LinkNode<Object>) node).getUrl());
+            output.append(')');
+        }
+    }
+
+    private void appendText(StringBuilder output, String content) {
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '\n') {
+                output.append(c);
+                if (quoteDepth > 0) {
+                    // the next line of a quote, replace Discord's "> " with the prefix
+                    appendQuotePrefix(output);
+                    if (content.startsWith("> ", i + 1)) {
+                        i += 2;
+                    }
+                }
+            } else if (c == ESCAPE || (c < ' ' && c != '\t') || (c >= '\u007F' && c <= '\u009F')) {
+                // control characters (including the 8-bit C1 ones like CSI) could change the terminal's formatting or worse
+                continue;
+            } else {
+                output.append(c);
+            }
+        }
+    }
+
+    private void appendQuotePrefix(StringBuilder output) {
+        int current = depth == 0 ? 0 : attributes[depth - 1];
+        appendTransition(output, current, current | DIM);
+        output.append("| ");
+        appendTransition(output, current | DIM, current);
+    }
+
+    private void push(StringBuilder output, int added) {
+        if (depth == attributes.length) {
+            attributes = Arrays.copyOf(attributes, depth * 2);
+        }
+        int current = depth == 0 ? 0 : attributes[depth - 1];
+        attributes[depth++] = current | added;
+        appendTransition(output, current, current | added);
+    }
+
+    private void pop(StringBuilder output) {
+        if (depth == 0) {
+            return;
+        }
+        int current = attributes[--depth];
+        appendTransition(output, current, depth == 0 ? 0 : attributes[depth - 1]);
+    }
+
+    /**
+     * Appends the shortest SGR sequence changing the terminal's attributes from one set to another.
+     */
+    private static void appendTransition(StringBuilder output, int from, int to) {
+        if (from == to) {
+            return;
+        }
+        if (to == 0) {
+            output.append(ESCAPE).append("[0m");
+            return;
+        }
+
+        int removed = from & ~to;
+        int added = to & ~from;
+        if ((removed & (BOLD | DIM)) != 0) {
+            // bold and dim are both turned off by the same code
+            added |= to & (BOLD | DIM);
+        }
+
+        output.append(ESCAPE).append('[');
+        int start = output.length();
+        if ((removed & (BOLD | DIM)) != 0) appendCode(output, start, 22);
+        if ((removed & ITALIC) != 0) appendCode(output, start, 23);
+        if ((removed & UNDERLINE) != 0) appendCode(output, start, 24);
+        if ((removed & REVERSE) != 0) appendCode(output, start, 27);
+        if ((removed & STRIKETHROUGH) != 0) appendCode(output, start, 29);
+        if ((removed & LINK) != 0) appendCode(output, start, 39);
+        if ((added & BOLD) != 0) appendCode(output, start, 1);
+        if ((added & DIM) != 0) appendCode(output, start, 2);
+        if ((added & ITALIC) != 0) appendCode(output, start, 3);
+        if ((added & UNDERLINE) != 0) appendCode(output, start, 4);
+        if ((added & REVERSE) != 0) appendCode(output, start, 7);
+        if ((added & STRIKETHROUGH) != 0) appendCode(output, start, 9);
+        if ((added & LINK) != 0) appendCode(output, start, 34);
+        output.append('m');
+    }
+
+    private static void appendCode(StringBuilder output, int start, int code) {
+        if (output.length() != start) {
+            output.append(';');
+        }
+        output.append(code);
+    }
+}
@@ -23,14 +23,19 @@ import dev.vankka.simpleast.core.node.Node;
 import dev.vankka.simpleast.core.node.StyleNode;
 import dev.vankka.simpleast.core.node.TextNode;
 import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
-import me.hypherionmc.mcdiscordformatter.renderer.NodeRenderer;
+import me.hypherionmc.mcdiscordformatter.node.EmoteNode;
+import me.hypherionmc.mcdiscordformatter.node.LinkNode;
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import me.hypherionmc.mcdiscordformatter.node.TimestampNode;
+import me.hypherionmc.mcdiscordformatter.renderer.AppendingNodeRenderer;
 
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * The default implementation for escaping Discord markdown.
  */
-public class DefaultDiscordEscapingRenderer implements NodeRenderer<String> {
+public class DefaultDiscordEscapingRenderer implements AppendingNodeRenderer {
 
     /**
      * The instance of {@link DefaultDiscordEscapingRenderer}.
@@ -44,11 +49,48 @@ public class DefaultDiscordEscapingRenderer implements NodeRenderer<String> {
     public DefaultDiscordEscapingRenderer() {
     }
 
-    private String render(String renderTo, Node<Object> node, boolean after) {
+    private boolean render(StringBuilder output, Node<Object> node, boolean after) {
         if (node instanceof TextNode && !after) {
-            return renderTo + ((TextNode<Object>) node).getContent();
+            output.append(((TextNode<Object>) node).getContent());
+            return true;
+        } else if (node instanceof LinkNode) {
+            // links aren't formatting, keep them as written
+            LinkNode<Object> linkNode = (LinkNode<Object>) node;
+            if (linkNode.isMasked()) {
+                if (after) {
+                    output.append("](").append(linkNode.getUrl()).append(')');
+                } else {
+                    output.append('[');
+                }
+            }
+            return true;
+        } else if (node instanceof MentionNode) {
+            // mentions and emotes aren't formatting either, write them back in Discord's syntax
+            if (!after) {
+                MentionNode<Object> mentionNode = (MentionNode<Object>) node;
+                switch (mentionNode.getKind()) {
+                    case USER: output.append("<@"); break;
+                    case ROLE: output.append("<@&"); break;
+                    case CHANNEL: output.append("<#"); break;
+                }
+                output.append(Long.toUnsignedString(mentionNode.getId())).append('>');
+            }
+            return true;
+        } else if (node instanceof EmoteNode) {
+            if (!after) {
+                EmoteNode<Object> emoteNode = (EmoteNode<Object>) node;
+                output.append(emoteNode.isAnimated() ? "<a:" : "<:").append(emoteNode.getName())
+                        .append(':').append(Long.toUnsignedString(emoteNode.getId())).append('>');
+            }
+            return true;
+        } else if (node instanceof TimestampNode) {
+            if (!after) {
+                TimestampNode<Object> timestampNode = (TimestampNode<Object>) node;
+                output.append("<t:").append(timestampNode.getEpochSecond())
+                        .append(':').append(timestampNode.getStyle().getCharacter()).append('>');
+            }
+            return true;
         } else if (node instanceof StyleNode) {
-            StringBuilder output = new StringBuilder(renderTo);
             for (Object style : ((StyleNode<?, ?>) node).getStyles()) {
                 TextStyle textStyle = (TextStyle) style;
                 TextStyle.Type styleType = textStyle.getType();
@@ -58,9 +100,9 @@ public class DefaultDiscordEscapingRenderer implements NodeRenderer<String> {
 
                 output.append(getChar(textStyle));
             }
-            return output.toString();
+            return true;
         } else {
-            return null;
+            return false;
         }
     }
 
@@ -77,11 +119,26 @@ public class DefaultDiscordEscapingRenderer implements NodeRenderer<String> {
         }
     }
 
+    @Override
+    public boolean render(StringBuilder output, Node<Object> node,
+                          MinecraftSerializerOptions<String> serializerOptions,
+                          Consumer<Node<Object>> renderWithChildren) {
+        return render(output, node, false);
+    }
+
+    @Override
+    public void renderAfterChildren(StringBuilder output, Node<Object> node,
+                                    MinecraftSerializerOptions<String> serializerOptions,
+                                    Consumer<Node<Object>> renderWithChildren) {
+        render(output, node, true);
+    }
+
     @Override
     public String render(String renderTo, Node<Object> node,
                                       MinecraftSerializerOptions<String> serializerOptions,
                                       Function<Node<Object>, String> renderWithChildren) {
-        return render(renderTo, node, false);
+        StringBuilder output = new StringBuilder(renderTo);
+        return render(output, node, false) ? output.toString() : null;
     }
 
 
@@ -89,6 +146,7 @@ public class DefaultDiscordEscapingRenderer implements NodeRenderer<String> {
     public String renderAfterChildren(String renderTo, Node<Object> node,
                                                    MinecraftSerializerOptions<String> serializerOptions,
                                                    Function<Node<Object>, String> renderWithChildren) {
-        return render(renderTo, node, true);
+        StringBuilder output = new StringBuilder(renderTo);
+        return render(output, node, true) ? output.toString() : null;
     }
 }
@@ -20,11 +20,11 @@ package me.hypherionmc.mcdiscordformatter.renderer.implementation;
 
 import me.hypherionmc.mcdiscordformatter.renderer.MinecraftRenderer;
 import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.chat.HoverEvent;
 import net.minecraft.network.chat.MutableComponent;
-
-import java.util.regex.Pattern;
+import net.minecraft.network.chat.Style;
 
 /**
  * The default implementation for the {@link MinecraftRenderer}.
@@ -36,7 +36,17 @@ public class DefaultMinecraftRenderer implements MinecraftRenderer {
      */
     public static final DefaultMinecraftRenderer INSTANCE = new DefaultMinecraftRenderer();
 
-    private static final Pattern PATTERN_NEWLINE = Pattern.compile("\n");
+    /**
+     * The prefix of every quote line, shared between all rendered quotes and never modified.
+     * All of its formatting is set, so it looks the same within formatted text.
+     */
+    private static final Component QUOTE_PREFIX = Component.literal("| ").setStyle(Style.EMPTY
+            .withColor(ChatFormatting.DARK_GRAY)
+            .withBold(true)
+            .withItalic(false)
+            .withUnderlined(false)
+            .withStrikethrough(false)
+            .withObfuscated(false));
 
     /**
      * Creates a new instance of the {@link DefaultMinecraftRenderer} unless you're extending the class you shouldn't use this.
@@ -76,6 +86,13 @@ public class DefaultMinecraftRenderer implements MinecraftRenderer {
         return component.withStyle(ChatFormatting.DARK_GRAY);
     }
 
+    @Override
+    public MutableComponent link(MutableComponent component, String url) {
+        return component.withStyle(style -> style.withClickEvent(new ClickEvent(ClickEvent.Action.OPEN_URL, url))
+                .withColor(ChatFormatting.BLUE)
+                .withUnderlined(true));
+    }
+
     @Override
     public MutableComponent appendSpoiler(MutableComponent component, MutableComponent content) {
         return component.append(Component.literal("▌".repeat(content.getString().length())).withStyle(style ->
@@ -85,10 +102,12 @@ public class DefaultMinecraftRenderer implements MinecraftRenderer {
 
     @Override
     public MutableComponent appendQuote(MutableComponent component, MutableComponent content) {
-        MutableComponent prefix = Component.literal("| ").withStyle(ChatFormatting.DARK_GRAY, ChatFormatting.BOLD);
-        // TODO fix multiline quotes
-        // return new LiteralText("").append(prefix).append(component.replaceText(PATTERN_NEWLINE, builder -> builder.append(prefix)));
-        return Component.empty().append(prefix).append(component);
+        return Component.empty().append(QUOTE_PREFIX).append(component.copy().append(content));
+    }
+
+    @Override
+    public MutableComponent appendQuoteLinePrefix(MutableComponent component) {
+        return component.append(QUOTE_PREFIX);
     }
 
     @Override
@@ -110,4 +129,24 @@ public class DefaultMinecraftRenderer implements MinecraftRenderer {
     public MutableComponent appendRoleMention(MutableComponent component, String id) {
         return component.append(Component.literal("<@&" + id + ">"));
     }
+
+    @Override
+    public MutableComponent appendEmoteMention(MutableComponent component, String name, long id) {
+        return component.append(Component.literal(":" + name + ":"));
+    }
+
+    @Override
+    public MutableComponent appendChannelMention(MutableComponent component, long id) {
+        return component.append(Component.literal("<#" + Long.toUnsignedString(id) + ">"));
+    }
+
+    @Override
+    public MutableComponent appendUserMention(MutableComponent component, long id) {
+        return component.append(Component.literal("<@" + Long.toUnsignedString(id) + ">"));
+    }
+
+    @Override
+    public MutableComponent appendRoleMention(MutableComponent component, long id) {
+        return component.append(Component.literal("<@&" + Long.toUnsignedString(id) + ">"));
+    }
 }
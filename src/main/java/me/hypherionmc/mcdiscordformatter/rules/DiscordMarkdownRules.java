@@ -26,6 +26,10 @@ import dev.vankka.simpleast.core.parser.ParseSpec;
 import dev.vankka.simpleast.core.parser.Parser;
 import dev.vankka.simpleast.core.parser.Rule;
 import dev.vankka.simpleast.core.simple.SimpleMarkdownRules;
+import me.hypherionmc.mcdiscordformatter.node.EmoteNode;
+import me.hypherionmc.mcdiscordformatter.node.LinkNode;
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import me.hypherionmc.mcdiscordformatter.node.TimestampNode;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -39,61 +43,83 @@ public final class DiscordMarkdownRules {
     private DiscordMarkdownRules() {
     }
 
-    private static final Pattern PATTERN_EMOTE_MENTION = Pattern.compile("^<a?:(\\w+):(\\d+)>");
+    private static final Pattern PATTERN_EMOTE_MENTION = Pattern.compile("^<(a?):(\\w+):(\\d+)>");
     private static final Pattern PATTERN_CHANNEL_MENTION = Pattern.compile("^<#(\\d+)>");
     private static final Pattern PATTERN_USER_MENTION = Pattern.compile("^<@!?(\\d+)>");
     private static final Pattern PATTERN_ROLE_MENTION = Pattern.compile("^<@&(\\d+)>");
+    private static final Pattern PATTERN_TIMESTAMP = Pattern.compile("^<t:(-?\\d{1,13})(?::([tTdDfFR]))?>");
+
+    // the largest unsigned 64-bit id
+    private static final String MAX_SNOWFLAKE = Long.toUnsignedString(-1L);
 
     private static final Pattern PATTERN_SPOILER = Pattern.compile("^\\|\\|([\\s\\S]+?)\\|\\|");
     private static final Pattern PATTERN_CODE_STRING = Pattern.compile("^`(.+?)`");
-    private static final Pattern PATTERN_QUOTE = Pattern.compile("^> (.+(?:\\n> .+)*)", Pattern.DOTALL);
-    private static final Pattern PATTERN_CODE_BLOCK = Pattern.compile("^```(?:(\\S+?)[\\n ])?\\n*(?:(.+?))\\n*```");
+    private static final Pattern PATTERN_QUOTE = Pattern.compile("^> (.+(?:\\n> .+)*)");
+    private static final Pattern PATTERN_CODE_BLOCK = Pattern.compile("^```(?:(\\S+?)[\\n ])?\\n*(?:(.+?))\\n*```", Pattern.DOTALL);
+
+    // matches the whole region, for turning the result of a LinkScanner into a Matcher
+    private static final Pattern PATTERN_REGION = Pattern.compile("(?s).+");
 
     // for quotes
     private static final Pattern PATTERN_TEXT = Pattern.compile("^[\\s\\S]+?(?=[^0-9A-Za-z\\s\\u00c0-\\uffff>]|\\n| {2,}\\n|\\w+:\\S|$)");
 
     /**
-     * Creates a {@link Rule} for Discord's emote mentions.
+     * Creates a {@link Rule} for Discord's emote mentions, producing {@link EmoteNode}s.
      * <a href="https://discord.com/developers/docs/reference#message-formatting">Discord developer docs</a>
      */
     public static <R, S> Rule<R, Node<R>, S> createEmoteMentionRule() {
         return new Rule<R, Node<R>, S>(PATTERN_EMOTE_MENTION) {
             @Override
             public ParseSpec<R, Node<R>, S> parse(Matcher matcher, Parser<R, Node<R>, S> parser, S state) {
-                Map<String, String> extra = new HashMap<>();
-                extra.put("name", matcher.group(1));
-                extra.put("id", matcher.group(2));
+                String id = matcher.group(3);
+                if (!isSnowflake(id)) {
+                    return ParseSpec.createTerminal(new TextNode<>(matcher.group()), state);
+                }
 
-                return ParseSpec.createTerminal(new StyleNode<>(new ArrayList<>(
-                        Collections.singletonList(new TextStyle(TextStyle.Type.MENTION_EMOJI, extra)))), state);
+                return ParseSpec.createTerminal(new EmoteNode<>(matcher.group(2), Long.parseUnsignedLong(id), matcher.start(1) != matcher.end(1)), state);
             }
         };
     }
 
     /**
-     * Creates a {@link Rule} for Discord's channel mentions.
+     * Creates a {@link Rule} for Discord's channel mentions, producing {@link MentionNode}s.
      * <a href="https://discord.com/developers/docs/reference#message-formatting">Discord developer docs</a>
      */
     public static <R, S> Rule<R, Node<R>, S> createChannelMentionRule() {
-        return createSimpleMentionRule(PATTERN_CHANNEL_MENTION, TextStyle.Type.MENTION_CHANNEL);
+        return createSimpleMentionRule(PATTERN_CHANNEL_MENTION, MentionNode.Kind.CHANNEL);
     }
 
 
     /**
-     * Creates a {@link Rule} for Discord's user mentions.
+     * Creates a {@link Rule} for Discord's user mentions, producing {@link MentionNode}s.
      * <a href="https://discord.com/developers/docs/reference#message-formatting">Discord developer docs</a>
      */
     public static <R, S> Rule<R, Node<R>, S> createUserMentionRule() {
-        return createSimpleMentionRule(PATTERN_USER_MENTION, TextStyle.Type.MENTION_USER);
+        return createSimpleMentionRule(PATTERN_USER_MENTION, MentionNode.Kind.USER);
     }
 
 
     /**
-     * Creates a {@link Rule} for Discord's role mentions.
+     * Creates a {@link Rule} for Discord's role mentions, producing {@link MentionNode}s.
      * <a href="https://discord.com/developers/docs/reference#message-formatting">Discord developer docs</a>
      */
     public static <R, S> Rule<R, Node<R>, S> createRoleMentionRule() {
-        return createSimpleMentionRule(PATTERN_ROLE_MENTION, TextStyle.Type.MENTION_ROLE);
+        return createSimpleMentionRule(PATTERN_ROLE_MENTION, MentionNode.Kind.ROLE);
+    }
+
+    /**
+     * Creates a {@link Rule} for Discord's timestamps, producing {@link TimestampNode}s.
+     * <a href="https://discord.com/developers/docs/reference#message-formatting-timestamp-styles">Discord developer docs</a>
+     */
+    public static <R, S> Rule<R, Node<R>, S> createTimestampRule() {
+        return new Rule<R, Node<R>, S>(PATTERN_TIMESTAMP) {
+            @Override
+            public ParseSpec<R, Node<R>, S> parse(Matcher matcher, Parser<R, Node<R>, S> parser, S state) {
+                String style = matcher.group(2);
+                return ParseSpec.createTerminal(new TimestampNode<>(Long.parseLong(matcher.group(1)),
+                        style != null ? TimestampNode.Style.of(style.charAt(0)) : TimestampNode.Style.DEFAULT), state);
+            }
+        };
     }
 
     /**
@@ -127,19 +153,62 @@ public final class DiscordMarkdownRules {
         };
     }
 
-    private static <R, S> Rule<R, Node<R>, S> createSimpleMentionRule(Pattern pattern, TextStyle.Type styleType) {
+    private static <R, S> Rule<R, Node<R>, S> createSimpleMentionRule(Pattern pattern, MentionNode.Kind kind) {
         return new Rule<R, Node<R>, S>(pattern) {
             @Override
             public ParseSpec<R, Node<R>, S> parse(Matcher matcher, Parser<R, Node<R>, S> parser, S state) {
-                Map<String, String> extra = new HashMap<>();
-                extra.put("id", matcher.group(1));
-                TextStyle textStyle = new TextStyle(styleType, extra);
+                String id = matcher.group(1);
+                if (!isSnowflake(id)) {
+                    return ParseSpec.createTerminal(new TextNode<>(matcher.group()), state);
+                }
 
-                return ParseSpec.createTerminal(new StyleNode<>(new ArrayList<>(Collections.singletonList(textStyle))), state);
+                return ParseSpec.createTerminal(new MentionNode<>(kind, Long.parseUnsignedLong(id)), state);
             }
         };
     }
 
+    /**
+     * Finds the end of the code block or inline code starting with the backtick at the given index, the way the
+     * code rules match it. Code blocks (between {@code ```}) may span lines, inline code ends at the next backtick
+     * on the same line. Used to skip code when scanning a message without parsing it.
+     *
+     * @param message the Discord message
+     * @param start the index of the backtick
+     * @return the exclusive end of the code or -1 if the backtick doesn't start code
+     */
+    public static int codeEnd(CharSequence message, int start) {
+        int length = message.length();
+        if (start + 2 < length && message.charAt(start + 1) == '`' && message.charAt(start + 2) == '`') {
+            // the content of a code block is at least one character
+            for (int i = start + 4; i + 2 < length; i++) {
+                if (message.charAt(i) == '`' && message.charAt(i + 1) == '`' && message.charAt(i + 2) == '`') {
+                    return i + 3;
+                }
+            }
+        }
+        if (start + 1 < length && message.charAt(start + 1) != '\n') {
+            // inline code doesn't span lines
+            for (int i = start + 2; i < length; i++) {
+                char c = message.charAt(i);
+                if (c == '\n') {
+                    break;
+                }
+                if (c == '`') {
+                    return i + 1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a string of digits fits in an unsigned 64-bit snowflake id, every id up to 2<sup>64</sup>-1 is valid.
+     */
+    static boolean isSnowflake(String digits) {
+        return digits.length() < MAX_SNOWFLAKE.length()
+                || digits.length() == MAX_SNOWFLAKE.length() && digits.compareTo(MAX_SNOWFLAKE) <= 0;
+    }
+
     /**
      * Creates a {@link Rule} for Discord's quotes.
      * <a href="https://support.discord.com/hc/en-us/articles/210298617-Markdown-Text-101-Chat-Formatting-Bold-Italic-Underline-">Discord blog</a>
@@ -188,6 +257,81 @@ public final class DiscordMarkdownRules {
         };
     }
 
+    /**
+     * Creates a {@link Rule} for links, http(s) URLs become {@link LinkNode}s with the URL as their text.
+     * URLs are found by a linear scanner, the end of a URL can't be punctuation like Discord.
+     * A URL has to start a word, {@code xhttps://example.com} isn't a link.
+     */
+    public static <R, S> Rule<R, Node<R>, S> createAutolinkRule() {
+        return new Rule<R, Node<R>, S>(PATTERN_REGION) {
+            @Override
+            public Matcher match(CharSequence inspectionSource, String lastCapture, S state) {
+                if (!LinkScanner.isWordStart(lastCapture)) {
+                    return null;
+                }
+                int end = LinkScanner.scanUrl(inspectionSource, 0, inspectionSource.length(), false);
+                return end != -1 ? matchRegion(inspectionSource, end) : null;
+            }
+
+            @Override
+            public ParseSpec<R, Node<R>, S> parse(Matcher matcher, Parser<R, Node<R>, S> parser, S state) {
+                String url = matcher.group();
+                LinkNode<R> node = new LinkNode<>(url, false);
+                node.addChild(new TextNode<>(url));
+                return ParseSpec.createTerminal(node, state);
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link Rule} for masked links ({@code [text](url)}), producing {@link LinkNode}s with the parsed text as their children.
+     * Only http(s) URLs are allowed, like Discord.
+     */
+    public static <R, S> Rule<R, Node<R>, S> createMaskedLinkRule() {
+        return new Rule<R, Node<R>, S>(PATTERN_REGION) {
+            @Override
+            public Matcher match(CharSequence inspectionSource, String lastCapture, S state) {
+                int length = inspectionSource.length();
+                int textEnd = LinkScanner.scanMaskedText(inspectionSource, 0, length);
+                if (textEnd == -1) {
+                    return null;
+                }
+                int end = LinkScanner.scanMaskedEnd(inspectionSource, textEnd, length);
+                return end != -1 ? matchRegion(inspectionSource, end) : null;
+            }
+
+            @Override
+            public ParseSpec<R, Node<R>, S> parse(Matcher matcher, Parser<R, Node<R>, S> parser, S state) {
+                String link = matcher.group();
+                int textEnd = link.indexOf(']');
+                String url = link.substring(textEnd + 2, link.length() - 1);
+                return ParseSpec.createNonterminal(new LinkNode<>(url, true), state, 1, textEnd);
+            }
+        };
+    }
+
+    /**
+     * Creates a {@link Matcher} that has matched the first {@code end} characters of the input.
+     */
+    private static Matcher matchRegion(CharSequence input, int end) {
+        Matcher matcher = PATTERN_REGION.matcher(input).region(0, end);
+        return matcher.lookingAt() ? matcher : null;
+    }
+
+    /**
+     * Creates all the link rules.
+     *
+     * @see #createMaskedLinkRule()
+     * @see #createAutolinkRule()
+     */
+    public static <R, S> List<Rule<R, Node<R>, S>> createLinkRules() {
+        List<Rule<R, Node<R>, S>> rules = new ArrayList<>();
+        rules.add(createMaskedLinkRule());
+        rules.add(createAutolinkRule());
+
+        return rules;
+    }
+
     /**
      * Creates a special text rule for Discord, required only if using quotes.
      * @see #createQuoteRule()
@@ -240,15 +384,19 @@ public final class DiscordMarkdownRules {
     }
 
     /**
-     * Creates all rules for Discord mentions and styles.
+     * Creates all rules for Discord mentions, timestamps, styles and links.
      *
      * @see #createMentionRules()
+     * @see #createTimestampRule()
      * @see #createStyleRules()
+     * @see #createLinkRules()
      */
     public static <R> List<Rule<R, Node<R>, Object>> createDiscordMarkdownRules() {
         List<Rule<R, Node<R>, Object>> rules = new ArrayList<>();
         rules.addAll(createStyleRules());
         rules.addAll(createMentionRules());
+        rules.add(createTimestampRule());
+        rules.addAll(createLinkRules());
 
         return rules;
     }
@@ -0,0 +1,147 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.rules;
+
+/**
+ * Hand-written scanner for links, every character is looked at a constant amount of times
+ * unlike with backtracking URL regular expressions.
+ */
+final class LinkScanner {
+
+    // characters an autolink can't end with, like Discord
+    private static final String TRAILING_PUNCTUATION = ".,:;\"')]";
+
+    private LinkScanner() {
+    }
+
+    /**
+     * Finds the end of the http(s) URL at the start of the text.
+     *
+     * @param text   the text
+     * @param start  where the URL starts
+     * @param end    the end of the text
+     * @param masked if the URL is the target of a masked link, which ends at a {@code )}
+     * @return the exclusive end of the URL, or -1 if there is no URL at the start
+     */
+    static int scanUrl(CharSequence text, int start, int end, boolean masked) {
+        int hostStart = schemeEnd(text, start, end);
+        if (hostStart == -1) {
+            return -1;
+        }
+
+        int i = hostStart;
+        while (i < end) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == '<' || (masked && c == ')')) {
+                break;
+            }
+            i++;
+        }
+        if (!masked) {
+            while (i > hostStart && TRAILING_PUNCTUATION.indexOf(text.charAt(i - 1)) != -1) {
+                i--;
+            }
+        }
+        return i > hostStart ? i : -1;
+    }
+
+    /**
+     * Checks if a URL may start after the given text, which is the case at the start of the text or after a character
+     * that isn't a letter or digit. Underscores are allowed before a URL for italics and underlines.
+     *
+     * @param before the text before the URL, {@code null} at the start of the text
+     * @return true if a URL may start after the text
+     */
+    static boolean isWordStart(CharSequence before) {
+        if (before == null || before.length() == 0) {
+            return true;
+        }
+        char c = before.charAt(before.length() - 1);
+        return !Character.isLetterOrDigit(c);
+    }
+
+    private static int schemeEnd(CharSequence text, int start, int end) {
+        int i = start;
+        if (!regionMatches(text, i, end, "http")) {
+            return -1;
+        }
+        i += 4;
+        if (i < end && (text.charAt(i) == 's' || text.charAt(i) == 'S')) {
+            i++;
+        }
+        return regionMatches(text, i, end, "://") ? i + 3 : -1;
+    }
+
+    private static boolean regionMatches(CharSequence text, int start, int end, String expected) {
+        if (end - start < expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the end of the text of the masked link ({@code [text](url)}) at the start of the text.
+     * The text can't contain brackets, so scanning stops at the next {@code [}.
+     *
+     * @param text  the text
+     * @param start where the masked link starts, at the {@code [}
+     * @param end   the end of the text
+     * @return the index of the {@code ]} ending the link text, or -1 if there is no masked link at the start
+     */
+    static int scanMaskedText(CharSequence text, int start, int end) {
+        if (start >= end || text.charAt(start) != '[') {
+            return -1;
+        }
+        for (int i = start + 1; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ']') {
+                return i > start + 1 ? i : -1;
+            }
+            if (c == '[') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the end of the masked link at the start of the text, given the end of its link text.
+     *
+     * @param text    the text
+     * @param textEnd the index of the {@code ]} ending the link text
+     * @param end     the end of the text
+     * @return the exclusive end of the masked link, or -1 if it isn't followed by {@code (url)}
+     */
+    static int scanMaskedEnd(CharSequence text, int textEnd, int end) {
+        int urlStart = textEnd + 2;
+        if (urlStart >= end || text.charAt(textEnd + 1) != '(') {
+            return -1;
+        }
+        int urlEnd = scanUrl(text, urlStart, end, true);
+        if (urlEnd == -1 || urlEnd >= end || text.charAt(urlEnd) != ')') {
+            return -1;
+        }
+        return urlEnd + 1;
+    }
+}
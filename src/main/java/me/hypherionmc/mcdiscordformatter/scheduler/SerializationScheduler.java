@@ -0,0 +1,239 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.scheduler;
+
+import me.hypherionmc.mcdiscordformatter.discord.DiscordSerializer;
+import me.hypherionmc.mcdiscordformatter.discord.DiscordSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import net.minecraft.network.chat.MutableComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Queues serialization jobs that have to run on the server's main thread (for example because a keybind or translation
+ * provider touches game state) and runs them in slices, spending at most a configured amount of time per tick.
+ *
+ * <p>Jobs can be submitted from any thread, {@link #runTick()} should be called once per tick from the main thread,
+ * which is also where the callbacks are called.</p>
+ */
+public class SerializationScheduler {
+
+    private final long tickBudgetNanos;
+    private final Consumer<Throwable> defaultErrorHandler;
+
+    private final Queue<Job<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param tickBudget          the time jobs may take per tick, at least one job is run every tick regardless
+     * @param defaultErrorHandler handles exceptions thrown by jobs and callbacks submitted without an error handler,
+     *                            and exceptions thrown by the other error handlers
+     */
+    public SerializationScheduler(@NotNull Duration tickBudget, @NotNull Consumer<Throwable> defaultErrorHandler) {
+        this(tickBudget.toNanos(), defaultErrorHandler);
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param tickBudgetNanos     the time jobs may take per tick in nanoseconds, at least one job is run every tick regardless
+     * @param defaultErrorHandler handles exceptions thrown by jobs and callbacks submitted without an error handler,
+     *                            and exceptions thrown by the other error handlers
+     */
+    public SerializationScheduler(long tickBudgetNanos, @NotNull Consumer<Throwable> defaultErrorHandler) {
+        if (tickBudgetNanos <= 0) {
+            throw new IllegalArgumentException("The tick budget must be positive");
+        }
+        this.tickBudgetNanos = tickBudgetNanos;
+        this.defaultErrorHandler = defaultErrorHandler;
+    }
+
+    /**
+     * Queues a job.
+     *
+     * @param job          the job, run on the thread calling {@link #runTick()}
+     * @param callback     receives the result of the job
+     * @param errorHandler handles exceptions thrown by the job or the callback, exceptions it throws are passed to the default error handler
+     * @param <T>          the result type
+     */
+    public <T> void submit(@NotNull Supplier<T> job, @NotNull Consumer<? super T> callback, @NotNull Consumer<Throwable> errorHandler) {
+        // counted before it can be polled, so the backlog never goes negative
+        backlog.incrementAndGet();
+        queue.add(new Job<>(job, callback, errorHandler, System.nanoTime()));
+    }
+
+    /**
+     * Queues a job, exceptions are passed to the default error handler.
+     *
+     * @param job      the job, run on the thread calling {@link #runTick()}
+     * @param callback receives the result of the job
+     * @param <T>      the result type
+     */
+    public <T> void submit(@NotNull Supplier<T> job, @NotNull Consumer<? super T> callback) {
+        submit(job, callback, defaultErrorHandler);
+    }
+
+    /**
+     * Queues serializing a Minecraft component to a Discord message.
+     *
+     * @param serializer        the serializer
+     * @param component         the text component from a Minecraft chat message
+     * @param serializerOptions the options to use for this serialization
+     * @param callback          receives the Discord markdown formatted String
+     */
+    public void submitDiscord(@NotNull DiscordSerializer serializer, @NotNull MutableComponent component,
+                              @NotNull DiscordSerializerOptions serializerOptions, @NotNull Consumer<String> callback) {
+        submit(() -> serializer.serialize(component, serializerOptions), callback);
+    }
+
+    /**
+     * Queues serializing a Discord message to a Minecraft component.
+     *
+     * @param serializer        the serializer
+     * @param discordMessage    a Discord markdown message
+     * @param serializerOptions the options to use for this serialization
+     * @param callback          receives the Discord message formatted to a Minecraft TextComponent
+     */
+    public void submitMinecraft(@NotNull MinecraftSerializer serializer, @NotNull String discordMessage,
+                                @NotNull MinecraftSerializerOptions<MutableComponent> serializerOptions,
+                                @NotNull Consumer<MutableComponent> callback) {
+        submit(() -> serializer.serialize(discordMessage, serializerOptions), callback);
+    }
+
+    /**
+     * Runs queued jobs until the queue is empty or the tick budget is spent, at least one job is run if any are queued.
+     *
+     * @return the amount of jobs that were run
+     */
+    public int runTick() {
+        long start = System.nanoTime();
+        int ran = 0;
+        Job<?> job;
+        while ((job = queue.poll()) != null) {
+            backlog.decrementAndGet();
+            recordWait(System.nanoTime() - job.submittedAt);
+            job.run(defaultErrorHandler);
+            ran++;
+            completedJobs.incrementAndGet();
+            if (System.nanoTime() - start >= tickBudgetNanos) {
+                break;
+            }
+        }
+        return ran;
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        do {
+            max = maxWaitNanos.get();
+        } while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos));
+    }
+
+    /**
+     * Returns the amount of queued jobs.
+     *
+     * @return the backlog depth
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * Returns the amount of jobs that were run.
+     *
+     * @return the amount of completed jobs
+     */
+    public long getCompletedJobs() {
+        return completedJobs.get();
+    }
+
+    /**
+     * Returns the total time jobs spent in the queue before being run.
+     *
+     * @return the total wait time in nanoseconds
+     */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.get();
+    }
+
+    /**
+     * Returns the longest time a job spent in the queue before being run.
+     *
+     * @return the maximum wait time in nanoseconds
+     */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    /**
+     * Returns the time jobs may take per tick.
+     *
+     * @return the tick budget in nanoseconds
+     */
+    public long getTickBudgetNanos() {
+        return this.tickBudgetNanos;
+    }
+
+    private static final class Job<T> {
+        private final Supplier<T> job;
+        private final Consumer<? super T> callback;
+        private final Consumer<Throwable> errorHandler;
+        private final long submittedAt;
+
+        private Job(Supplier<T> job, Consumer<? super T> callback, Consumer<Throwable> errorHandler, long submittedAt) {
+            this.job = job;
+            this.callback = callback;
+            this.errorHandler = errorHandler;
+            this.submittedAt = submittedAt;
+        }
+
+        private void run(Consumer<Throwable> defaultErrorHandler) {
+            try {
+                callback.accept(job.get());
+            } catch (Throwable t) {
+                try {
+                    errorHandler.accept(t);
+                } catch (Throwable handlerError) {
+                    // a failing error handler must not stop the rest of the tick
+                    handlerError.addSuppressed(t);
+                    if (errorHandler != defaultErrorHandler) {
+                        try {
+                            defaultErrorHandler.accept(handlerError);
+                        } catch (Throwable ignored) {
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
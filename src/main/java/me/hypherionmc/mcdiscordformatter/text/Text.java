@@ -18,119 +18,202 @@
 
 package me.hypherionmc.mcdiscordformatter.text;
 
+import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.TextColor;
+import net.minecraft.resources.ResourceLocation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
 /**
  * Text class, for defining segments of text with formatting rules.
+ * Instances are immutable and the class is final, the formatting is packed into a style mask and an RGB colour
+ * so segments can be compared with integer checks.
+ * Create segments with {@link #Text(String, int, int, ResourceLocation)} or {@link #of(String, Style)},
+ * and derive a segment with other content with {@link #withContent(String)}.
  */
-public class Text {
-    private String content;
-    private boolean bold;
-    private boolean strikethrough;
-    private boolean underline;
-    private boolean italic;
-
-    private Text(String content, boolean bold, boolean strikethrough, boolean underline, boolean italic) {
+public final class Text {
+
+    public static final int BOLD = 1;
+    public static final int STRIKETHROUGH = 1 << 1;
+    public static final int UNDERLINE = 1 << 2;
+    public static final int ITALIC = 1 << 3;
+    public static final int OBFUSCATED = 1 << 4;
+
+    /**
+     * The style bits that have a Discord markdown equivalent.
+     */
+    public static final int MARKDOWN = BOLD | STRIKETHROUGH | UNDERLINE | ITALIC;
+
+    /**
+     * The colour of text without a colour.
+     */
+    public static final int NO_COLOR = -1;
+
+    /**
+     * An empty segment without formatting.
+     */
+    public static final Text EMPTY = new Text("", 0, NO_COLOR, null);
+
+    private final String content;
+    private final int style;
+    private final int color;
+    private final ResourceLocation font;
+    private final String link;
+
+    private Text(String content, int style, int color, ResourceLocation font, String link) {
         this.content = content;
-        this.bold = bold;
-        this.strikethrough = strikethrough;
-        this.underline = underline;
-        this.italic = italic;
+        this.style = style;
+        this.color = color;
+        this.font = font;
+        this.link = link;
     }
 
-    public Text() {
+    /**
+     * Creates a segment of text.
+     *
+     * @param content the content of the segment
+     * @param style   the style mask, a combination of {@link #BOLD}, {@link #STRIKETHROUGH}, {@link #UNDERLINE}, {@link #ITALIC} and {@link #OBFUSCATED}
+     * @param color   the RGB colour of the segment or {@link #NO_COLOR}
+     * @param font    the font of the segment or {@code null} for the default font
+     */
+    public Text(@NotNull String content, int style, int color, @Nullable ResourceLocation font) {
+        this(content, style, color, font, null);
+    }
+
+    /**
+     * Creates a segment of text with the formatting of the given Minecraft {@link Style}.
+     *
+     * @param content the content of the segment
+     * @param style   the Minecraft style
+     * @return the segment
+     */
+    public static Text of(@NotNull String content, @NotNull Style style) {
+        TextColor color = style.getColor();
+        return new Text(content, styleMask(style), color != null ? color.getValue() : NO_COLOR, style.getFont());
+    }
+
+    /**
+     * Packs the formatting of the given Minecraft {@link Style} into a style mask.
+     *
+     * @param style the Minecraft style
+     * @return the style mask
+     */
+    public static int styleMask(@NotNull Style style) {
+        return (style.isBold() ? BOLD : 0)
+                | (style.isStrikethrough() ? STRIKETHROUGH : 0)
+                | (style.isUnderlined() ? UNDERLINE : 0)
+                | (style.isItalic() ? ITALIC : 0)
+                | (style.isObfuscated() ? OBFUSCATED : 0);
     }
 
     /**
      * Checks if the formatting matches between this and another Text object.
+     * Only formatting that can be represented in Discord markdown is compared.
      *
      * @param other The other Text object.
      * @return true if the formatting matches the other Text object.
      */
     public boolean formattingMatches(Text other) {
-        return other != null
-                && bold == other.bold
-                && strikethrough == other.strikethrough
-                && underline == other.underline
-                && italic == other.italic;
+        return other != null && ((style ^ other.style) & MARKDOWN) == 0;
     }
 
-    @SuppressWarnings("MethodDoesntCallSuperMethod")
-    @Override
-    public Text clone() {
-        return new Text(content, bold, strikethrough, underline, italic);
+    /**
+     * Returns a copy of this segment with different content.
+     *
+     * @param content the new content
+     * @return the segment with the new content
+     */
+    public Text withContent(@NotNull String content) {
+        return new Text(content, style, color, font, link);
+    }
+
+    /**
+     * Returns a copy of this segment linking to the given URL, the content of the segment is the text of the link.
+     *
+     * @param link the URL or {@code null} for no link
+     * @return the segment with the link
+     */
+    public Text withLink(@Nullable String link) {
+        return new Text(content, style, color, font, link);
     }
 
     public String getContent() {
         return this.content;
     }
 
-    public boolean isBold() {
-        return this.bold;
+    public int getStyle() {
+        return this.style;
     }
 
-    public boolean isStrikethrough() {
-        return this.strikethrough;
+    public boolean hasStyle(int style) {
+        return (this.style & style) == style;
     }
 
-    public boolean isUnderline() {
-        return this.underline;
+    public int getColor() {
+        return this.color;
     }
 
-    public boolean isItalic() {
-        return this.italic;
+    @Nullable
+    public ResourceLocation getFont() {
+        return this.font;
     }
 
-    public void setContent(String content) {
-        this.content = content;
+    /**
+     * The URL this segment links to.
+     *
+     * @return the URL or {@code null} if the segment isn't a link
+     */
+    @Nullable
+    public String getLink() {
+        return this.link;
+    }
+
+    public boolean isBold() {
+        return (this.style & BOLD) != 0;
     }
 
-    public void setBold(boolean bold) {
-        this.bold = bold;
+    public boolean isStrikethrough() {
+        return (this.style & STRIKETHROUGH) != 0;
     }
 
-    public void setStrikethrough(boolean strikethrough) {
-        this.strikethrough = strikethrough;
+    public boolean isUnderline() {
+        return (this.style & UNDERLINE) != 0;
     }
 
-    public void setUnderline(boolean underline) {
-        this.underline = underline;
+    public boolean isItalic() {
+        return (this.style & ITALIC) != 0;
     }
 
-    public void setItalic(boolean italic) {
-        this.italic = italic;
+    public boolean isObfuscated() {
+        return (this.style & OBFUSCATED) != 0;
     }
 
     public String toString() {
-        return "Text(content=" + this.getContent() + ", bold=" + this.isBold() + ", strikethrough=" + this.isStrikethrough() + ", underline=" + this.isUnderline() + ", italic=" + this.isItalic() + ")";
+        return "Text(content=" + this.getContent() + ", bold=" + this.isBold() + ", strikethrough=" + this.isStrikethrough() + ", underline=" + this.isUnderline()
+                + ", italic=" + this.isItalic() + ", obfuscated=" + this.isObfuscated() + ", color=" + this.getColor() + ", font=" + this.getFont() + ", link=" + this.getLink() + ")";
     }
 
     public boolean equals(final Object o) {
         if (o == this) return true;
         if (!(o instanceof Text)) return false;
         final Text other = (Text) o;
-        if (!other.canEqual((Object) this)) return false;
-        final Object this$content = this.getContent();
-        final Object other$content = other.getContent();
-        if (this$content == null ? other$content != null : !this$content.equals(other$content)) return false;
-        if (this.isBold() != other.isBold()) return false;
-        if (this.isStrikethrough() != other.isStrikethrough()) return false;
-        if (this.isUnderline() != other.isUnderline()) return false;
-        if (this.isItalic() != other.isItalic()) return false;
-        return true;
-    }
-
-    protected boolean canEqual(final Object other) {
-        return other instanceof Text;
+        return this.style == other.style
+                && this.color == other.color
+                && this.content.equals(other.content)
+                && Objects.equals(this.font, other.font)
+                && Objects.equals(this.link, other.link);
     }
 
     public int hashCode() {
         final int PRIME = 59;
         int result = 1;
-        final Object $content = this.getContent();
-        result = result * PRIME + ($content == null ? 43 : $content.hashCode());
-        result = result * PRIME + (this.isBold() ? 79 : 97);
-        result = result * PRIME + (this.isStrikethrough() ? 79 : 97);
-        result = result * PRIME + (this.isUnderline() ? 79 : 97);
-        result = result * PRIME + (this.isItalic() ? 79 : 97);
+        result = result * PRIME + this.content.hashCode();
+        result = result * PRIME + this.style;
+        result = result * PRIME + this.color;
+        result = result * PRIME + (this.font == null ? 43 : this.font.hashCode());
+        result = result * PRIME + (this.link == null ? 43 : this.link.hashCode());
         return result;
     }
 }
@@ -0,0 +1,140 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.text;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link CharSequence} view over UTF-8 encoded bytes, for parsing Discord messages without decoding them to a {@link String} first.
+ *
+ * <p>Pure ASCII input (the common case) is read straight from the bytes, and {@link String}s are only created
+ * for the slices the parser emits. Input containing multibyte sequences is decoded once into a shared char buffer.</p>
+ */
+public final class Utf8CharSequence implements CharSequence {
+
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private final int start;
+    private final int length;
+
+    private Utf8CharSequence(ByteBuffer bytes, CharBuffer chars, int start, int length) {
+        this.bytes = bytes;
+        this.chars = chars;
+        this.start = start;
+        this.length = length;
+    }
+
+    /**
+     * Creates a view over the remaining bytes of the given buffer, the position of the buffer is not modified.
+     *
+     * @param utf8 the UTF-8 encoded bytes
+     * @return the character view of the bytes
+     */
+    public static Utf8CharSequence of(@NotNull ByteBuffer utf8) {
+        ByteBuffer bytes = utf8.slice();
+        int length = bytes.remaining();
+        for (int i = 0; i < length; i++) {
+            if (bytes.get(i) < 0) {
+                return new Utf8CharSequence(null, decode(bytes), 0, -1);
+            }
+        }
+        return new Utf8CharSequence(bytes, null, 0, length);
+    }
+
+    /**
+     * Creates a view over the given slice of a byte array, the array is not copied.
+     *
+     * @param utf8   the UTF-8 encoded bytes
+     * @param offset the offset of the slice
+     * @param length the length of the slice
+     * @return the character view of the bytes
+     */
+    public static Utf8CharSequence of(@NotNull byte[] utf8, int offset, int length) {
+        return of(ByteBuffer.wrap(utf8, offset, length));
+    }
+
+    private static CharBuffer decode(ByteBuffer bytes) {
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .decode(bytes.duplicate());
+        } catch (CharacterCodingException e) {
+            // unreachable with REPLACE
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checks if this sequence is read straight from the underlying bytes.
+     *
+     * @return true if the input was pure ASCII and did not have to be decoded
+     */
+    public boolean isAscii() {
+        return bytes != null;
+    }
+
+    @Override
+    public int length() {
+        return bytes != null ? length : chars.remaining();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (bytes == null) {
+            return chars.charAt(index);
+        }
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return (char) bytes.get(start + index);
+    }
+
+    @Override
+    public @NotNull CharSequence subSequence(int start, int end) {
+        if (bytes == null) {
+            return chars.subSequence(start, end);
+        }
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new Utf8CharSequence(bytes, null, this.start + start, end - start);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        if (bytes == null) {
+            return chars.toString();
+        }
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + start, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] output = new char[length];
+        for (int i = 0; i < length; i++) {
+            output[i] = (char) bytes.get(start + i);
+        }
+        return new String(output);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.timestamp;
+
+import me.hypherionmc.mcdiscordformatter.node.TimestampNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Formats Discord's timestamps like the Discord client does, in a fixed time zone.
+ *
+ * <p>The {@link DateTimeFormatter}s are created once per locale and cached, relative times
+ * ({@link TimestampNode.Style#RELATIVE}) are computed from the difference to the current time
+ * with the same thresholds as Discord, in English.</p>
+ *
+ * @see #system()
+ */
+public final class DiscordTimestampFormatter {
+
+    private static final TimestampNode.Style[] STYLES = TimestampNode.Style.values();
+
+    private final ZoneId zone;
+    private final Clock clock;
+    // the formatters for a locale, indexed by the ordinal of the style
+    private final ConcurrentMap<Locale, DateTimeFormatter[]> formatters = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a {@link DiscordTimestampFormatter}.
+     *
+     * @param zone  the time zone to show times in
+     * @param clock the clock relative times are relative to
+     */
+    public DiscordTimestampFormatter(@NotNull ZoneId zone, @NotNull Clock clock) {
+        this.zone = zone;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the {@link DiscordTimestampFormatter} for the system's time zone and clock.
+     *
+     * @return the system {@link DiscordTimestampFormatter}
+     */
+    public static DiscordTimestampFormatter system() {
+        return SystemHolder.INSTANCE;
+    }
+
+    public @NotNull ZoneId getZone() {
+        return this.zone;
+    }
+
+    /**
+     * Formats the given timestamp in the default locale.
+     *
+     * @param epochSecond the time, in seconds since the epoch
+     * @param style       the style of the timestamp
+     * @return the formatted timestamp
+     */
+    public @NotNull String format(long epochSecond, @NotNull TimestampNode.Style style) {
+        return format(epochSecond, style, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * Formats the given timestamp.
+     *
+     * @param epochSecond the time, in seconds since the epoch
+     * @param style       the style of the timestamp
+     * @param locale      the locale to format dates and times in
+     * @return the formatted timestamp
+     */
+    public @NotNull String format(long epochSecond, @NotNull TimestampNode.Style style, @NotNull Locale locale) {
+        StringBuilder output = new StringBuilder(32);
+        formatTo(epochSecond, style, locale, output);
+        return output.toString();
+    }
+
+    /**
+     * Formats the given timestamp and appends it to the given buffer.
+     *
+     * @param epochSecond the time, in seconds since the epoch
+     * @param style       the style of the timestamp
+     * @param locale      the locale to format dates and times in
+     * @param output      the buffer to append to
+     */
+    public void formatTo(long epochSecond, @NotNull TimestampNode.Style style, @NotNull Locale locale, @NotNull StringBuilder output) {
+        if (style == TimestampNode.Style.RELATIVE) {
+            appendRelative(epochSecond - clock.millis() / 1000, output);
+            return;
+        }
+
+        try {
+            formatters(locale)[style.ordinal()].formatTo(Instant.ofEpochSecond(epochSecond), output);
+        } catch (RuntimeException e) {
+            // outside of the supported range, shown as written
+            output.append("<t:").append(epochSecond).append(':').append(style.getCharacter()).append('>');
+        }
+    }
+
+    private DateTimeFormatter[] formatters(Locale locale) {
+        DateTimeFormatter[] cached = formatters.get(locale);
+        if (cached != null) {
+            return cached;
+        }
+        return formatters.computeIfAbsent(locale, this::createFormatters);
+    }
+
+    private DateTimeFormatter[] createFormatters(Locale locale) {
+        DateTimeFormatter[] created = new DateTimeFormatter[STYLES.length];
+        for (TimestampNode.Style style : STYLES) {
+            DateTimeFormatter formatter;
+            switch (style) {
+                case SHORT_TIME: formatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT); break;
+                case LONG_TIME: formatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.MEDIUM); break;
+                case SHORT_DATE: formatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT); break;
+                case LONG_DATE: formatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.LONG); break;
+                case SHORT_DATE_TIME: formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.LONG, FormatStyle.SHORT); break;
+                case LONG_DATE_TIME: formatter = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.FULL, FormatStyle.SHORT); break;
+                default: continue; // relative times aren't formatted with a formatter
+            }
+            created[style.ordinal()] = formatter.withLocale(locale).withZone(zone);
+        }
+        return created;
+    }
+
+    /**
+     * Appends a relative time like {@code in 5 minutes} or {@code 2 days ago}.
+     *
+     * @param difference the difference to now in seconds, negative for the past
+     */
+    private static void appendRelative(long difference, StringBuilder output) {
+        boolean future = difference > 0;
+        long seconds = Math.abs(difference);
+        if (future) {
+            output.append("in ");
+        }
+
+        if (seconds < 45) {
+            output.append("a few seconds");
+        } else if (seconds < 90) {
+            output.append("a minute");
+        } else if (seconds < 45 * 60) {
+            appendUnit(output, Math.round(seconds / 60.0), "minutes");
+        } else if (seconds < 90 * 60) {
+            output.append("an hour");
+        } else if (seconds < 22 * 3600) {
+            appendUnit(output, Math.round(seconds / 3600.0), "hours");
+        } else if (seconds < 36 * 3600) {
+            output.append("a day");
+        } else if (seconds < 26 * 86400) {
+            appendUnit(output, Math.round(seconds / 86400.0), "days");
+        } else if (seconds < 45 * 86400) {
+            output.append("a month");
+        } else if (seconds < 320 * 86400) {
+            appendUnit(output, Math.round(seconds / (30.4375 * 86400)), "months");
+        } else if (seconds < 548 * 86400) {
+            output.append("a year");
+        } else {
+            appendUnit(output, Math.round(seconds / (365.25 * 86400)), "years");
+        }
+
+        if (!future) {
+            output.append(" ago");
+        }
+    }
+
+    private static void appendUnit(StringBuilder output, long amount, String unit) {
+        output.append(amount).append(' ').append(unit);
+    }
+
+    private static class SystemHolder {
+        private static final DiscordTimestampFormatter INSTANCE = new DiscordTimestampFormatter(ZoneId.systemDefault(), Clock.systemUTC());
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.trace;
+
+import dev.vankka.simpleast.core.node.Node;
+import dev.vankka.simpleast.core.parser.Parser;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Traces parsing for production use, as a replacement for {@link MinecraftSerializerOptions#isDebuggingEnabled() debug logging}.
+ * Every rule attempt, match and created node is recorded with its time into a preallocated ring buffer per thread,
+ * without allocating while parsing. The buffers can be dumped on demand, and the trace of a message is dumped
+ * automatically when it takes longer than the slow message threshold to parse.
+ *
+ * <pre>{@code
+ * ParseTracer tracer = new ParseTracer(4096, Duration.ofMillis(5), logger::warn);
+ * MinecraftSerializerOptions<MutableComponent> options = tracer.apply(MinecraftSerializerOptions.defaults());
+ * }</pre>
+ *
+ * <p>Messages that skip the parser because they have no markdown aren't traced.</p>
+ */
+public final class ParseTracer {
+
+    private final int capacity;
+    private final long slowThresholdNanos;
+    private final Consumer<String> slowMessageHandler;
+    private final TracingParser parser = new TracingParser(this);
+    private final ThreadLocal<TraceBuffer> buffers = ThreadLocal.withInitial(this::createBuffer);
+    private final Queue<BufferReference> allBuffers = new ConcurrentLinkedQueue<>();
+    private final LongAdder slowMessages = new LongAdder();
+
+    /**
+     * Creates a {@link ParseTracer} without a slow message threshold.
+     *
+     * @param capacity the amount of events kept per thread, rounded up to a power of two
+     */
+    public ParseTracer(int capacity) {
+        this(capacity, null, null);
+    }
+
+    /**
+     * Creates a {@link ParseTracer}.
+     *
+     * @param capacity           the amount of events kept per thread, rounded up to a power of two
+     * @param slowThreshold      the parse time after which the trace of a message is given to the handler, {@code null} for none
+     * @param slowMessageHandler the handler of the traces of slow messages, called on the parsing thread
+     */
+    public ParseTracer(int capacity, @Nullable Duration slowThreshold, @Nullable Consumer<String> slowMessageHandler) {
+        if (capacity < 16 || capacity > 1 << 24) {
+            throw new IllegalArgumentException("capacity must be between 16 and " + (1 << 24));
+        }
+        if ((slowThreshold == null) != (slowMessageHandler == null)) {
+            throw new IllegalArgumentException("slowThreshold and slowMessageHandler must both be set or both be null");
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.slowThresholdNanos = slowThreshold != null ? slowThreshold.toNanos() : Long.MAX_VALUE;
+        this.slowMessageHandler = slowMessageHandler;
+    }
+
+    /**
+     * Returns the options with the parser replaced by this tracer's parser, the rules stay the same.
+     *
+     * @param serializerOptions the options to trace
+     * @param <O>               the type of the result produced with the renderers
+     * @return the new instance of options
+     */
+    public <O> MinecraftSerializerOptions<O> apply(@NotNull MinecraftSerializerOptions<O> serializerOptions) {
+        return serializerOptions.withParser(parser);
+    }
+
+    /**
+     * Returns the tracing parser, which traces with whatever rules it's given.
+     *
+     * @return the parser
+     */
+    public @NotNull Parser<Object, Node<Object>, Object> getParser() {
+        return this.parser;
+    }
+
+    /**
+     * Dumps the events recorded on the current thread, oldest first.
+     *
+     * @return the events as text, one per line
+     */
+    public @NotNull String dump() {
+        StringBuilder output = new StringBuilder();
+        buffer().dump(output);
+        return output.toString();
+    }
+
+    /**
+     * Dumps the events recorded on all threads. Threads that are parsing while being dumped may show partially written events.
+     *
+     * @return the events as text, one per line
+     */
+    public @NotNull String dumpAll() {
+        StringBuilder output = new StringBuilder();
+        for (Iterator<BufferReference> iterator = allBuffers.iterator(); iterator.hasNext(); ) {
+            BufferReference reference = iterator.next();
+            reference.buffer.dump(output);
+            if (reference.thread.get() == null) {
+                // the thread is gone, this is the last time its events are dumped
+                iterator.remove();
+            }
+        }
+        return output.toString();
+    }
+
+    /**
+     * Returns the amount of messages that took longer than the slow message threshold to parse.
+     *
+     * @return the amount of slow messages
+     */
+    public long getSlowMessageCount() {
+        return slowMessages.sum();
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    TraceBuffer buffer() {
+        return buffers.get();
+    }
+
+    void messageParsed(TraceBuffer buffer, long nanos) {
+        if (nanos < slowThresholdNanos) {
+            return;
+        }
+        slowMessages.increment();
+        StringBuilder output = new StringBuilder("Parsing a message took ").append(nanos / 1_000_000.0).append(" ms\n");
+        buffer.dumpLastMessage(output);
+        slowMessageHandler.accept(output.toString());
+    }
+
+    private TraceBuffer createBuffer() {
+        Thread thread = Thread.currentThread();
+        TraceBuffer buffer = new TraceBuffer(thread.getName(), capacity);
+        allBuffers.add(new BufferReference(thread, buffer));
+        return buffer;
+    }
+
+    public String toString() {
+        return "ParseTracer(capacity=" + this.capacity + ", slowThresholdNanos=" + this.slowThresholdNanos + ")";
+    }
+
+    private static final class BufferReference {
+        private final WeakReference<Thread> thread;
+        private final TraceBuffer buffer;
+
+        private BufferReference(Thread thread, TraceBuffer buffer) {
+            this.thread = new WeakReference<>(thread);
+            this.buffer = buffer;
+        }
+    }
+}
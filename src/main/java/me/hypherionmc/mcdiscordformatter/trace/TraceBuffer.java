@@ -0,0 +1,146 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.trace;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A ring buffer of parse events for one thread, in preallocated parallel arrays so recording never allocates.
+ * Only the owning thread writes to the buffer, dumps from other threads are best effort.
+ *
+ * <p>Events only hold lengths, offsets and the types of rules, the buffer never keeps the content of messages.</p>
+ */
+final class TraceBuffer {
+
+    static final byte MESSAGE_START = 0;
+    static final byte ATTEMPT = 1;
+    static final byte MATCH = 2;
+    static final byte NODE = 3;
+    static final byte MESSAGE_END = 4;
+
+    final String threadName;
+    private final int mask;
+    private final byte[] kinds;
+    private final long[] times;
+    private final int[] values;
+    private final int[] ruleIndexes;
+    // the type of the rule for rule events
+    private final Class<?>[] ruleTypes;
+    // the total amount of events recorded, the next event is written at head & mask
+    private long head;
+
+    // the message being parsed
+    private long messageStartEvent = -1;
+    private long messageStartTime;
+
+    TraceBuffer(String threadName, int capacity) {
+        this.threadName = threadName;
+        this.mask = capacity - 1;
+        this.kinds = new byte[capacity];
+        this.times = new long[capacity];
+        this.values = new int[capacity];
+        this.ruleIndexes = new int[capacity];
+        this.ruleTypes = new Class<?>[capacity];
+    }
+
+    void record(byte kind, int ruleIndex, Class<?> ruleType, int value) {
+        int index = (int) (head & mask);
+        kinds[index] = kind;
+        times[index] = System.nanoTime();
+        values[index] = value;
+        ruleIndexes[index] = ruleIndex;
+        ruleTypes[index] = ruleType;
+        head++;
+    }
+
+    void startMessage(int messageLength) {
+        messageStartEvent = head;
+        record(MESSAGE_START, -1, null, messageLength);
+        messageStartTime = times[(int) (messageStartEvent & mask)];
+    }
+
+    /**
+     * @return the time the message took to parse in nanoseconds
+     */
+    long endMessage(int nodes) {
+        record(MESSAGE_END, -1, null, nodes);
+        return times[(int) ((head - 1) & mask)] - messageStartTime;
+    }
+
+    void dumpLastMessage(StringBuilder output) {
+        long start = messageStartEvent;
+        if (start == -1) {
+            return;
+        }
+        dump(output, Math.max(start, head - mask - 1), head);
+    }
+
+    void dump(StringBuilder output) {
+        dump(output, Math.max(0, head - mask - 1), head);
+    }
+
+    private void dump(StringBuilder output, long from, long to) {
+        // if the start of the message was overwritten, times are relative to the oldest event
+        long messageStart = times[(int) (from & mask)];
+        for (long event = from; event < to; event++) {
+            int index = (int) (event & mask);
+            long time = times[index];
+            switch (kinds[index]) {
+                case MESSAGE_START:
+                    messageStart = time;
+                    output.append("[").append(threadName).append("] message (").append(values[index]).append(" chars)\n");
+                    continue;
+                case ATTEMPT:
+                    appendTime(output, time - messageStart).append("attempt ");
+                    appendRule(output, index).append(" at ");
+                    if (values[index] >= 0) {
+                        output.append(values[index]);
+                    } else {
+                        output.append('?');
+                    }
+                    break;
+                case MATCH:
+                    appendTime(output, time - messageStart).append("match ");
+                    appendRule(output, index).append(", ").append(values[index]).append(" chars");
+                    break;
+                case NODE:
+                    appendTime(output, time - messageStart).append("node ");
+                    appendRule(output, index);
+                    break;
+                case MESSAGE_END:
+                    appendTime(output, time - messageStart).append("parsed into ").append(values[index]).append(" nodes");
+                    break;
+                default:
+                    continue;
+            }
+            output.append('\n');
+        }
+    }
+
+    private StringBuilder appendRule(StringBuilder output, int index) {
+        Class<?> ruleType = ruleTypes[index];
+        return output.append("rule #").append(ruleIndexes[index]).append(" (").append(ruleType != null ? ruleType.getName() : "?").append(')');
+    }
+
+    private static StringBuilder appendTime(StringBuilder output, long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        return output.append("  +").append(micros / 1000).append('.').append((char) ('0' + micros / 100 % 10))
+                .append((char) ('0' + micros / 10 % 10)).append((char) ('0' + micros % 10)).append(" ms ");
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.trace;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A region of the message being traced that knows where it starts in the message.
+ * The parser inspects the subsequence of every region it parses, for a {@link TracedSource} that's another
+ * {@link TracedSource} instead of a copy, so the {@link TracingRule}s can record the offset of their attempts.
+ *
+ * <p>The rules themselves are given the region as a {@link String}, which is copied once per region like the parser would.</p>
+ */
+final class TracedSource implements CharSequence {
+
+    private final String message;
+    private final int start;
+    private final int end;
+    private String string;
+
+    TracedSource(String message) {
+        this(message, 0, message.length());
+    }
+
+    private TracedSource(String message, int start, int end) {
+        this.message = message;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return the offset of this region in the message
+     */
+    int getStart() {
+        return this.start;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new StringIndexOutOfBoundsException(index);
+        }
+        return message.charAt(start + index);
+    }
+
+    @Override
+    public @NotNull CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > this.end - this.start || start > end) {
+            throw new StringIndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length());
+        }
+        return new TracedSource(message, this.start + start, this.start + end);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        String string = this.string;
+        if (string == null) {
+            string = this.string = message.substring(start, end);
+        }
+        return string;
+    }
+}
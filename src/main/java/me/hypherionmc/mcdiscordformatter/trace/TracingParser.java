@@ -0,0 +1,83 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.trace;
+
+import dev.vankka.simpleast.core.node.Node;
+import dev.vankka.simpleast.core.parser.Parser;
+import dev.vankka.simpleast.core.parser.Rule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Parser} tracing every message it parses, with the rules it's given wrapped in {@link TracingRule}s.
+ * Messages are parsed as a {@link TracedSource}, so attempts are recorded at their offset in the message.
+ */
+final class TracingParser extends Parser<Object, Node<Object>, Object> {
+
+    private final ParseTracer tracer;
+    // the last rules and their tracing versions, rule lists of options don't change so this is almost always a hit
+    private volatile WrappedRules wrappedRules;
+
+    TracingParser(ParseTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public List<Node<Object>> parse(CharSequence source, Object initialState,
+                                    List<? extends Rule<Object, ? extends Node<Object>, Object>> rules, boolean log) {
+        List<Rule<Object, Node<Object>, Object>> tracingRules = wrap(rules);
+        TraceBuffer buffer = tracer.buffer();
+        buffer.startMessage(source.length());
+        List<Node<Object>> nodes = null;
+        try {
+            nodes = super.parse(new TracedSource(source.toString()), initialState, tracingRules, log);
+            return nodes;
+        } finally {
+            long nanos = buffer.endMessage(nodes != null ? nodes.size() : -1);
+            tracer.messageParsed(buffer, nanos);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Rule<Object, Node<Object>, Object>> wrap(List<? extends Rule<Object, ? extends Node<Object>, Object>> rules) {
+        WrappedRules wrapped = wrappedRules;
+        if (wrapped != null && wrapped.rules == rules) {
+            return wrapped.tracingRules;
+        }
+
+        List<Rule<Object, Node<Object>, Object>> tracingRules = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            Rule<Object, Node<Object>, Object> rule = (Rule<Object, Node<Object>, Object>) rules.get(i);
+            tracingRules.add(rule instanceof TracingRule ? rule : new TracingRule(tracer, rule, i));
+        }
+        wrappedRules = new WrappedRules(rules, tracingRules);
+        return tracingRules;
+    }
+
+    private static final class WrappedRules {
+        private final List<?> rules;
+        private final List<Rule<Object, Node<Object>, Object>> tracingRules;
+
+        private WrappedRules(List<?> rules, List<Rule<Object, Node<Object>, Object>> tracingRules) {
+            this.rules = rules;
+            this.tracingRules = tracingRules;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.trace;
+
+import dev.vankka.simpleast.core.node.Node;
+import dev.vankka.simpleast.core.parser.ParseSpec;
+import dev.vankka.simpleast.core.parser.Parser;
+import dev.vankka.simpleast.core.parser.Rule;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link Rule} recording the attempts, matches and parses of another rule into the {@link TraceBuffer} of the current thread.
+ */
+final class TracingRule extends Rule<Object, Node<Object>, Object> {
+
+    // never used, matching is delegated
+    private static final Pattern NEVER = Pattern.compile("(?!)");
+
+    private final ParseTracer tracer;
+    private final Rule<Object, Node<Object>, Object> delegate;
+    private final int index;
+
+    TracingRule(ParseTracer tracer, Rule<Object, Node<Object>, Object> delegate, int index) {
+        super(NEVER);
+        this.tracer = tracer;
+        this.delegate = delegate;
+        this.index = index;
+    }
+
+    @Override
+    public Matcher match(CharSequence inspectionSource, String lastCapture, Object state) {
+        TraceBuffer buffer = tracer.buffer();
+        int offset = -1;
+        if (inspectionSource instanceof TracedSource) {
+            offset = ((TracedSource) inspectionSource).getStart();
+            // the same regions the rules would get without tracing
+            inspectionSource = inspectionSource.toString();
+        }
+        buffer.record(TraceBuffer.ATTEMPT, index, delegate.getClass(), offset);
+        Matcher matcher = delegate.match(inspectionSource, lastCapture, state);
+        if (matcher != null) {
+            buffer.record(TraceBuffer.MATCH, index, delegate.getClass(), matcher.end() - matcher.start());
+        }
+        return matcher;
+    }
+
+    @Override
+    public ParseSpec<Object, Node<Object>, Object> parse(Matcher matcher, Parser<Object, Node<Object>, Object> parser, Object state) {
+        ParseSpec<Object, Node<Object>, Object> spec = delegate.parse(matcher, parser, state);
+        tracer.buffer().record(TraceBuffer.NODE, index, delegate.getClass(), 0);
+        return spec;
+    }
+
+    Rule<Object, Node<Object>, Object> getDelegate() {
+        return this.delegate;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.warmup;
+
+import dev.vankka.simpleast.core.parser.Parser;
+import me.hypherionmc.mcdiscordformatter.discord.DiscordSerializer;
+import me.hypherionmc.mcdiscordformatter.discord.DiscordSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.highlight.CodeHighlighter;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.renderer.implementation.AnsiConsoleRenderer;
+import me.hypherionmc.mcdiscordformatter.rules.DiscordMarkdownRules;
+import net.minecraft.network.chat.MutableComponent;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Warms up the serializers at startup, so the first chat messages don't pay for class loading, regex compilation
+ * and interpreted rendering. A built-in corpus covering all markdown, mentions, timestamps, links and code blocks is
+ * serialized from Discord to Minecraft, escaped, rendered for the console and serialized back to Discord.
+ *
+ * <pre>{@code
+ * FormatterWarmup.of(MinecraftSerializer.INSTANCE, DiscordSerializer.INSTANCE)
+ *         .runAsync()
+ *         .thenAccept(duration -> logger.info("Formatter warmed up in {} ms", duration.toMillis()));
+ * }</pre>
+ *
+ * <p>The corpus only produces literal components, so the Discord serializer's keybind and translation providers
+ * are never called and the warm-up is safe to run off the main thread. The serializers' default options are used
+ * without their mention resolver, mention linker and parse tracer, so the warm-up doesn't look up the corpus' mentions
+ * or fill caches and traces with it.</p>
+ */
+public final class FormatterWarmup {
+
+    /**
+     * The default amount of times the corpus is serialized, enough for the hot paths to be compiled.
+     */
+    public static final int DEFAULT_ITERATIONS = 200;
+
+    private static final List<String> DEFAULT_CORPUS = Collections.unmodifiableList(Arrays.asList(
+            "hello there",
+            "**bold** *italics* _italics_ __underline__ ~~strikethrough~~ ***bold italics***",
+            "`code` and ||a spoiler with **bold**|| and \\*escaped\\*",
+            "```java\npublic static void main(String[] args) {\n    System.out.println(\"hi\"); // comment\n}\n```",
+            "```json\n{\"key\": [1, 2.5, true, null]}\n```",
+            "```log\n[12:00:00] [Server thread/WARN]: Can't keep up!\n```",
+            "> a quote\n> with a **second** line",
+            "<@80351110224678912> <@!80351110224678912> <@&165511591545143296> <#103735883630395392>",
+            "<:mmLol:216154654256398347> <a:b1nzy:392938283556143104> 😄 ❤️",
+            "<t:1700000000> <t:1700000000:t> <t:1700000000:D> <t:1700000000:R>",
+            "https://example.com/path?query=1 and [a masked link](https://example.com)",
+            "__***~~everything at once~~***__ `with code` ||and a spoiler||"
+    ));
+
+    private final MinecraftSerializer minecraftSerializer;
+    private final DiscordSerializer discordSerializer;
+    private final List<String> corpus;
+    private final int iterations;
+
+    private FormatterWarmup(MinecraftSerializer minecraftSerializer, DiscordSerializer discordSerializer, List<String> corpus, int iterations) {
+        this.minecraftSerializer = minecraftSerializer;
+        this.discordSerializer = discordSerializer;
+        this.corpus = corpus;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Creates a {@link FormatterWarmup} for the given serializers, with the built-in corpus and {@value #DEFAULT_ITERATIONS} iterations.
+     *
+     * @param minecraftSerializer the serializer for Discord to Minecraft, warmed up with its default options
+     * @param discordSerializer   the serializer for Minecraft to Discord, warmed up with its default options
+     * @return the new {@link FormatterWarmup}
+     */
+    public static FormatterWarmup of(@NotNull MinecraftSerializer minecraftSerializer, @NotNull DiscordSerializer discordSerializer) {
+        return new FormatterWarmup(minecraftSerializer, discordSerializer, DEFAULT_CORPUS, DEFAULT_ITERATIONS);
+    }
+
+    /**
+     * Sets the Discord messages to warm up with, for example a sample of real messages of the server.
+     *
+     * @param corpus the Discord messages
+     * @return the new instance of {@link FormatterWarmup}
+     */
+    public FormatterWarmup withCorpus(@NotNull List<String> corpus) {
+        if (corpus.isEmpty()) {
+            throw new IllegalArgumentException("The corpus cannot be empty");
+        }
+        return new FormatterWarmup(minecraftSerializer, discordSerializer, Collections.unmodifiableList(new ArrayList<>(corpus)), iterations);
+    }
+
+    /**
+     * Sets the amount of times the corpus is serialized.
+     *
+     * @param iterations the amount of iterations
+     * @return the new instance of {@link FormatterWarmup}
+     */
+    public FormatterWarmup withIterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be at least 1");
+        }
+        return this.iterations == iterations ? this : new FormatterWarmup(minecraftSerializer, discordSerializer, corpus, iterations);
+    }
+
+    public @NotNull List<String> getCorpus() {
+        return this.corpus;
+    }
+
+    public int getIterations() {
+        return this.iterations;
+    }
+
+    /**
+     * Runs the warm-up on the current thread.
+     *
+     * @return how long the warm-up took
+     */
+    public @NotNull Duration run() {
+        long start = System.nanoTime();
+
+        // loads the rule classes and compiles their patterns
+        DiscordMarkdownRules.createAllRulesForDiscord(true);
+        MinecraftSerializerOptions<MutableComponent> options = withoutSideEffects(minecraftSerializer.getDefaultOptions());
+        MinecraftSerializerOptions<MutableComponent> highlightedOptions = options.withCodeHighlighter(CodeHighlighter.defaults());
+        MinecraftSerializerOptions<String> markdownOptions = withoutSideEffects(minecraftSerializer.getMarkdownDefaultOptions());
+        DiscordSerializerOptions discordOptions = discordSerializer.getDefaultOptions().withMentionLinker(null);
+        AnsiConsoleRenderer consoleRenderer = new AnsiConsoleRenderer(minecraftSerializer, DiscordMarkdownRules.createAllRulesForDiscord(true));
+
+        for (int i = 0; i < iterations; i++) {
+            for (String message : corpus) {
+                MutableComponent component = minecraftSerializer.serialize(message, (i & 1) == 0 ? options : highlightedOptions);
+                discordSerializer.serialize(component, discordOptions);
+                minecraftSerializer.escapeMarkdown(message, markdownOptions);
+                consoleRenderer.render(message);
+            }
+        }
+
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns a copy of the options that doesn't resolve mentions or trace parsing, the corpus' mentions
+     * would otherwise be looked up and cached, and its messages would show up in traces and slow message counts.
+     */
+    private static <O> MinecraftSerializerOptions<O> withoutSideEffects(MinecraftSerializerOptions<O> serializerOptions) {
+        return serializerOptions.withMentionResolver(null).withParser(new Parser<>());
+    }
+
+    /**
+     * Runs the warm-up on a new daemon thread.
+     *
+     * @return a future completed with how long the warm-up took
+     */
+    public @NotNull CompletableFuture<Duration> runAsync() {
+        return runAsync(runnable -> {
+            Thread thread = new Thread(runnable, "MCDiscordFormatter Warmup");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * Runs the warm-up with the given executor.
+     *
+     * @param executor the executor to run the warm-up with
+     * @return a future completed with how long the warm-up took
+     */
+    public @NotNull CompletableFuture<Duration> runAsync(@NotNull Executor executor) {
+        return CompletableFuture.supplyAsync(this::run, executor);
+    }
+
+    public String toString() {
+        return "FormatterWarmup(corpus=" + this.corpus.size() + " messages, iterations=" + this.iterations + ")";
+    }
+}
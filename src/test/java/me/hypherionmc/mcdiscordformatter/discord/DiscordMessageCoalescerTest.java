@@ -0,0 +1,93 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.discord;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiscordMessageCoalescerTest {
+
+    private static List<String> coalesce(DiscordSerializerOptions options, Component... components) {
+        List<String> messages = new ArrayList<>();
+        DiscordMessageCoalescer coalescer = new DiscordMessageCoalescer(new DiscordSerializer(), options, Duration.ofHours(1), messages::add);
+        for (Component component : components) {
+            coalescer.add(component.copy());
+        }
+        coalescer.flush();
+        return messages;
+    }
+
+    private static String words(String word, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(word).append(' ');
+        }
+        return builder.toString().trim();
+    }
+
+    @Test
+    void mergesMessagesIntoLines() {
+        assertEquals(List.of("a\nb"), coalesce(DiscordSerializerOptions.defaults(), Component.literal("a"), Component.literal("b")));
+    }
+
+    @Test
+    void closesAndReopensFormattingAtSplits() {
+        String text = words("word", 700);
+        List<String> messages = coalesce(DiscordSerializerOptions.defaults(),
+                Component.literal(text).withStyle(ChatFormatting.BOLD, ChatFormatting.STRIKETHROUGH));
+        assertEquals(2, messages.size());
+        StringBuilder joined = new StringBuilder();
+        for (String message : messages) {
+            assertTrue(message.length() <= DiscordMessageCoalescer.MAX_MESSAGE_LENGTH);
+            assertTrue(message.startsWith("**~~") && message.endsWith("~~**"), message);
+            joined.append(message, 4, message.length() - 4);
+        }
+        assertEquals(text, joined.toString());
+    }
+
+    @Test
+    void reopensCodeBlocksWithTheirLanguage() {
+        String code = words("x\n", 1000);
+        List<String> messages = coalesce(DiscordSerializerOptions.defaults().withEscapeMarkdown(false),
+                Component.literal("||a **b ```java\n" + code + "\n```||"));
+        assertEquals(2, messages.size());
+        assertTrue(messages.get(0).startsWith("||a **b ```java\n"));
+        assertTrue(messages.get(0).endsWith("```**||"), messages.get(0));
+        assertTrue(messages.get(1).startsWith("||**```java\n"), messages.get(1));
+        assertTrue(messages.get(1).endsWith("```||"));
+    }
+
+    @Test
+    void markersInCodeAreIgnored() {
+        List<String> messages = coalesce(DiscordSerializerOptions.defaults().withEscapeMarkdown(false),
+                Component.literal("`**` " + words("word", 500)));
+        assertEquals(2, messages.size());
+        assertTrue(messages.get(0).endsWith("word "), messages.get(0));
+        assertTrue(messages.get(1).startsWith("word"), messages.get(1));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.discord;
+
+import me.hypherionmc.mcdiscordformatter.emoji.EmojiTranslator;
+import me.hypherionmc.mcdiscordformatter.mention.MentionLinker;
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.ClickEvent;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DiscordSerializerTest {
+
+    private static final DiscordSerializer SERIALIZER = new DiscordSerializer();
+
+    @Test
+    void mergesSegmentsWithTheSameMarkdown() {
+        MutableComponent component = Component.literal("a").withStyle(ChatFormatting.BOLD, ChatFormatting.RED)
+                .append(Component.literal("b").withStyle(ChatFormatting.BOLD, ChatFormatting.BLUE)
+                        .append(Component.literal("c").withStyle(ChatFormatting.ITALIC)));
+        assertEquals("**ab**\u200B_c_", SERIALIZER.serialize(component));
+    }
+
+    @Test
+    void mergesLongRuns() {
+        MutableComponent component = Component.empty();
+        MutableComponent parent = component;
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            MutableComponent child = Component.literal(Integer.toString(i % 10));
+            parent.append(child);
+            parent = child;
+            expected.append(i % 10);
+        }
+        assertEquals(expected.toString(), SERIALIZER.serialize(component));
+    }
+
+    @Test
+    void onlyTheTextOfLinksIsEscaped() {
+        String url = "https://example.com/some_page?q=*~x";
+        MutableComponent component = Component.literal("see ").append(Component.literal("some_page")
+                .withStyle(style -> style.withClickEvent(new ClickEvent(ClickEvent.Action.OPEN_URL, url))));
+        assertEquals("see \u200B[some\\_page](" + url + ")", SERIALIZER.serialize(component, true));
+        assertEquals("see some\\_page", SERIALIZER.serialize(component, false));
+    }
+
+    @Test
+    void linkTextIsKeptAsWritten() {
+        DiscordSerializerOptions options = DiscordSerializerOptions.defaults().withEmbedLinks(true)
+                .withEmojiTranslator(EmojiTranslator.defaults())
+                .withMentionLinker(new MentionLinker(Map.of("steve", 1L), false));
+        MutableComponent component = Component.literal("steve :fire: ").append(Component.literal("steve :fire:")
+                .withStyle(style -> style.withClickEvent(new ClickEvent(ClickEvent.Action.OPEN_URL, "https://example.com"))));
+        assertEquals("<@1> 🔥 \u200B[steve :fire:](https://example.com)", SERIALIZER.serialize(component, options));
+    }
+
+    @Test
+    void webhookBuffersUseTheDefaultOptions() {
+        MutableComponent component = Component.literal("<@1> \"a\"").withStyle(ChatFormatting.BOLD);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        WebhookContent result = SERIALIZER.serializeWebhook(component, buffer);
+        String json = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        assertEquals("\"" + SERIALIZER.serialize(component).replace("\"", "\\\"") + "\"", json);
+        assertEquals(buffer.position(), result.getLength());
+        assertArrayEquals(new long[] {1}, result.getUserIds());
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.discord;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonStringWriterTest {
+
+    private static String write(String content, WebhookContent[] result) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonStringWriter writer = JsonStringWriter.of(output);
+        writer.begin();
+        writer.append(content);
+        result[0] = writer.end();
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void escapesJson() throws IOException {
+        WebhookContent[] result = new WebhookContent[1];
+        String json = write("a \"b\" \\ \n\u0001 \u00e9", result);
+        assertEquals("\"a \\\"b\\\" \\\\ \\n\\u0001 \u00e9\"", json);
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length, result[0].getLength());
+    }
+
+    @Test
+    void writesMoreThanTheBuffer() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            content.append(i % 10).append('\u00e9');
+        }
+        WebhookContent[] result = new WebhookContent[1];
+        String json = write(content.toString(), result);
+        assertEquals('"' + content.toString() + '"', json);
+        assertEquals(json.getBytes(StandardCharsets.UTF_8).length, result[0].getLength());
+    }
+
+    @Test
+    void collectsMentionsUpToTheLargestSnowflake() throws IOException {
+        WebhookContent[] result = new WebhookContent[1];
+        write("<@18446744073709551615> <@!42> <@&7> <@42>", result);
+        assertArrayEquals(new long[] {-1L, 42}, result[0].getUserIds());
+        assertArrayEquals(new long[] {7}, result[0].getRoleIds());
+    }
+
+    @Test
+    void ignoresIdsThatOverflow() throws IOException {
+        WebhookContent[] result = new WebhookContent[1];
+        write("<@18446744073709551616> <@99999999999999999999> <@&123456789012345678901>", result);
+        assertArrayEquals(new long[0], result[0].getUserIds());
+        assertArrayEquals(new long[0], result[0].getRoleIds());
+    }
+
+    @Test
+    void writesToByteBuffer() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        JsonStringWriter writer = JsonStringWriter.of(buffer);
+        writer.begin();
+        writer.append("<@&1> ok");
+        WebhookContent result = writer.end();
+        assertEquals("\"<@&1> ok\"", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+        assertEquals(buffer.position(), result.getLength());
+        assertArrayEquals(new long[] {1}, result.getRoleIds());
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.emoji;
+
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import net.minecraft.network.chat.MutableComponent;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmojiTranslatorTest {
+
+    @Test
+    void translatesBothWays() {
+        EmojiTranslator translator = EmojiTranslator.defaults();
+        assertEquals("I :fire: it", translator.toShortcodes("I 🔥 it"));
+        assertEquals("I 🔥 it", translator.toUnicode("I :fire: it"));
+        // with and without the variation selector
+        assertEquals(":heart: :heart:", translator.toShortcodes("❤️ ❤"));
+        assertEquals(":not_an_emoji:", translator.toUnicode(":not_an_emoji:"));
+    }
+
+    @Test
+    void firstShortcodeIsUsed() {
+        Map<String, String> table = new LinkedHashMap<>();
+        table.put(":a:", "x");
+        table.put(":b:", "x");
+        EmojiTranslator translator = EmojiTranslator.of(table);
+        assertEquals(":a:", translator.toShortcodes("x"));
+        assertEquals("xx", translator.toUnicode(":a::b:"));
+        assertThrows(IllegalArgumentException.class, () -> EmojiTranslator.of(Map.of("a", "x")));
+    }
+
+    @Test
+    void codeIsNotTranslated() {
+        MinecraftSerializerOptions<MutableComponent> options = MinecraftSerializerOptions.defaults()
+                .withEmojiTranslator(EmojiTranslator.defaults());
+        assertEquals(":fire: 🔥 🔥",
+                new MinecraftSerializer().serialize("🔥 `🔥` ```\n🔥\n```", options).getString());
+    }
+}
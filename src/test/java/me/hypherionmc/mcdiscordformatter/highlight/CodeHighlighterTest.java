@@ -0,0 +1,68 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CodeHighlighterTest {
+
+    private static final String CODE = "int a;\nint b;\nint c;";
+
+    private static String highlighted(MutableComponent component) {
+        StringBuilder highlighted = new StringBuilder();
+        for (Component sibling : component.getSiblings()) {
+            if (sibling.getStyle().getColor() != null) {
+                highlighted.append(sibling.getString());
+            }
+        }
+        return highlighted.toString();
+    }
+
+    @Test
+    void linesAfterTheMaximumAreNotHighlighted() {
+        MutableComponent component = CodeHighlighter.defaults().withMaxLines(2).highlight("java", CODE);
+        assertEquals(CODE, component.getString());
+        assertEquals("intint", highlighted(component));
+    }
+
+    @Test
+    void zeroMaxLinesHighlightsNothing() {
+        MutableComponent component = CodeHighlighter.defaults().withMaxLines(0).highlight("java", CODE);
+        assertEquals(CODE, component.getString());
+        assertEquals("", highlighted(component));
+    }
+
+    @Test
+    void charactersAfterTheMaximumAreNotHighlighted() {
+        MutableComponent component = CodeHighlighter.defaults().withMaxCharacters(10).highlight("java", CODE);
+        assertEquals(CODE, component.getString());
+        assertEquals("intint", highlighted(component));
+    }
+
+    @Test
+    void linePrefixesFollowEveryLineBreak() {
+        MutableComponent component = CodeHighlighter.defaults().highlight("java", "/* a\nb */\nint x", Component.literal("| "));
+        assertEquals("/* a\n| b */\n| int x", component.getString());
+    }
+}
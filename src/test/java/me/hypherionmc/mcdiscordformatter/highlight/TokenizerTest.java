@@ -0,0 +1,83 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.highlight;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TokenizerTest {
+
+    private static List<String> tokens(Tokenizer tokenizer, String code) {
+        List<String> tokens = new ArrayList<>();
+        tokenizer.tokenize(code, code.length(), (type, start, end) -> tokens.add(type + " " + code.substring(start, end)));
+        return tokens;
+    }
+
+    @Test
+    void logLevelsAndTimestamps() {
+        assertEquals(Arrays.asList("TIMESTAMP 12:34:56", "LEVEL_INFO INFO"),
+                tokens(LogTokenizer.INSTANCE, "[12:34:56] [Server thread/INFO]: Done"));
+        assertEquals(Arrays.asList("TIMESTAMP 2024-01-01 12:34:56,789", "LEVEL_ERROR ERROR", "COMMENT at Main.main(Main.java:1)"),
+                tokens(LogTokenizer.INSTANCE, "2024-01-01 12:34:56,789 ERROR boom\n\tat Main.main(Main.java:1)"));
+    }
+
+    @Test
+    void logTimestampNeedsAColonOnItsOwnLine() {
+        // the colon of the second line doesn't make the date of the first one a timestamp
+        assertEquals(Arrays.asList("LEVEL_WARNING WARN", "TIMESTAMP 12:00:00"),
+                tokens(LogTokenizer.INSTANCE, "2024-01-01 WARN\n12:00:00 ok"));
+    }
+
+    @Test
+    void javaTokens() {
+        assertEquals(Arrays.asList("KEYWORD int", "NUMBER 42", "STRING \"a\\\"b\"", "COMMENT // done"),
+                tokens(JavaTokenizer.INSTANCE, "int x = 42 + \"a\\\"b\"; // done"));
+    }
+
+    @Test
+    void jsonTokens() {
+        assertEquals(Arrays.asList("KEY \"a\"", "NUMBER 1", "KEY \"b\"", "STRING \"c\"", "KEYWORD true"),
+                tokens(JsonTokenizer.INSTANCE, "{\"a\": 1, \"b\": [\"c\", true]}"));
+    }
+
+    @Test
+    void shellTokens() {
+        assertEquals(Arrays.asList("KEYWORD if", "STRING \"$HOME\"", "KEYWORD then", "VARIABLE $HOME", "KEYWORD fi", "COMMENT # home"),
+                tokens(ShellTokenizer.INSTANCE, "if [ -d \"$HOME\" ]; then cd $HOME; fi # home"));
+    }
+
+    @Test
+    void yamlTokens() {
+        assertEquals(Arrays.asList("KEY name", "STRING \"x\"", "COMMENT # note"),
+                tokens(YamlTokenizer.INSTANCE, "name: \"x\" # note"));
+    }
+
+    @Test
+    void unsupportedLanguagesAreNotHighlighted() {
+        assertNull(CodeHighlighter.defaults().highlight("brainfuck", "+++"));
+        assertEquals("int x", CodeHighlighter.defaults().highlight("java", "int x").getString());
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.mention;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MentionLinkerTest {
+
+    private static final Map<String, Long> NAMES = Map.of("Steve", 1L, "example", 2L, "Alex Smith", 3L);
+
+    @Test
+    void linksNamesOnWordBoundaries() {
+        MentionLinker linker = new MentionLinker(NAMES, false);
+        assertEquals("hi <@1>!", linker.link("hi @steve!"));
+        assertEquals("<@1> and <@3>", linker.link("Steve and alex smith"));
+        String text = "Steven and steve_2";
+        assertSame(text, linker.link(text));
+    }
+
+    @Test
+    void skipsEmailAddressesAndUrls() {
+        MentionLinker linker = new MentionLinker(NAMES, false);
+        String email = "mail steve@example.com";
+        assertSame(email, linker.link(email));
+        assertEquals("see https://example.com/steve <@1>", linker.link("see https://example.com/steve steve"));
+    }
+
+    @Test
+    void requiresTheAtSign() {
+        MentionLinker linker = new MentionLinker(NAMES, true);
+        assertEquals("steve <@1>", linker.link("steve @Steve"));
+        assertEquals(0, new MentionLinker(true).size());
+        assertEquals(3, linker.size());
+    }
+}
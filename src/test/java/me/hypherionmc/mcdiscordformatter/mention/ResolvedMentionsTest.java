@@ -0,0 +1,74 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.mention;
+
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.node.MentionNode;
+import net.minecraft.network.chat.MutableComponent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResolvedMentionsTest {
+
+    @Test
+    void collectsDistinctMentions() {
+        ResolvedMentions mentions = ResolvedMentions.collect("<@1> <@!1> <@&2> <#3> <@4>");
+        assertEquals(2, mentions.size(MentionNode.Kind.USER));
+        assertEquals(1, mentions.getId(MentionNode.Kind.USER, 0));
+        assertEquals(4, mentions.getId(MentionNode.Kind.USER, 1));
+        assertEquals(2, mentions.getId(MentionNode.Kind.ROLE, 0));
+        assertEquals(3, mentions.getId(MentionNode.Kind.CHANNEL, 0));
+    }
+
+    @Test
+    void skipsCode() {
+        ResolvedMentions mentions = ResolvedMentions.collect("`<@1>` ```\n<@2>\n``` ``<@3>` <@4>");
+        assertEquals(1, mentions.size(MentionNode.Kind.USER));
+        assertEquals(4, mentions.getId(MentionNode.Kind.USER, 0));
+    }
+
+    @Test
+    void unclosedBacktickIsNotCode() {
+        ResolvedMentions mentions = ResolvedMentions.collect("`<@1>\n` \\`<@2>`");
+        assertEquals(2, mentions.size(MentionNode.Kind.USER));
+    }
+
+    @Test
+    void skipsOverflowingIds() {
+        assertTrue(ResolvedMentions.collect("<@18446744073709551616> <@99999999999999999999>").isEmpty());
+        assertEquals(-1L, ResolvedMentions.collect("<@18446744073709551615>").getId(MentionNode.Kind.USER, 0));
+    }
+
+    @Test
+    void namesAreRenderedWithoutChangingTheOptions() {
+        InMemoryMentionResolver resolver = new InMemoryMentionResolver().putUser(1, "Alex").putUser(2, "Sam");
+        MinecraftSerializerOptions<MutableComponent> options = MinecraftSerializerOptions.defaults()
+                .withMentionResolver(resolver);
+        MinecraftSerializer serializer = new MinecraftSerializer(options, MinecraftSerializerOptions.escapeDefaults());
+
+        assertEquals("hi @Alex", serializer.serialize("hi <@1>").getString());
+        assertEquals("hi @Sam and <@1>", serializer.serialize("hi <@2> and `<@1>`").getString());
+        assertEquals(options, serializer.getDefaultOptions());
+        // the code isn't looked up
+        assertEquals(2, resolver.getLookupCount());
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BroadcastMessageTest {
+
+    private static final MinecraftSerializer SERIALIZER = new MinecraftSerializer();
+
+    @Test
+    void codeBlockWithBlankLinesIsOneBlock() {
+        BroadcastMessage message = SERIALIZER.serializeBroadcast("hi <@1>\n\n```sh\necho `date\n\n<@1>\n```");
+        assertEquals(2, message.getBlockCount());
+    }
+
+    @Test
+    void overlaysRenderLikeTheSharedMessage() {
+        BroadcastMessage message = SERIALIZER.serializeBroadcast("||secret||\n\nhi <@1>");
+        RecipientOverlay reveal = RecipientOverlay.none().withSpoilerMode(RecipientOverlay.SpoilerMode.REVEAL);
+        assertSame(message.getComponent(), message.render(RecipientOverlay.none()));
+        assertEquals(SERIALIZER.serialize("secret\n\nhi <@1>").getString(), message.render(reveal).getString());
+        assertSame(message.render(reveal), message.render(reveal));
+        assertEquals(message.getComponent().getString(), message.render(RecipientOverlay.none().withHighlightedUser(1)).getString());
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import me.hypherionmc.mcdiscordformatter.highlight.CodeHighlighter;
+import me.hypherionmc.mcdiscordformatter.renderer.implementation.AnsiConsoleRenderer;
+import net.minecraft.network.chat.MutableComponent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FanOutTraversalTest {
+
+    private static final String[] MESSAGES = {
+            "plain text",
+            "**bold** *italics* __underline__ ~~strike~~ `code` ||spoiler||",
+            "***nested __deeply ~~styled~~__***",
+            "> quote **bold\n> more** text\nafter",
+            "```java\nint x = 1;\n```\n```\nplain\n```",
+            "hi <@1> <@&2> <#3> <:emote:4> <t:0:R>",
+            "see https://example.com/some_page and [masked](https://example.com)",
+            "escaped \\*not bold\\* and \\`not code\\`",
+    };
+
+    @Test
+    void fanOutRendersLikeEachTargetAlone() {
+        MinecraftSerializer serializer = new MinecraftSerializer();
+        MinecraftSerializerOptions<MutableComponent> componentOptions = MinecraftSerializerOptions.defaults()
+                .withCodeHighlighter(CodeHighlighter.defaults());
+        // every target sees the parse of the component options
+        MinecraftSerializerOptions<String> escapeOptions = new MinecraftSerializerOptions<>(componentOptions.getParser(),
+                componentOptions.getRules(), MinecraftSerializerOptions.escapeDefaults().getRenderers(), false);
+        AnsiConsoleRenderer ansi = new AnsiConsoleRenderer();
+
+        RenderTarget<MutableComponent> component = RenderTarget.component(componentOptions);
+        RenderTarget<String> escaped = RenderTarget.string(escapeOptions);
+        RenderTarget<String> console = RenderTarget.string(ansi.getSerializerOptions());
+        for (String message : MESSAGES) {
+            RenderResults results = serializer.serializeAll(message, componentOptions, component, escaped, console);
+            assertEquals(serializer.serialize(message, componentOptions), results.get(component), message);
+            assertEquals(serializer.escapeMarkdown(message, escapeOptions), results.get(escaped), message);
+            assertEquals(ansi.render(message), results.get(console), message);
+        }
+    }
+}
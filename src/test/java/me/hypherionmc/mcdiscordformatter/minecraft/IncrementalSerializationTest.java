@@ -0,0 +1,95 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IncrementalSerializationTest {
+
+    private static final MinecraftSerializer SERIALIZER = new MinecraftSerializer();
+
+    @Test
+    void splitsAtBlankLines() {
+        assertArrayEquals(new int[] {3, 6, 7}, IncrementalSerialization.findBlockEnds("a\n\nb\n\nc"));
+        assertArrayEquals(new int[] {4}, IncrementalSerialization.findBlockEnds("a\n\n\n"));
+    }
+
+    @Test
+    void doesNotSplitInsideCodeBlocks() {
+        // the single backtick in the code block used to leave the markdown balance odd, balancing it at the blank line
+        assertArrayEquals(new int[] {25}, IncrementalSerialization.findBlockEnds("```sh\necho `date\n\nfoo\n```"));
+        assertArrayEquals(new int[] {16}, IncrementalSerialization.findBlockEnds("```\n**a\n\n*b*\n```"));
+    }
+
+    @Test
+    void splitsNextToCodeBlocks() {
+        assertArrayEquals(new int[] {11, 16}, IncrementalSerialization.findBlockEnds("```\na\n```\n\nafter"));
+        assertArrayEquals(new int[] {8, 11}, IncrementalSerialization.findBlockEnds("before\n\n`a`"));
+    }
+
+    @Test
+    void markdownInsideInlineCodeIsNotFormatting() {
+        assertArrayEquals(new int[] {6, 7}, IncrementalSerialization.findBlockEnds("`**`\n\nb"));
+        assertArrayEquals(new int[] {10, 11}, IncrementalSerialization.findBlockEnds("`a` `||`\n\nb"));
+    }
+
+    @Test
+    void unclosedInlineCodeDoesNotSpanLines() {
+        assertArrayEquals(new int[] {4, 6}, IncrementalSerialization.findBlockEnds("`a\n\nb`"));
+    }
+
+    @Test
+    void doesNotSplitInsideSpoilersOrEmphasis() {
+        assertArrayEquals(new int[] {8}, IncrementalSerialization.findBlockEnds("||a\n\nb||"));
+        assertArrayEquals(new int[] {8}, IncrementalSerialization.findBlockEnds("**a\n\nb**"));
+        assertArrayEquals(new int[] {11, 12}, IncrementalSerialization.findBlockEnds("||a|| *b*\n\nc"));
+    }
+
+    @Test
+    void escapedMarkersAreIgnored() {
+        assertArrayEquals(new int[] {5, 6}, IncrementalSerialization.findBlockEnds("\\*a\n\nb"));
+        assertArrayEquals(new int[] {5, 6}, IncrementalSerialization.findBlockEnds("\\`a\n\nb"));
+    }
+
+    @Test
+    void reserializesEditInsideCodeBlock() {
+        String original = "intro\n\n```sh\necho `date\n\nfoo\n```\n\nend";
+        String edited = "intro\n\n```sh\necho `date\n\nbar\n```\n\nend";
+        IncrementalSerialization first = SERIALIZER.serializeIncremental(original);
+        assertEquals(3, first.getBlockCount());
+
+        IncrementalSerialization second = SERIALIZER.reserialize(first, edited);
+        assertEquals(3, second.getBlockCount());
+        assertEquals(2, second.getReusedBlockCount());
+        assertEquals(SERIALIZER.serialize(edited).getString(), second.getComponent().getString());
+    }
+
+    @Test
+    void reserializesEditNextToCodeBlock() {
+        String original = "```\ncode\n```\n\nfirst\n\nlast";
+        String edited = "```\ncode\n```\n\nfirst, edited\n\nlast";
+        IncrementalSerialization second = SERIALIZER.reserialize(SERIALIZER.serializeIncremental(original), edited);
+        assertEquals(3, second.getBlockCount());
+        assertEquals(2, second.getReusedBlockCount());
+        assertEquals(SERIALIZER.serialize(edited).getString(), second.getComponent().getString());
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.minecraft;
+
+import me.hypherionmc.mcdiscordformatter.emoji.EmojiTranslator;
+import net.minecraft.network.chat.MutableComponent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MinecraftSerializerTest {
+
+    private static final MinecraftSerializer SERIALIZER = new MinecraftSerializer();
+
+    @Test
+    void byteSlicesUseTheGivenOptions() {
+        MinecraftSerializerOptions<MutableComponent> options = MinecraftSerializerOptions.defaults()
+                .withEmojiTranslator(EmojiTranslator.defaults());
+        byte[] message = "xx**🔥 a**xx".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(":fire: a", SERIALIZER.serialize(message, 2, message.length - 4, options).getString());
+        assertEquals("🔥 a", SERIALIZER.serialize(message, 2, message.length - 4).getString());
+    }
+}
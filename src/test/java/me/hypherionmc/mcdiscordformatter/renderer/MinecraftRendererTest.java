@@ -0,0 +1,182 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.renderer;
+
+import dev.vankka.simpleast.core.node.Node;
+import me.hypherionmc.mcdiscordformatter.highlight.CodeHighlighter;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.minecraft.RenderResults;
+import me.hypherionmc.mcdiscordformatter.minecraft.RenderTarget;
+import me.hypherionmc.mcdiscordformatter.renderer.implementation.DefaultMinecraftRenderer;
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.contents.PlainTextContents;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinecraftRendererTest {
+
+    private static final MinecraftSerializer SERIALIZER = new MinecraftSerializer();
+
+    @Test
+    void everyQuoteLineIsPrefixed() {
+        assertEquals("| bold\n| more", SERIALIZER.serialize("> **bold\n> more**").getString());
+        assertEquals("| one\n| two\nthree", SERIALIZER.serialize("> one\n> two\nthree").getString());
+    }
+
+    @Test
+    void quotesRenderTheSameInEveryTarget() {
+        String message = "> **bold\n> more** text";
+        RenderTarget<MutableComponent> component = RenderTarget.component(MinecraftSerializerOptions.defaults());
+        RenderTarget<String> escaped = RenderTarget.string(MinecraftSerializerOptions.escapeDefaults());
+        RenderResults results = SERIALIZER.serializeAll(message, MinecraftSerializerOptions.defaults(), component, escaped);
+
+        assertEquals(SERIALIZER.serialize(message).getString(), results.get(component).getString());
+        assertEquals(SERIALIZER.escapeMarkdown(message), results.get(escaped));
+        assertTrue(results.get(escaped).contains("\n> more"));
+    }
+
+    @Test
+    void codeBlocksSpanLines() {
+        assertEquals("a\n**b**", SERIALIZER.serialize("```\na\n**b**\n```").getString());
+    }
+
+    @Test
+    void codeBlocksInQuotesAreHighlighted() {
+        MinecraftSerializerOptions<MutableComponent> options = MinecraftSerializerOptions.defaults()
+                .withCodeHighlighter(CodeHighlighter.defaults());
+        MutableComponent component = SERIALIZER.serialize("> ```java\n> int x\n> ```", options);
+        assertEquals("| int x", component.getString());
+        assertTrue(hasColor(component, ChatFormatting.GOLD));
+    }
+
+    @Test
+    void everyLineOfCodeInQuotesIsPrefixed() {
+        String message = "> ```java\n> int x;\n> /* a\n> b */\n> ```";
+        MinecraftSerializerOptions<MutableComponent> options = MinecraftSerializerOptions.defaults()
+                .withCodeHighlighter(CodeHighlighter.defaults());
+        assertEquals("| int x;\n| /* a\n| b */", SERIALIZER.serialize(message, options).getString());
+        assertEquals("| int x;\n| /* a\n| b */", SERIALIZER.serialize(message).getString());
+    }
+
+    @Test
+    void highlightingKeepsTheCodeForOtherTargets() {
+        String message = "```java\nint x\n```";
+        RenderTarget<MutableComponent> component = RenderTarget.component(MinecraftSerializerOptions.defaults()
+                .withCodeHighlighter(CodeHighlighter.defaults()));
+        RenderTarget<String> escaped = RenderTarget.string(MinecraftSerializerOptions.escapeDefaults());
+        RenderResults results = SERIALIZER.serializeAll(message, MinecraftSerializerOptions.defaults(), component, escaped);
+
+        assertEquals("int x", results.get(component).getString());
+        assertEquals(SERIALIZER.escapeMarkdown(message), results.get(escaped));
+    }
+
+    private static boolean hasColor(Component component, ChatFormatting color) {
+        if (Style.EMPTY.withColor(color).getColor().equals(component.getStyle().getColor())) {
+            return true;
+        }
+        for (Component sibling : component.getSiblings()) {
+            if (hasColor(sibling, color)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void quotePrefixIsShared() {
+        List<Component> prefixes = new ArrayList<>();
+        collectQuotePrefixes(SERIALIZER.serialize("> one\n> two\n> three"), prefixes);
+        assertEquals(3, prefixes.size());
+        assertSame(prefixes.get(0), prefixes.get(1));
+        assertSame(prefixes.get(0), prefixes.get(2));
+        assertSame(prefixes.get(0), DefaultMinecraftRenderer.INSTANCE.appendQuoteLinePrefix(Component.empty()).getSiblings().get(0));
+    }
+
+    @Test
+    void quotePrefixesDontTakeTheFormattingOfTheLine() {
+        MutableComponent component = SERIALIZER.serialize("> *italics\n> more* ~~struck\n> more~~");
+        List<Style> styles = new ArrayList<>();
+        collectQuotePrefixStyles(component, Style.EMPTY, styles);
+
+        assertEquals("| italics\n| more struck\n| more", component.getString());
+        assertEquals(3, styles.size());
+        for (Style style : styles) {
+            assertEquals(Style.EMPTY.withColor(ChatFormatting.DARK_GRAY).getColor(), style.getColor());
+            assertTrue(style.isBold());
+            assertFalse(style.isItalic());
+            assertFalse(style.isStrikethrough());
+            assertFalse(style.isUnderlined());
+        }
+    }
+
+    @Test
+    void quotesDontChangeTheParsedTree() {
+        String message = "> a\n> **b\n> c**";
+        MinecraftSerializerOptions<MutableComponent> options = MinecraftSerializerOptions.defaults();
+        List<Node<Object>> nodes = options.getParser().parse(message, null, options.getRules(), false);
+        String tree = nodes.toString();
+        SERIALIZER.serialize(message);
+
+        RenderTarget<MutableComponent> first = RenderTarget.component(options);
+        RenderTarget<MutableComponent> second = RenderTarget.component(options);
+        RenderResults results = SERIALIZER.serializeAll(message, options, first, second);
+        assertEquals("| a\n| b\n| c", results.get(first).getString());
+        assertEquals("| a\n| b\n| c", results.get(second).getString());
+        assertEquals(tree, nodes.toString());
+    }
+
+    private static void collectQuotePrefixes(Component component, List<Component> prefixes) {
+        if (component.getContents() instanceof PlainTextContents && ((PlainTextContents) component.getContents()).text().equals("| ")) {
+            prefixes.add(component);
+        }
+        for (Component sibling : component.getSiblings()) {
+            collectQuotePrefixes(sibling, prefixes);
+        }
+    }
+
+    private static void collectQuotePrefixStyles(Component component, Style parentStyle, List<Style> styles) {
+        Style style = component.getStyle().applyTo(parentStyle);
+        if (component.getContents() instanceof PlainTextContents && ((PlainTextContents) component.getContents()).text().equals("| ")) {
+            styles.add(style);
+        }
+        for (Component sibling : component.getSiblings()) {
+            collectQuotePrefixStyles(sibling, style, styles);
+        }
+    }
+
+    @Test
+    void appendQuoteKeepsTheComponent() {
+        MutableComponent component = Component.literal("a");
+        MutableComponent quote = DefaultMinecraftRenderer.INSTANCE.appendQuote(component, Component.literal("b"));
+        assertTrue(component.getSiblings().isEmpty());
+        assertEquals("| ab", quote.getString());
+    }
+}
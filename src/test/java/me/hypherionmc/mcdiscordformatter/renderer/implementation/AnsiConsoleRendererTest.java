@@ -0,0 +1,66 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.renderer.implementation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnsiConsoleRendererTest {
+
+    @Test
+    void controlCharactersAreRemoved() {
+        AnsiConsoleRenderer renderer = new AnsiConsoleRenderer();
+        String expected = renderer.render("ab\tc");
+
+        assertEquals(expected, renderer.render("a\u001Bb\tc"));
+        assertEquals(expected, renderer.render("a\u0007\u007Fb\tc"));
+        // C1 controls, CSI (U+009B) starts an escape sequence on its own in many terminals
+        assertEquals(expected, renderer.render("a\u009B\u0080\u009Fb\tc"));
+        assertFalse(renderer.render("a\u009B31mb").contains("\u009B"));
+    }
+
+    @Test
+    void printableCharactersAreKept() {
+        AnsiConsoleRenderer renderer = new AnsiConsoleRenderer();
+        assertTrue(renderer.render("caf\u00E9 \u00A0ok").contains("caf\u00E9 \u00A0ok"));
+    }
+
+    @Test
+    void maskedLinksShowTheirUrl() {
+        AnsiConsoleRenderer renderer = new AnsiConsoleRenderer();
+        String rendered = renderer.render("see [docs](https://example.com/\u009Bdocs) now");
+
+        assertTrue(rendered.contains("docs"));
+        assertTrue(rendered.contains(" (https://example.com/docs) now"));
+        assertTrue(rendered.indexOf("docs") < rendered.indexOf("(https://"));
+    }
+
+    @Test
+    void plainLinksAreNotRepeated() {
+        AnsiConsoleRenderer renderer = new AnsiConsoleRenderer();
+        String rendered = renderer.render("see https://example.com now");
+
+        assertEquals(rendered.indexOf("https://example.com"), rendered.lastIndexOf("https://example.com"));
+        assertFalse(rendered.contains("(https://"));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.hypherionmc.mcdiscordformatter.rules;
+
+import dev.vankka.simpleast.core.node.Node;
+import dev.vankka.simpleast.core.parser.Parser;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer;
+import me.hypherionmc.mcdiscordformatter.node.LinkNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiscordMarkdownRulesTest {
+
+    @Test
+    void snowflakesFitInAnUnsignedLong() {
+        assertTrue(DiscordMarkdownRules.isSnowflake("0"));
+        assertTrue(DiscordMarkdownRules.isSnowflake("9223372036854775808"));
+        assertTrue(DiscordMarkdownRules.isSnowflake("18446744073709551615"));
+        assertFalse(DiscordMarkdownRules.isSnowflake("18446744073709551616"));
+        assertFalse(DiscordMarkdownRules.isSnowflake("99999999999999999999"));
+        assertFalse(DiscordMarkdownRules.isSnowflake("100000000000000000000"));
+    }
+
+    @Test
+    void largestSnowflakeIsAMention() {
+        // the id is -1 as a signed long, it must still be parsed as a mention (which drops the !)
+        assertEquals("<@18446744073709551615>",
+                MinecraftSerializer.INSTANCE.serialize("<@!18446744073709551615>").getString());
+    }
+
+    @Test
+    void oversizedSnowflakeIsText() {
+        assertEquals("<@!18446744073709551616>",
+                MinecraftSerializer.INSTANCE.serialize("<@!18446744073709551616>").getString());
+    }
+
+    private static List<String> links(String message) {
+        List<String> urls = new ArrayList<>();
+        Deque<Node<Object>> pending = new ArrayDeque<>(new Parser<Object, Node<Object>, Object>()
+                .parse(message, null, DiscordMarkdownRules.createAllRulesForDiscord(true), false));
+        while (!pending.isEmpty()) {
+            Node<Object> node = pending.poll();
+            if (node instanceof LinkNode) {
+                urls.add(((LinkNode<Object>) node).getUrl());
+            }
+            if (node.getChildren() != null) {
+                pending.addAll(node.getChildren());
+            }
+        }
+        return urls;
+    }
+
+    @Test
+    void urlsStartAWord() {
+        assertEquals(List.of("https://a.com", "https://b.com", "https://d.com"),
+                links("https://a.com (https://b.com), xhttps://c.com 1https://c.com __https://d.com__"));
+        assertEquals(List.of("https://a.com", "https://b.com"), links("see [a](https://a.com) and https://b.com."));
+    }
+
+    @Test
+    void codeEndsLikeTheCodeRules() {
+        assertEquals(5, DiscordMarkdownRules.codeEnd("`abc` d", 0));
+        assertEquals(9, DiscordMarkdownRules.codeEnd("```a\nb```", 0));
+        assertEquals(-1, DiscordMarkdownRules.codeEnd("`a\nb`", 0));
+        assertEquals(-1, DiscordMarkdownRules.codeEnd("``", 0));
+        assertEquals(-1, DiscordMarkdownRules.codeEnd("a `b", 2));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SerializationSchedulerTest {
+
+    @Test
+    void runsAtLeastOneJobPerTick() {
+        List<Integer> results = new ArrayList<>();
+        SerializationScheduler scheduler = new SerializationScheduler(1, t -> { });
+        for (int i = 0; i < 3; i++) {
+            int value = i;
+            scheduler.submit(() -> {
+                sleep(1);
+                return value;
+            }, results::add);
+        }
+        assertEquals(3, scheduler.getBacklog());
+        assertEquals(1, scheduler.runTick());
+        assertEquals(1, scheduler.runTick());
+        assertEquals(1, scheduler.runTick());
+        assertEquals(0, scheduler.runTick());
+        assertEquals(List.of(0, 1, 2), results);
+        assertEquals(3, scheduler.getCompletedJobs());
+        assertEquals(0, scheduler.getBacklog());
+    }
+
+    @Test
+    void waitIncludesEarlierJobsOfTheTick() {
+        SerializationScheduler scheduler = new SerializationScheduler(Duration.ofSeconds(10), t -> { });
+        scheduler.submit(() -> {
+            sleep(20);
+            return null;
+        }, result -> { });
+        scheduler.submit(() -> null, result -> { });
+        assertEquals(2, scheduler.runTick());
+        assertTrue(scheduler.getMaxWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(scheduler.getTotalWaitNanos() >= scheduler.getMaxWaitNanos());
+    }
+
+    @Test
+    void failingErrorHandlersDontStopTheTick() {
+        List<Throwable> errors = new ArrayList<>();
+        List<Object> results = new ArrayList<>();
+        SerializationScheduler scheduler = new SerializationScheduler(Duration.ofSeconds(10), errors::add);
+        scheduler.submit(() -> {
+            throw new IllegalStateException("job");
+        }, results::add, t -> {
+            throw new IllegalArgumentException("handler");
+        });
+        scheduler.submit(() -> "next", results::add);
+        assertEquals(2, scheduler.runTick());
+        assertEquals(List.of("next"), results);
+        assertEquals(1, errors.size());
+        assertEquals("handler", errors.get(0).getMessage());
+        assertEquals("job", errors.get(0).getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    void backlogIsNeverNegative() throws InterruptedException {
+        int jobs = 20_000;
+        SerializationScheduler scheduler = new SerializationScheduler(Duration.ofSeconds(10), t -> { });
+        Thread submitter = new Thread(() -> {
+            for (int i = 0; i < jobs; i++) {
+                scheduler.submit(() -> null, result -> { });
+            }
+        });
+        submitter.start();
+
+        int minimum = 0;
+        while (scheduler.getCompletedJobs() < jobs) {
+            scheduler.runTick();
+            minimum = Math.min(minimum, scheduler.getBacklog());
+        }
+        submitter.join();
+        assertEquals(0, minimum);
+        assertEquals(0, scheduler.getBacklog());
+    }
+
+    @Test
+    void budgetMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new SerializationScheduler(0, t -> { }));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
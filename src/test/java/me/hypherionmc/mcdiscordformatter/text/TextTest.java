@@ -0,0 +1,59 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.text;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Style;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextTest {
+
+    @Test
+    void packsTheStyle() {
+        Text text = Text.of("a", Style.EMPTY.withBold(true).withItalic(true).withObfuscated(true).withColor(ChatFormatting.RED));
+        assertEquals(Text.BOLD | Text.ITALIC | Text.OBFUSCATED, text.getStyle());
+        assertTrue(text.isBold() && text.isItalic() && text.isObfuscated());
+        assertFalse(text.isUnderline() || text.isStrikethrough());
+        assertEquals(0xFF5555, text.getColor());
+        assertEquals(Text.NO_COLOR, Text.of("a", Style.EMPTY).getColor());
+    }
+
+    @Test
+    void onlyMarkdownFormattingMatches() {
+        Text text = new Text("a", Text.BOLD, 0xFF0000, null);
+        assertTrue(text.formattingMatches(new Text("b", Text.BOLD | Text.OBFUSCATED, 0x0000FF, null)));
+        assertFalse(text.formattingMatches(new Text("a", Text.ITALIC, 0xFF0000, null)));
+        assertFalse(text.formattingMatches(null));
+    }
+
+    @Test
+    void equalityIncludesEverything() {
+        Text text = new Text("a", Text.BOLD, 0xFF0000, null);
+        assertEquals(text, new Text("a", Text.BOLD, 0xFF0000, null));
+        assertEquals(text.hashCode(), new Text("a", Text.BOLD, 0xFF0000, null).hashCode());
+        assertNotEquals(text, new Text("a", Text.BOLD, 0x0000FF, null));
+        assertEquals(new Text("b", Text.BOLD, 0xFF0000, null), text.withContent("b"));
+    }
+}
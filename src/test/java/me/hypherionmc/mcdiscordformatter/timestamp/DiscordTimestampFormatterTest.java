@@ -0,0 +1,67 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.timestamp;
+
+import me.hypherionmc.mcdiscordformatter.node.TimestampNode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DiscordTimestampFormatterTest {
+
+    private static final long NOW = 1_700_000_000L;
+    private static final DiscordTimestampFormatter FORMATTER = new DiscordTimestampFormatter(ZoneOffset.UTC,
+            Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC));
+
+    @Test
+    void relativeTimes() {
+        assertEquals("a few seconds ago", FORMATTER.format(NOW - 10, TimestampNode.Style.RELATIVE));
+        assertEquals("in 5 minutes", FORMATTER.format(NOW + 5 * 60, TimestampNode.Style.RELATIVE));
+        assertEquals("an hour ago", FORMATTER.format(NOW - 60 * 60, TimestampNode.Style.RELATIVE));
+        assertEquals("2 days ago", FORMATTER.format(NOW - 2 * 86400, TimestampNode.Style.RELATIVE));
+        assertEquals("in 3 months", FORMATTER.format(NOW + 91 * 86400, TimestampNode.Style.RELATIVE));
+        assertEquals("2 years ago", FORMATTER.format(NOW - 2 * 365 * 86400, TimestampNode.Style.RELATIVE));
+    }
+
+    @Test
+    void datesUseTheZoneAndLocale() {
+        assertEquals("November 14, 2023", FORMATTER.format(NOW, TimestampNode.Style.LONG_DATE, Locale.US));
+        DiscordTimestampFormatter tokyo = new DiscordTimestampFormatter(ZoneId.of("Asia/Tokyo"), Clock.systemUTC());
+        assertEquals("November 15, 2023", tokyo.format(NOW - 3600, TimestampNode.Style.LONG_DATE, Locale.US));
+    }
+
+    @Test
+    void outOfRangeTimestampsAreShownAsWritten() {
+        assertEquals("<t:" + Long.MAX_VALUE + ":f>", FORMATTER.format(Long.MAX_VALUE, TimestampNode.Style.SHORT_DATE_TIME, Locale.US));
+    }
+
+    @Test
+    void formatToAppends() {
+        StringBuilder output = new StringBuilder("at ");
+        FORMATTER.formatTo(NOW, TimestampNode.Style.LONG_DATE, Locale.US, output);
+        assertEquals("at November 14, 2023", output.toString());
+    }
+}
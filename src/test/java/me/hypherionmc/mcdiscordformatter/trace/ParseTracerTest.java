@@ -0,0 +1,78 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.trace;
+
+import dev.vankka.simpleast.core.node.Node;
+import dev.vankka.simpleast.core.parser.Rule;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.rules.DiscordMarkdownRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseTracerTest {
+
+    private static final Pattern ATTEMPT_OFFSET = Pattern.compile("attempt .* at (\\d+)");
+
+    @Test
+    void attemptsInNestedRegionsHaveTheirOffsetInTheMessage() {
+        ParseTracer tracer = new ParseTracer(256);
+        List<Rule<Object, Node<Object>, Object>> rules = DiscordMarkdownRules.createAllRulesForDiscord(true);
+        tracer.getParser().parse("a **b** c", null, rules, false);
+
+        Set<Integer> offsets = new TreeSet<>();
+        Matcher matcher = ATTEMPT_OFFSET.matcher(tracer.dump());
+        while (matcher.find()) {
+            offsets.add(Integer.parseInt(matcher.group(1)));
+        }
+        // "b" is parsed in the region of the bold text, at 4 rather than 8 characters before the end
+        assertEquals(new TreeSet<>(Arrays.asList(0, 2, 4, 7)), offsets);
+    }
+
+    @Test
+    void dumpsDontContainMessages() {
+        ParseTracer tracer = new ParseTracer(256);
+        tracer.getParser().parse("secret **message**", null, DiscordMarkdownRules.createAllRulesForDiscord(true), false);
+
+        String dump = tracer.dump();
+        assertTrue(dump.contains("message (18 chars)"));
+        assertFalse(dump.contains("secret"));
+    }
+
+    @Test
+    void tracingDoesNotChangeTheResult() {
+        MinecraftSerializer serializer = new MinecraftSerializer();
+        ParseTracer tracer = new ParseTracer(64);
+        String message = "> quote **bold *both* ||spoiler `code`||** https://example.com ~~done~~";
+
+        assertEquals(serializer.serialize(message).getString(),
+                serializer.serialize(message, tracer.apply(MinecraftSerializerOptions.defaults())).getString());
+    }
+}
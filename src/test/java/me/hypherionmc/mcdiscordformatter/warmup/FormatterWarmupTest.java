@@ -0,0 +1,74 @@
+/*
+ * MCDiscordReserializer: A library for transcoding between Minecraft and Discord.
+ * Copyright (C) 2018-2022 Vankka
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package me.hypherionmc.mcdiscordformatter.warmup;
+
+import me.hypherionmc.mcdiscordformatter.discord.DiscordSerializer;
+import me.hypherionmc.mcdiscordformatter.discord.DiscordSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.mention.MentionLinker;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializer;
+import me.hypherionmc.mcdiscordformatter.minecraft.MinecraftSerializerOptions;
+import me.hypherionmc.mcdiscordformatter.trace.ParseTracer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FormatterWarmupTest {
+
+    @Test
+    void warmupDoesNotResolveLinkOrTrace() {
+        AtomicInteger resolved = new AtomicInteger();
+        AtomicInteger linked = new AtomicInteger();
+        ParseTracer tracer = new ParseTracer(64, Duration.ZERO, trace -> { });
+        MinecraftSerializer minecraftSerializer = new MinecraftSerializer(
+                tracer.apply(MinecraftSerializerOptions.defaults().withMentionResolver(mentions -> resolved.incrementAndGet())),
+                tracer.apply(MinecraftSerializerOptions.escapeDefaults().withMentionResolver(mentions -> resolved.incrementAndGet())));
+        MentionLinker mentionLinker = new MentionLinker(false) {
+            @Override
+            public String link(String text) {
+                linked.incrementAndGet();
+                return super.link(text);
+            }
+        };
+        DiscordSerializer discordSerializer = new DiscordSerializer(DiscordSerializerOptions.defaults().withMentionLinker(mentionLinker));
+
+        FormatterWarmup.of(minecraftSerializer, discordSerializer).withIterations(2).run();
+
+        assertEquals(0, resolved.get());
+        assertEquals(0, linked.get());
+        assertEquals(0, tracer.getSlowMessageCount());
+        assertTrue(tracer.dumpAll().isEmpty());
+    }
+
+    @Test
+    void serializersStillResolveAfterWarmup() {
+        AtomicInteger resolved = new AtomicInteger();
+        MinecraftSerializer minecraftSerializer = new MinecraftSerializer(MinecraftSerializerOptions.defaults()
+                .withMentionResolver(mentions -> resolved.incrementAndGet()), MinecraftSerializerOptions.escapeDefaults());
+
+        FormatterWarmup.of(minecraftSerializer, new DiscordSerializer()).withIterations(1).run();
+        minecraftSerializer.serialize("<@80351110224678912>");
+
+        assertEquals(1, resolved.get());
+    }
+}